@@ -0,0 +1,83 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.vehicle.FiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.util.Solutions;
+import com.graphhopper.jsprit.instance.reader.LiLimReader;
+import com.graphhopper.jsprit.instance.reader.SolomonReader;
+import com.graphhopper.jsprit.instance.reader.VrphGoldenReader;
+
+import java.util.Random;
+
+/**
+ * Reads the benchmark instances of jsprit-instances and provides solutions to start from.
+ * <p>Instances are located in the folder given by the system property <code>jsprit.instances</code>. It defaults to
+ * jsprit-instances/instances, i.e. benchmarks are meant to be run from the project's root folder.
+ */
+public final class BenchmarkProblems {
+
+    public static final String INSTANCES_FOLDER = System.getProperty("jsprit.instances", "jsprit-instances/instances");
+
+    private BenchmarkProblems() {
+    }
+
+    /**
+     * Reads an instance with the reader that belongs to its folder, i.e. solomon (Solomon), lilim (Li &amp; Lim) or
+     * vrph (Golden, read as fleet size and mix problem with variable costs).
+     *
+     * @param instance path relative to the instances folder, e.g. solomon/C101.txt
+     * @return the vehicle routing problem
+     */
+    public static VehicleRoutingProblem read(String instance) {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        String file = INSTANCES_FOLDER + "/" + instance;
+        if (instance.startsWith("solomon/")) new SolomonReader(vrpBuilder).read(file);
+        else if (instance.startsWith("lilim/")) new LiLimReader(vrpBuilder).read(file);
+        else if (instance.startsWith("vrph/")) new VrphGoldenReader(vrpBuilder, VrphGoldenReader.VrphType.FSMD).read(file);
+        else throw new IllegalArgumentException("cannot read " + instance + ". instance must be located in solomon, lilim or vrph");
+        return vrpBuilder.build();
+    }
+
+    /**
+     * Solves the problem with default settings and a fixed seed.
+     *
+     * @param vrp        the problem to solve
+     * @param iterations no. of iterations
+     * @return best solution found
+     */
+    public static VehicleRoutingProblemSolution solve(VehicleRoutingProblem vrp, int iterations) {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setRandom(new Random(4711)).buildAlgorithm();
+        vra.setMaxIterations(iterations);
+        return Solutions.bestOf(vra.searchSolutions());
+    }
+
+    public static VehicleFleetManager createFleetManager(VehicleRoutingProblem vrp) {
+        if (vrp.getFleetSize().equals(VehicleRoutingProblem.FleetSize.INFINITE)) {
+            return new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        }
+        return new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.benchmark.BenchmarkProblems;
+import com.graphhopper.jsprit.core.algorithm.AlgorithmUtil;
+import com.graphhopper.jsprit.core.algorithm.ResetAndIniFleetManager;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RegretInsertionFast} by constructing a solution from scratch, i.e. by inserting all jobs into an
+ * empty solution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegretInsertionFastBenchmark {
+
+    @Param({"solomon/R101.txt", "lilim/lc101.txt", "vrph/cn_13mix.txt"})
+    public String instance;
+
+    private RegretInsertionFast regretInsertion;
+
+    private List<Job> jobs;
+
+    @Setup
+    public void setup() {
+        VehicleRoutingProblem vrp = BenchmarkProblems.read(instance);
+        jobs = new ArrayList<Job>(vrp.getJobs().values());
+
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        AlgorithmUtil.addCoreConstraints(constraintManager, stateManager, vrp);
+        VehicleFleetManager fleetManager = BenchmarkProblems.createFleetManager(vrp);
+
+        regretInsertion = (RegretInsertionFast) new InsertionBuilder(vrp, fleetManager, stateManager, constraintManager)
+            .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
+            .setFastRegret(true)
+            .build();
+        regretInsertion.setScoringFunction(new DefaultScorer(vrp));
+        regretInsertion.setDependencyTypes(constraintManager.getDependencyTypes());
+        regretInsertion.addListener(new ResetAndIniFleetManager(fleetManager));
+        regretInsertion.addListener(new VehicleSwitched(fleetManager));
+        regretInsertion.addListener(stateManager);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetRandom() {
+        regretInsertion.setRandom(new Random(4711));
+    }
+
+    @Benchmark
+    public Collection<VehicleRoute> insertAllJobs() {
+        Collection<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        regretInsertion.insertJobs(routes, jobs);
+        return routes;
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.benchmark.BenchmarkProblems;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.JobActivityFactory;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ServiceInsertionCalculator} by evaluating the insertion of every job into every route of a
+ * solution of a Solomon instance.
+ * <p>Run it with <code>-prof gc</code> to see the bytes allocated per evaluation (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceInsertionCalculatorBenchmark {
+
+    @Param({"solomon/C101.txt", "solomon/R101.txt"})
+    public String instance;
+
+    private ServiceInsertionCalculator calculator;
+
+    private List<VehicleRoute> routes;
+
+    private List<Job> jobs;
+
+    @Setup
+    public void setup() {
+        final VehicleRoutingProblem vrp = BenchmarkProblems.read(instance);
+        VehicleRoutingProblemSolution solution = BenchmarkProblems.solve(vrp, 20);
+        routes = new ArrayList<VehicleRoute>(solution.getRoutes());
+        jobs = new ArrayList<Job>(vrp.getJobs().values());
+
+        StateManager stateManager = new StateManager(vrp);
+        stateManager.updateLoadStates();
+        stateManager.updateTimeWindowStates();
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        constraintManager.addLoadConstraint();
+        constraintManager.addTimeWindowConstraint();
+        stateManager.informInsertionStarts(routes, Collections.<Job>emptyList());
+
+        calculator = new ServiceInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(),
+            new LocalActivityInsertionCostsCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), stateManager), constraintManager);
+        calculator.setJobActivityFactory(new JobActivityFactory() {
+
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+
+        });
+    }
+
+    @Benchmark
+    public void evaluateAllJobsInAllRoutes(Blackhole blackhole) {
+        for (Job job : jobs) {
+            for (VehicleRoute route : routes) {
+                blackhole.consume(calculator.getInsertionData(route, job, route.getVehicle(), route.getDepartureTime(), route.getDriver(), Double.MAX_VALUE));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.benchmark.BenchmarkProblems;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the initialisation of {@link JobNeighborhoods} as created by {@link JobNeighborhoodsFactory}, i.e. with
+ * neighborhoods restricted to half of the jobs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobNeighborhoodsBenchmark {
+
+    @Param({"solomon/R101.txt", "lilim/lc101.txt", "vrph/cn_13mix.txt"})
+    public String instance;
+
+    private VehicleRoutingProblem vrp;
+
+    private JobDistance jobDistance;
+
+    @Setup
+    public void setup() {
+        vrp = BenchmarkProblems.read(instance);
+        jobDistance = new AvgServiceAndShipmentDistance(vrp.getTransportCosts());
+    }
+
+    @Benchmark
+    public JobNeighborhoods initialise() {
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, jobDistance, (int) (vrp.getJobs().size() * 0.5));
+        neighborhoods.initialise();
+        return neighborhoods;
+    }
+
+}
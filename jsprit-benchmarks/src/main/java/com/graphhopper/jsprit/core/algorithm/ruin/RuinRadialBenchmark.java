@@ -0,0 +1,74 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.benchmark.BenchmarkProblems;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RuinRadial} removing 30% of the jobs of a solution.
+ * <p>Since ruin modifies the solution, a fresh copy is made before each invocation (which is not measured).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuinRadialBenchmark {
+
+    @Param({"solomon/R101.txt", "lilim/lc101.txt", "vrph/cn_13mix.txt"})
+    public String instance;
+
+    private RuinRadial ruin;
+
+    private VehicleRoutingProblemSolution solution;
+
+    private Collection<VehicleRoute> routes;
+
+    @Setup
+    public void setup() {
+        VehicleRoutingProblem vrp = BenchmarkProblems.read(instance);
+        solution = BenchmarkProblems.solve(vrp, 20);
+        int noJobs = vrp.getJobs().size();
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (noJobs * 0.5));
+        neighborhoods.initialise();
+        ruin = new RuinRadial(vrp, (int) (noJobs * 0.3), neighborhoods);
+        ruin.setRandom(new Random(4711));
+    }
+
+    @Setup(Level.Invocation)
+    public void copySolution() {
+        routes = VehicleRoutingProblemSolution.copyOf(solution).getRoutes();
+    }
+
+    @Benchmark
+    public Collection<Job> ruin() {
+        return ruin.ruin(routes);
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.solution;
+
+import com.graphhopper.jsprit.benchmark.BenchmarkProblems;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link VehicleRoutingProblemSolution#copyOnWriteOf(VehicleRoutingProblemSolution)}, which is called once
+ * per iteration and search strategy, and the deep {@link VehicleRoutingProblemSolution#copyOf(VehicleRoutingProblemSolution)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolutionCopyBenchmark {
+
+    @Param({"solomon/R101.txt", "lilim/lc101.txt", "vrph/cn_13mix.txt"})
+    public String instance;
+
+    private VehicleRoutingProblemSolution solution;
+
+    @Setup
+    public void setup() {
+        solution = BenchmarkProblems.solve(BenchmarkProblems.read(instance), 20);
+    }
+
+    @Benchmark
+    public VehicleRoutingProblemSolution copyOnWriteOf() {
+        return VehicleRoutingProblemSolution.copyOnWriteOf(solution);
+    }
+
+    @Benchmark
+    public VehicleRoutingProblemSolution copyOf() {
+        return VehicleRoutingProblemSolution.copyOf(solution);
+    }
+
+}
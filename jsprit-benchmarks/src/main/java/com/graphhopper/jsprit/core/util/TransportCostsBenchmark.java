@@ -0,0 +1,125 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.benchmark.BenchmarkProblems;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures transport cost lookups of the cost matrices compared to calculating (and caching) euclidean costs. The
+ * matrices are built from the locations of an instance, and all implementations are queried with the same random
+ * sequence of relations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportCostsBenchmark {
+
+    private static final int NO_QUERIES = 10000;
+
+    @Param({"solomon/R101.txt", "vrph/cn_13mix.txt"})
+    public String instance;
+
+    private Location[] from;
+
+    private Location[] to;
+
+    private VehicleRoutingTransportCosts fastMatrix;
+
+    private VehicleRoutingTransportCosts matrix;
+
+    private VehicleRoutingTransportCosts euclidean;
+
+    private VehicleRoutingTransportCosts cachedEuclidean;
+
+    @Setup
+    public void setup() {
+        List<Location> locations = new ArrayList<Location>();
+        for (Location location : BenchmarkProblems.read(instance).getAllLocations()) {
+            if (location.getCoordinate() == null) continue;
+            locations.add(Location.Builder.newInstance().setIndex(locations.size()).setId(String.valueOf(locations.size()))
+                .setCoordinate(location.getCoordinate()).build());
+        }
+        euclidean = new EuclideanCosts();
+        cachedEuclidean = new CachedVehicleRoutingTransportCosts(euclidean);
+        FastVehicleRoutingTransportCostsMatrix.Builder fastMatrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(locations.size(), true);
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+        for (int i = 0; i < locations.size(); i++) {
+            for (int j = i + 1; j < locations.size(); j++) {
+                Location l1 = locations.get(i);
+                Location l2 = locations.get(j);
+                double distance = EuclideanDistanceCalculator.calculateDistance(l1.getCoordinate(), l2.getCoordinate());
+                fastMatrixBuilder.addTransportDistance(i, j, distance).addTransportTime(i, j, distance);
+                matrixBuilder.addTransportDistance(l1.getId(), l2.getId(), distance).addTransportTime(l1.getId(), l2.getId(), distance);
+            }
+        }
+        fastMatrix = fastMatrixBuilder.build();
+        matrix = matrixBuilder.build();
+
+        Random random = new Random(4711);
+        from = new Location[NO_QUERIES];
+        to = new Location[NO_QUERIES];
+        for (int i = 0; i < NO_QUERIES; i++) {
+            from[i] = locations.get(random.nextInt(locations.size()));
+            to[i] = locations.get(random.nextInt(locations.size()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NO_QUERIES)
+    public double fastMatrix() {
+        return query(fastMatrix);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NO_QUERIES)
+    public double matrix() {
+        return query(matrix);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NO_QUERIES)
+    public double euclidean() {
+        return query(euclidean);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NO_QUERIES)
+    public double cachedEuclidean() {
+        return query(cachedEuclidean);
+    }
+
+    private double query(VehicleRoutingTransportCosts costs) {
+        double sum = 0.;
+        for (int i = 0; i < NO_QUERIES; i++) {
+            sum += costs.getTransportCost(from[i], to[i], 0., null, null);
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.VehicleSwitchedListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.*;
+
+/**
+ * Solution cost calculator that sums up costs per route and caches them, i.e. only routes changed since their costs
+ * have been calculated are evaluated again.
+ * <p>Route costs are cached with the activities of a route. Since search strategies copy routes such that they share
+ * activities until one of them is changed (see {@link com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivities#copyOnWriteOf(com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivities)}),
+ * costs of routes that are neither ruined nor recreated are looked up in the cache. Routes reported to be changed by
+ * ruin and insertion listeners are evaluated anyway. Thus register this calculator as listener of the algorithm.
+ * <p>The cache only keeps routes of solutions known at the beginning of an iteration.
+ */
+public abstract class IncrementalSolutionCostCalculator implements SolutionCostCalculator, IterationStartsListener, RuinListener, JobInsertedListener, VehicleSwitchedListener {
+
+    private static class RouteCosts {
+
+        final Vehicle vehicle;
+
+        final Driver driver;
+
+        final double departureTime;
+
+        final int noActivities;
+
+        final TourActivity lastActivity;
+
+        final double costs;
+
+        RouteCosts(VehicleRoute route, double costs) {
+            this.vehicle = route.getVehicle();
+            this.driver = route.getDriver();
+            this.departureTime = route.getDepartureTime();
+            this.noActivities = route.getActivities().size();
+            this.lastActivity = route.getActivities().get(noActivities - 1);
+            this.costs = costs;
+        }
+
+        boolean isValidFor(VehicleRoute route) {
+            List<TourActivity> activities = route.getActivities();
+            return vehicle == route.getVehicle() && driver == route.getDriver() && departureTime == route.getDepartureTime()
+                && noActivities == activities.size() && lastActivity == activities.get(noActivities - 1);
+        }
+    }
+
+    private final Map<TourActivity, RouteCosts> routeCosts = new IdentityHashMap<TourActivity, RouteCosts>();
+
+    private final Set<VehicleRoute> changedRoutes = Collections.newSetFromMap(new IdentityHashMap<VehicleRoute, Boolean>());
+
+    private long noCalculatedRoutes;
+
+    private long noCachedRoutes;
+
+    /**
+     * Calculates the costs of a route including its fixed costs.
+     *
+     * @param route the route to be evaluated
+     * @return costs of route
+     */
+    protected abstract double getRouteCosts(VehicleRoute route);
+
+    /**
+     * Calculates the costs of (or penalty for) unassigned jobs.
+     *
+     * @param unassignedJobs the jobs not assigned to any route
+     * @return costs of unassigned jobs
+     */
+    protected abstract double getUnassignedJobCosts(Collection<Job> unassignedJobs);
+
+    @Override
+    public double getCosts(VehicleRoutingProblemSolution solution) {
+        double costs = 0.;
+        for (VehicleRoute route : solution.getRoutes()) {
+            costs += getCachedRouteCosts(route);
+        }
+        costs += getUnassignedJobCosts(solution.getUnassignedJobs());
+        return costs;
+    }
+
+    private double getCachedRouteCosts(VehicleRoute route) {
+        if (route.isEmpty()) return getRouteCosts(route);
+        TourActivity key = route.getActivities().get(0);
+        synchronized (this) {
+            if (!changedRoutes.remove(route)) {
+                RouteCosts cached = routeCosts.get(key);
+                if (cached != null && cached.isValidFor(route)) {
+                    noCachedRoutes++;
+                    return cached.costs;
+                }
+            }
+        }
+        double costs = getRouteCosts(route);
+        synchronized (this) {
+            noCalculatedRoutes++;
+            routeCosts.put(key, new RouteCosts(route, costs));
+        }
+        return costs;
+    }
+
+    /**
+     * Returns the number of routes whose costs have been calculated.
+     *
+     * @return no. of calculated routes
+     */
+    public synchronized long getNoCalculatedRoutes() {
+        return noCalculatedRoutes;
+    }
+
+    /**
+     * Returns the number of routes whose costs have been looked up in the cache.
+     *
+     * @return no. of cached routes
+     */
+    public synchronized long getNoCachedRoutes() {
+        return noCachedRoutes;
+    }
+
+    @Override
+    public synchronized void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        Map<TourActivity, RouteCosts> retained = new IdentityHashMap<TourActivity, RouteCosts>();
+        for (VehicleRoutingProblemSolution solution : solutions) {
+            for (VehicleRoute route : solution.getRoutes()) {
+                if (route.isEmpty()) continue;
+                TourActivity key = route.getActivities().get(0);
+                RouteCosts cached = routeCosts.get(key);
+                if (cached != null) retained.put(key, cached);
+            }
+        }
+        routeCosts.clear();
+        routeCosts.putAll(retained);
+        changedRoutes.clear();
+    }
+
+    @Override
+    public void ruinStarts(Collection<VehicleRoute> routes) {
+
+    }
+
+    @Override
+    public void ruinEnds(Collection<VehicleRoute> routes, Collection<Job> unassignedJobs) {
+
+    }
+
+    @Override
+    public synchronized void removed(Job job, VehicleRoute fromRoute) {
+        changedRoutes.add(fromRoute);
+    }
+
+    @Override
+    public synchronized void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+        changedRoutes.add(inRoute);
+    }
+
+    @Override
+    public synchronized void vehicleSwitched(VehicleRoute vehicleRoute, Vehicle oldVehicle, Vehicle newVehicle) {
+        changedRoutes.add(vehicleRoute);
+    }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.SearchStrategy.DiscoveredSolution;
+import com.graphhopper.jsprit.core.algorithm.listener.*;
+import com.graphhopper.jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Island model of {@link VehicleRoutingAlgorithm}. It runs a number of independent algorithms (islands), each in its
+ * own thread. Islands should therefore neither share a {@link com.graphhopper.jsprit.core.algorithm.state.StateManager}
+ * nor a {@link SearchStrategyManager} nor a random number generator.
+ * <p>Every migrationInterval iterations, islands wait for each other and exchange solutions along a ring, i.e.
+ * island i receives a copy of the best solution of island i-1. The copy replaces the worst solution of island i if it
+ * is better.
+ * <p>Termination criteria are shared by all islands. They are invoked (synchronized) with the discovered
+ * solutions of all islands, and if one criterion is met, all islands terminate. {@link AlgorithmStartsListener}s and
+ * {@link AlgorithmEndsListener}s are informed once, the latter with the solutions of all islands.
+ * {@link IterationStartsListener}s, {@link IterationEndsListener}s and {@link StrategySelectedListener}s are informed
+ * (synchronized) by every island with its own iteration and solutions. Search strategy listeners need to be added to
+ * the islands directly.
+ */
+public class IslandVehicleRoutingAlgorithm extends VehicleRoutingAlgorithm {
+
+    private static Logger logger = LoggerFactory.getLogger(IslandVehicleRoutingAlgorithm.class);
+
+    private class SharedTermination implements PrematureAlgorithmTermination {
+
+        @Override
+        public boolean isPrematureBreak(DiscoveredSolution discoveredSolution) {
+            if (stop) return true;
+            synchronized (terminationCriteria) {
+                for (PrematureAlgorithmTermination termination : terminationCriteria) {
+                    if (termination.isPrematureBreak(discoveredSolution)) {
+                        stop = true;
+                        break;
+                    }
+                }
+            }
+            return stop;
+        }
+
+    }
+
+    private class Migration implements IterationEndsListener {
+
+        private final int island;
+
+        Migration(int island) {
+            this.island = island;
+        }
+
+        @Override
+        public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            if (i % migrationInterval != 0) return;
+            islandSolutions.set(island, solutions);
+            phaser.arriveAndAwaitAdvance();
+        }
+
+    }
+
+    private static class SynchronizedListener implements IterationStartsListener, IterationEndsListener, StrategySelectedListener {
+
+        private final VehicleRoutingAlgorithmListener listener;
+
+        private final Object lock;
+
+        SynchronizedListener(VehicleRoutingAlgorithmListener listener, Object lock) {
+            this.listener = listener;
+            this.lock = lock;
+        }
+
+        @Override
+        public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            if (!(listener instanceof IterationStartsListener)) return;
+            synchronized (lock) {
+                ((IterationStartsListener) listener).informIterationStarts(i, problem, solutions);
+            }
+        }
+
+        @Override
+        public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            if (!(listener instanceof IterationEndsListener)) return;
+            synchronized (lock) {
+                ((IterationEndsListener) listener).informIterationEnds(i, problem, solutions);
+            }
+        }
+
+        @Override
+        public void informSelectedStrategy(DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+            if (!(listener instanceof StrategySelectedListener)) return;
+            synchronized (lock) {
+                ((StrategySelectedListener) listener).informSelectedStrategy(discoveredSolution, vehicleRoutingProblem, vehicleRoutingProblemSolutions);
+            }
+        }
+
+    }
+
+    private final VehicleRoutingProblem problem;
+
+    private final List<VehicleRoutingAlgorithm> islands;
+
+    private final int migrationInterval;
+
+    private final Collection<PrematureAlgorithmTermination> terminationCriteria = new ArrayList<PrematureAlgorithmTermination>();
+
+    private final Collection<VehicleRoutingProblemSolution> initialSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+
+    private final Object listenerLock = new Object();
+
+    private final List<Collection<VehicleRoutingProblemSolution>> islandSolutions;
+
+    private Phaser phaser;
+
+    private volatile boolean stop;
+
+    /**
+     * @param problem           the problem to be solved
+     * @param islands           independent algorithms solving the problem
+     * @param migrationInterval number of iterations between two migrations
+     */
+    @SuppressWarnings("unchecked")
+    public IslandVehicleRoutingAlgorithm(VehicleRoutingProblem problem, List<VehicleRoutingAlgorithm> islands, int migrationInterval) {
+        super(problem, new SearchStrategyManager());
+        if (islands.isEmpty()) throw new IllegalArgumentException("at least one island is required");
+        if (migrationInterval < 1) throw new IllegalArgumentException("migrationInterval must be at least 1");
+        this.problem = problem;
+        this.islands = new ArrayList<VehicleRoutingAlgorithm>(islands);
+        this.migrationInterval = migrationInterval;
+        this.islandSolutions = new ArrayList<Collection<VehicleRoutingProblemSolution>>(islands.size());
+        for (int i = 0; i < this.islands.size(); i++) {
+            VehicleRoutingAlgorithm island = this.islands.get(i);
+            islandSolutions.add(null);
+            island.addTerminationCriterion(new SharedTermination());
+            island.addListener(new Migration(i));
+        }
+        super.setMaxIterations(this.islands.get(0).getMaxIterations());
+    }
+
+    /**
+     * Returns the islands, e.g. to add island specific listeners.
+     *
+     * @return unmodifiable list of islands
+     */
+    public List<VehicleRoutingAlgorithm> getIslands() {
+        return Collections.unmodifiableList(islands);
+    }
+
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    /**
+     * Adds a copy of the solution to the initial solutions of each island.
+     *
+     * @param solution the solution to be added
+     */
+    @Override
+    public void addInitialSolution(VehicleRoutingProblemSolution solution) {
+        initialSolutions.add(solution);
+        for (VehicleRoutingAlgorithm island : islands) {
+            island.addInitialSolution(VehicleRoutingProblemSolution.copyOf(solution));
+        }
+    }
+
+    @Override
+    public void setPrematureAlgorithmTermination(PrematureAlgorithmTermination prematureAlgorithmTermination) {
+        synchronized (terminationCriteria) {
+            terminationCriteria.clear();
+            terminationCriteria.add(prematureAlgorithmTermination);
+        }
+    }
+
+    @Override
+    public void addTerminationCriterion(PrematureAlgorithmTermination terminationCriterion) {
+        synchronized (terminationCriteria) {
+            terminationCriteria.add(terminationCriterion);
+        }
+    }
+
+    @Override
+    public void addListener(VehicleRoutingAlgorithmListener l) {
+        super.addListener(l);
+        if (l instanceof IterationStartsListener || l instanceof IterationEndsListener || l instanceof StrategySelectedListener) {
+            SynchronizedListener synchronizedListener = new SynchronizedListener(l, listenerLock);
+            for (VehicleRoutingAlgorithm island : islands) {
+                island.addListener(synchronizedListener);
+            }
+        }
+    }
+
+    /**
+     * Sets max number of iterations of each island.
+     *
+     * @param maxIterations max number of iteration each island runs
+     */
+    @Override
+    public void setMaxIterations(int maxIterations) {
+        super.setMaxIterations(maxIterations);
+        for (VehicleRoutingAlgorithm island : islands) {
+            island.setMaxIterations(maxIterations);
+        }
+    }
+
+    /**
+     * Runs all islands concurrently and returns the solutions of all of them, including the best solution found.
+     *
+     * @return Collection<VehicleRoutingProblemSolution> the solutions
+     */
+    @Override
+    public Collection<VehicleRoutingProblemSolution> searchSolutions() {
+        logger.info("island model starts: [islands={}][migrationInterval={}][maxIterations={}]", islands.size(), migrationInterval, getMaxIterations());
+        double now = System.currentTimeMillis();
+        stop = false;
+        Collections.fill(islandSolutions, null);
+        phaser = new Phaser(islands.size()) {
+
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                migrate();
+                return registeredParties == 0;
+            }
+
+        };
+        getAlgorithmListeners().algorithmStarts(problem, this, new ArrayList<VehicleRoutingProblemSolution>(initialSolutions));
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, islands.size() - 1));
+        List<Future<Collection<VehicleRoutingProblemSolution>>> futures = new ArrayList<Future<Collection<VehicleRoutingProblemSolution>>>();
+        Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        try {
+            for (int i = 1; i < islands.size(); i++) {
+                futures.add(executorService.submit(createRunner(i)));
+            }
+            Throwable error = null;
+            try {
+                solutions.addAll(createRunner(0).call());
+            } catch (Throwable e) {
+                error = e;
+            }
+            for (Future<Collection<VehicleRoutingProblemSolution>> future : futures) {
+                try {
+                    solutions.addAll(future.get());
+                } catch (ExecutionException e) {
+                    if (error == null) error = e.getCause();
+                }
+            }
+            if (error != null) throw new RuntimeException(error);
+        } catch (InterruptedException e) {
+            stop = true;
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdown();
+        }
+        getAlgorithmListeners().algorithmEnds(problem, solutions);
+        logger.info("islands took {} seconds", ((System.currentTimeMillis() - now) / 1000.0));
+        return solutions;
+    }
+
+    private Callable<Collection<VehicleRoutingProblemSolution>> createRunner(final int island) {
+        return new Callable<Collection<VehicleRoutingProblemSolution>>() {
+
+            @Override
+            public Collection<VehicleRoutingProblemSolution> call() throws Exception {
+                try {
+                    return islands.get(island).searchSolutions();
+                } catch (Throwable e) {
+                    stop = true;
+                    throw e instanceof Exception ? (Exception) e : new RuntimeException(e);
+                } finally {
+                    islandSolutions.set(island, null);
+                    phaser.arriveAndDeregister();
+                }
+            }
+
+        };
+    }
+
+    /*
+     * called by the last island arriving at the phaser, while all other participating islands wait
+     */
+    private void migrate() {
+        List<Collection<VehicleRoutingProblemSolution>> participants = new ArrayList<Collection<VehicleRoutingProblemSolution>>();
+        List<VehicleRoutingProblemSolution> emigrants = new ArrayList<VehicleRoutingProblemSolution>();
+        for (Collection<VehicleRoutingProblemSolution> solutions : islandSolutions) {
+            if (solutions == null || solutions.isEmpty()) continue;
+            participants.add(solutions);
+            emigrants.add(Solutions.bestOf(solutions));
+        }
+        if (participants.size() < 2) return;
+        for (int i = 0; i < participants.size(); i++) {
+            Collection<VehicleRoutingProblemSolution> solutions = participants.get((i + 1) % participants.size());
+            VehicleRoutingProblemSolution immigrant = emigrants.get(i);
+            VehicleRoutingProblemSolution worst = worstOf(solutions);
+            if (immigrant.getCost() < worst.getCost()) {
+                solutions.remove(worst);
+                //deep copy, i.e. islands never share activities
+                solutions.add(VehicleRoutingProblemSolution.copyOf(immigrant));
+            }
+        }
+    }
+
+    private static VehicleRoutingProblemSolution worstOf(Collection<VehicleRoutingProblemSolution> solutions) {
+        VehicleRoutingProblemSolution worst = null;
+        for (VehicleRoutingProblemSolution s : solutions) {
+            if (worst == null || s.getCost() > worst.getCost()) worst = s;
+        }
+        return worst;
+    }
+
+}
@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm;
 
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleRunListener;
 import com.graphhopper.jsprit.core.algorithm.selector.SolutionSelector;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
@@ -29,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 
 public class SearchStrategy {
@@ -70,6 +72,8 @@ public class SearchStrategy {
 
     private final Collection<SearchStrategyModule> searchStrategyModules = new ArrayList<SearchStrategyModule>();
 
+    private final List<SearchStrategyModuleRunListener> moduleRunListeners = new ArrayList<SearchStrategyModuleRunListener>();
+
     private final SolutionSelector solutionSelector;
 
     private final SolutionCostCalculator solutionCostCalculator;
@@ -133,18 +137,41 @@ public class SearchStrategy {
      * @return discoveredSolution
      * @throws java.lang.IllegalStateException if selector cannot select any solution
      */
-    @SuppressWarnings("UnusedParameters")
     public DiscoveredSolution run(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        VehicleRoutingProblemSolution newSolution = searchSolution(vrp, solutions);
+        boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, newSolution);
+        return new DiscoveredSolution(newSolution, solutionAccepted, getId());
+    }
+
+    /**
+     * Runs steps 1) and 2) of <code>.run(...)</code>, i.e. it selects and copies a solution, runs the modules on the
+     * copy and calculates the costs of the new solution. It does not modify solutions and it does not accept the
+     * new solution.
+     *
+     * @param vrp       the underlying vehicle routing problem
+     * @param solutions to select from
+     * @return the new solution
+     * @throws java.lang.IllegalStateException if selector cannot select any solution
+     */
+    @SuppressWarnings("UnusedParameters")
+    public VehicleRoutingProblemSolution searchSolution(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
         VehicleRoutingProblemSolution solution = solutionSelector.selectSolution(solutions);
         if (solution == null) throw new IllegalStateException(getErrMsg());
-        VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.copyOf(solution);
-        for (SearchStrategyModule module : searchStrategyModules) {
-            lastSolution = module.runAndGetSolution(lastSolution);
+        VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.copyOnWriteOf(solution);
+        if (moduleRunListeners.isEmpty()) {
+            for (SearchStrategyModule module : searchStrategyModules) {
+                lastSolution = module.runAndGetSolution(lastSolution);
+            }
+        } else {
+            for (SearchStrategyModule module : searchStrategyModules) {
+                for (SearchStrategyModuleRunListener l : moduleRunListeners) l.informModuleStarts(this, module, lastSolution);
+                lastSolution = module.runAndGetSolution(lastSolution);
+                for (SearchStrategyModuleRunListener l : moduleRunListeners) l.informModuleEnds(this, module, lastSolution);
+            }
         }
         double costs = solutionCostCalculator.getCosts(lastSolution);
         lastSolution.setCost(costs);
-        boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, lastSolution);
-        return new DiscoveredSolution(lastSolution, solutionAccepted, getId());
+        return lastSolution;
     }
 
     private String getErrMsg() {
@@ -161,6 +188,9 @@ public class SearchStrategy {
     }
 
     public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+        if (moduleListener instanceof SearchStrategyModuleRunListener && !moduleRunListeners.contains(moduleListener)) {
+            moduleRunListeners.add((SearchStrategyModuleRunListener) moduleListener);
+        }
         for (SearchStrategyModule module : searchStrategyModules) {
             module.addModuleListener(moduleListener);
         }
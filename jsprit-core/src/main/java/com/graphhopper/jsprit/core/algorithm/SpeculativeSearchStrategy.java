@@ -0,0 +1,195 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * Search strategy that evaluates a batch of strategies concurrently, and lets its acceptor decide on the best
+ * solution of the batch.
+ * <p>The batch consists of one strategy per replica, randomly selected by the replica's {@link SearchStrategyManager}.
+ * A replica is an algorithm with its own state manager, constraint manager, fleet manager and random number generator,
+ * i.e. each strategy of a batch runs on its own copy of the selected solution with thread-confined state. The strategy
+ * of the first replica is run by the calling thread, the others by the executor service. The latter select from deep
+ * copies of the solutions, thus no activity is shared between threads.
+ * <p>Register this strategy as listener of the algorithm it is part of. It then informs the replicas about algorithm
+ * and iteration starts and ends, such that their listeners (e.g. initial solution construction, noise or
+ * threshold configuration) keep working.
+ */
+public class SpeculativeSearchStrategy extends SearchStrategy implements AlgorithmStartsListener, IterationStartsListener, IterationEndsListener, AlgorithmEndsListener {
+
+    private static Logger logger = LoggerFactory.getLogger(SpeculativeSearchStrategy.class);
+
+    private static class Candidate {
+
+        final SearchStrategy strategy;
+
+        final VehicleRoutingProblemSolution solution;
+
+        Candidate(SearchStrategy strategy, VehicleRoutingProblemSolution solution) {
+            this.strategy = strategy;
+            this.solution = solution;
+        }
+
+    }
+
+    private final List<VehicleRoutingAlgorithm> replicas;
+
+    private final ExecutorService executorService;
+
+    /**
+     * @param replicas         algorithms whose strategies are evaluated concurrently, one per replica and iteration
+     * @param solutionAcceptor acceptor that decides on the best solution of a batch
+     * @param executorService  executor service that provides at least replicas.size()-1 threads
+     */
+    public SpeculativeSearchStrategy(List<VehicleRoutingAlgorithm> replicas, SolutionAcceptor solutionAcceptor, ExecutorService executorService) {
+        super("speculative", null, solutionAcceptor, null);
+        if (replicas.isEmpty()) throw new IllegalArgumentException("at least one replica is required");
+        this.replicas = new ArrayList<VehicleRoutingAlgorithm>(replicas);
+        this.executorService = executorService;
+        logger.debug("initialise {}", this);
+    }
+
+    public List<VehicleRoutingAlgorithm> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    @Override
+    public String toString() {
+        return "[name=speculativeSearchStrategy][batchSize=" + replicas.size() + "][acceptor=" + getSolutionAcceptor() + "]";
+    }
+
+    /**
+     * Runs a batch of strategies and lets the acceptor decide on the best solution of the batch.
+     *
+     * @param vrp       the underlying vehicle routing problem
+     * @param solutions which will be modified
+     * @return discoveredSolution with the id of the strategy that found the best solution of the batch
+     */
+    @Override
+    public DiscoveredSolution run(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        Candidate best = searchBatch(vrp, solutions);
+        boolean solutionAccepted = getSolutionAcceptor().acceptSolution(solutions, best.solution);
+        return new DiscoveredSolution(best.solution, solutionAccepted, best.strategy.getId());
+    }
+
+    /**
+     * Runs a batch of strategies and returns the best solution of the batch.
+     *
+     * @param vrp       the underlying vehicle routing problem
+     * @param solutions to select from
+     * @return the best new solution
+     */
+    @Override
+    public VehicleRoutingProblemSolution searchSolution(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        return searchBatch(vrp, solutions).solution;
+    }
+
+    private Candidate searchBatch(final VehicleRoutingProblem vrp, final Collection<VehicleRoutingProblemSolution> solutions) {
+        List<SearchStrategy> strategies = new ArrayList<SearchStrategy>(replicas.size());
+        for (VehicleRoutingAlgorithm replica : replicas) {
+            strategies.add(replica.getSearchStrategyManager().getRandomStrategy());
+        }
+        List<Future<VehicleRoutingProblemSolution>> futures = new ArrayList<Future<VehicleRoutingProblemSolution>>(strategies.size() - 1);
+        for (int i = 1; i < strategies.size(); i++) {
+            final SearchStrategy strategy = strategies.get(i);
+            //strategies copy solutions on write and states are memorized in activities, thus each replica running in
+            //another thread gets its own deep copy of solutions
+            final Collection<VehicleRoutingProblemSolution> replicaSolutions = copyOf(solutions);
+            futures.add(executorService.submit(new Callable<VehicleRoutingProblemSolution>() {
+
+                @Override
+                public VehicleRoutingProblemSolution call() throws Exception {
+                    return strategy.searchSolution(vrp, replicaSolutions);
+                }
+
+            }));
+        }
+        Candidate best = new Candidate(strategies.get(0), strategies.get(0).searchSolution(vrp, solutions));
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                VehicleRoutingProblemSolution solution = futures.get(i).get();
+                //ties are resolved in favour of the lower replica, thus the result does not depend on thread scheduling
+                if (solution.getCost() < best.solution.getCost()) {
+                    best = new Candidate(strategies.get(i + 1), solution);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return best;
+    }
+
+    private static Collection<VehicleRoutingProblemSolution> copyOf(Collection<VehicleRoutingProblemSolution> solutions) {
+        List<VehicleRoutingProblemSolution> copies = new ArrayList<VehicleRoutingProblemSolution>(solutions.size());
+        for (VehicleRoutingProblemSolution solution : solutions) {
+            copies.add(VehicleRoutingProblemSolution.copyOf(solution));
+        }
+        return copies;
+    }
+
+    @Override
+    public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+        for (VehicleRoutingAlgorithm replica : replicas) {
+            replica.getAlgorithmListeners().algorithmStarts(problem, algorithm, solutions);
+        }
+    }
+
+    @Override
+    public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        for (VehicleRoutingAlgorithm replica : replicas) {
+            replica.getAlgorithmListeners().iterationStarts(i, problem, solutions);
+        }
+    }
+
+    @Override
+    public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        for (VehicleRoutingAlgorithm replica : replicas) {
+            replica.getAlgorithmListeners().iterationEnds(i, problem, solutions);
+        }
+    }
+
+    @Override
+    public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        for (VehicleRoutingAlgorithm replica : replicas) {
+            replica.getAlgorithmListeners().algorithmEnds(problem, solutions);
+        }
+    }
+
+}
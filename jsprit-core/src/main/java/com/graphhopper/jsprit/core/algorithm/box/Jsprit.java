@@ -18,19 +18,25 @@
 
 package com.graphhopper.jsprit.core.algorithm.box;
 
+import com.graphhopper.jsprit.core.algorithm.IncrementalSolutionCostCalculator;
+import com.graphhopper.jsprit.core.algorithm.IslandVehicleRoutingAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.PrettyAlgorithmBuilder;
 import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
+import com.graphhopper.jsprit.core.algorithm.SearchStrategyManager;
+import com.graphhopper.jsprit.core.algorithm.SpeculativeSearchStrategy;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.acceptor.SchrimpfAcceptance;
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners;
 import com.graphhopper.jsprit.core.algorithm.module.RuinAndRecreateModule;
 import com.graphhopper.jsprit.core.algorithm.recreate.*;
 import com.graphhopper.jsprit.core.algorithm.ruin.*;
 import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
 import com.graphhopper.jsprit.core.algorithm.selector.SelectBest;
 import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.analysis.SolverMetrics;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.job.Job;
@@ -46,7 +52,9 @@ import com.graphhopper.jsprit.core.util.NoiseMaker;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import com.graphhopper.jsprit.core.util.Solutions;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
@@ -119,7 +127,10 @@ public class Jsprit {
         FAST_REGRET("regret.fast"),
         MAX_TRANSPORT_COSTS("max_transport_costs"),
         CONSTRUCTION("construction"),
-        BREAK_SCHEDULING("break_scheduling");
+        BREAK_SCHEDULING("break_scheduling"),
+        ISLANDS("islands"),
+        ISLANDS_MIGRATION_INTERVAL("islands.migration_interval"),
+        SPECULATIVE_BATCH_SIZE("speculative.batch_size");
 
         String paraName;
 
@@ -161,6 +172,8 @@ public class Jsprit {
 
         private SolutionAcceptor solutionAcceptor;
 
+        private SolverMetrics solverMetrics;
+
         public static Builder newInstance(VehicleRoutingProblem vrp) {
             return new Builder(vrp);
         }
@@ -210,6 +223,9 @@ public class Jsprit {
             defaults.put(Parameter.FAST_REGRET.toString(), String.valueOf(false));
             defaults.put(Parameter.BREAK_SCHEDULING.toString(), String.valueOf(true));
             defaults.put(Parameter.CONSTRUCTION.toString(), Construction.REGRET_INSERTION.toString());
+            defaults.put(Parameter.ISLANDS.toString(), "1");
+            defaults.put(Parameter.ISLANDS_MIGRATION_INTERVAL.toString(), "100");
+            defaults.put(Parameter.SPECULATIVE_BATCH_SIZE.toString(), "1");
             return defaults;
         }
 
@@ -266,10 +282,102 @@ public class Jsprit {
             return this;
         }
 
+        /**
+         * Records metrics of the search, i.e. registers the metrics at the algorithm and its constraint manager. If
+         * islands are used, metrics of all islands are recorded. If speculative batches are used, each batch is
+         * recorded as one iteration of the strategy whose solution is taken, and ruin, recreate and module times are
+         * not recorded.
+         *
+         * @param solverMetrics the metrics to be recorded
+         * @return this builder
+         */
+        public Builder setSolverMetrics(SolverMetrics solverMetrics) {
+            this.solverMetrics = solverMetrics;
+            return this;
+        }
+
+        /**
+         * Builds the algorithm. If {@link Parameter#ISLANDS} is greater than 1, an {@link IslandVehicleRoutingAlgorithm}
+         * is returned whose islands have their own state and constraint manager as well as their own random number
+         * generator seeded by this builder's one. A custom acceptor and objective function are shared by all islands,
+         * thus they need to be thread-safe.
+         *
+         * <p>If {@link Parameter#SPECULATIVE_BATCH_SIZE} is greater than 1, each iteration runs a batch of strategies
+         * concurrently (see {@link SpeculativeSearchStrategy}). The replicas evaluating the batch are set up the same way
+         * as islands, and the executor service (if set) needs to provide batchSize-1 threads.
+         *
+         * @return the algorithm
+         */
         public VehicleRoutingAlgorithm buildAlgorithm() {
+            int noIslands = Integer.valueOf(properties.getProperty(Parameter.ISLANDS.toString()));
+            int batchSize = Integer.valueOf(properties.getProperty(Parameter.SPECULATIVE_BATCH_SIZE.toString()));
+            if (noIslands > 1 && batchSize > 1)
+                throw new IllegalStateException("islands and speculative batches cannot be combined. use either of them.");
+            if (noIslands > 1) return buildIslands(noIslands);
+            if (batchSize > 1) return buildSpeculative(batchSize);
             return new Jsprit(this).create(vrp);
         }
 
+        private VehicleRoutingAlgorithm buildSpeculative(int batchSize) {
+            if (stateManager != null || constraintManager != null)
+                throw new IllegalStateException("replicas cannot share state and constraint manager. do not set them if speculative batches are used.");
+            List<VehicleRoutingAlgorithm> replicas = new ArrayList<VehicleRoutingAlgorithm>();
+            JobNeighborhoods jobNeighborhoods = null;
+            for (int i = 0; i < batchSize; i++) {
+                Jsprit jsprit = new Jsprit(this);
+                jsprit.random = new Random(random.nextLong());
+                jsprit.jobNeighborhoods = jobNeighborhoods;
+                //strategies of a batch are evaluated concurrently, thus each of them inserts sequentially
+                jsprit.es = null;
+                jsprit.noThreads = 1;
+                //the first replica constructs the initial solution for all of them
+                jsprit.constructInitialSolution = i == 0;
+                //the search is recorded by the speculative algorithm
+                jsprit.recordSearchMetrics = false;
+                replicas.add(jsprit.create(vrp));
+                jobNeighborhoods = jsprit.jobNeighborhoods;
+            }
+            VehicleRoutingAlgorithm mainReplica = replicas.get(0);
+            SolutionAcceptor acceptor = mainReplica.getSearchStrategyManager().getStrategies().get(0).getSolutionAcceptor();
+            final ExecutorService executorService = es == null ? Executors.newFixedThreadPool(batchSize - 1) : es;
+            SpeculativeSearchStrategy speculative = new SpeculativeSearchStrategy(replicas, acceptor, executorService);
+            SearchStrategyManager searchStrategyManager = new SearchStrategyManager();
+            searchStrategyManager.addStrategy(speculative, 1.);
+            VehicleRoutingAlgorithm vra = new VehicleRoutingAlgorithm(vrp, searchStrategyManager, mainReplica.getObjectiveFunction());
+            //replicas need to be informed first, e.g. to construct the initial solution
+            vra.getAlgorithmListeners().addListener(speculative, VehicleRoutingAlgorithmListeners.Priority.HIGH);
+            if (solverMetrics != null) vra.addListener(solverMetrics);
+            if (es == null) {
+                vra.addListener(new AlgorithmEndsListener() {
+
+                    @Override
+                    public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                        executorService.shutdown();
+                    }
+
+                });
+            }
+            vra.setMaxIterations(mainReplica.getMaxIterations());
+            return vra;
+        }
+
+        private VehicleRoutingAlgorithm buildIslands(int noIslands) {
+            if (stateManager != null || constraintManager != null)
+                throw new IllegalStateException("islands cannot share state and constraint manager. do not set them if more than one island is used.");
+            List<VehicleRoutingAlgorithm> islands = new ArrayList<VehicleRoutingAlgorithm>();
+            JobNeighborhoods jobNeighborhoods = null;
+            for (int i = 0; i < noIslands; i++) {
+                Jsprit jsprit = new Jsprit(this);
+                jsprit.random = new Random(random.nextLong());
+                //neighborhoods are read-only once they are initialised, thus islands can share them
+                jsprit.jobNeighborhoods = jobNeighborhoods;
+                islands.add(jsprit.create(vrp));
+                jobNeighborhoods = jsprit.jobNeighborhoods;
+            }
+            int migrationInterval = Integer.valueOf(properties.getProperty(Parameter.ISLANDS_MIGRATION_INTERVAL.toString()));
+            return new IslandVehicleRoutingAlgorithm(vrp, islands, migrationInterval);
+        }
+
     }
 
     static class RuinShareFactoryImpl implements RuinShareFactory
@@ -328,6 +436,14 @@ public class Jsprit {
 
     private SolutionAcceptor acceptor;
 
+    private JobNeighborhoods jobNeighborhoods;
+
+    private boolean constructInitialSolution = true;
+
+    private SolverMetrics solverMetrics;
+
+    private boolean recordSearchMetrics = true;
+
     private Jsprit(Builder builder) {
         this.stateManager = builder.stateManager;
         this.constraintManager = builder.constraintManager;
@@ -339,6 +455,7 @@ public class Jsprit {
         this.random = builder.random;
         this.activityInsertion = builder.activityInsertionCalculator;
         this.acceptor = builder.solutionAcceptor;
+        this.solverMetrics = builder.solverMetrics;
     }
 
     private VehicleRoutingAlgorithm create(final VehicleRoutingProblem vrp) {
@@ -371,8 +488,14 @@ public class Jsprit {
         double noiseLevel = toDouble(getProperty(Parameter.INSERTION_NOISE_LEVEL.toString()));
         double noiseProbability = toDouble(getProperty(Parameter.INSERTION_NOISE_PROB.toString()));
 
-        JobNeighborhoods jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5));
-        jobNeighborhoods.initialise();
+        if (jobNeighborhoods == null) {
+            if (noThreads > 1) {
+                jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5), es, noThreads);
+            } else {
+                jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5));
+            }
+            jobNeighborhoods.initialise();
+        }
 
         final double maxCosts;
         if(properties.containsKey(Parameter.MAX_TRANSPORT_COSTS.toString())){
@@ -583,10 +706,12 @@ public class Jsprit {
             .withStrategy(worst_regret, toDouble(getProperty(Strategy.WORST_REGRET.toString())))
             .withStrategy(clusters_regret, toDouble(getProperty(Strategy.CLUSTER_REGRET.toString())))
             .withStrategy(clusters_best, toDouble(getProperty(Strategy.CLUSTER_BEST.toString())));
-        if (getProperty(Parameter.CONSTRUCTION.toString()).equals(Construction.BEST_INSERTION.toString())) {
-            prettyBuilder.constructInitialSolutionWith(best, objectiveFunction);
-        } else {
-            prettyBuilder.constructInitialSolutionWith(regret, objectiveFunction);
+        if (constructInitialSolution) {
+            if (getProperty(Parameter.CONSTRUCTION.toString()).equals(Construction.BEST_INSERTION.toString())) {
+                prettyBuilder.constructInitialSolutionWith(best, objectiveFunction);
+            } else {
+                prettyBuilder.constructInitialSolutionWith(regret, objectiveFunction);
+            }
         }
         prettyBuilder.withObjectiveFunction(objectiveFunction);
 
@@ -598,10 +723,17 @@ public class Jsprit {
         vra.addListener(noiseConfigurator);
         vra.addListener(noise);
         vra.addListener(clusters);
+        if (objectiveFunction instanceof IncrementalSolutionCostCalculator) {
+            vra.addListener((IncrementalSolutionCostCalculator) objectiveFunction);
+        }
 
         if(toBoolean(getProperty(Parameter.BREAK_SCHEDULING.toString()))) {
             vra.addListener(new BreakScheduling(vrp, stateManager, constraintManager));
         }
+        if (solverMetrics != null) {
+            constraintManager.addListener(solverMetrics);
+            if (recordSearchMetrics) vra.addListener(solverMetrics);
+        }
         handleExecutorShutdown(vra);
         vra.setMaxIterations(Integer.valueOf(properties.getProperty(Parameter.ITERATIONS.toString())));
 
@@ -667,32 +799,34 @@ public class Jsprit {
     private SolutionCostCalculator getObjectiveFunction(final VehicleRoutingProblem vrp, final double maxCosts) {
         if (objectiveFunction != null) return objectiveFunction;
 
-        SolutionCostCalculator solutionCostCalculator = new SolutionCostCalculator() {
+        SolutionCostCalculator solutionCostCalculator = new IncrementalSolutionCostCalculator() {
             @Override
-            public double getCosts(VehicleRoutingProblemSolution solution) {
-                double costs = 0.;
-
-                for (VehicleRoute route : solution.getRoutes()) {
-                    costs += route.getVehicle().getType().getVehicleCostParams().fix;
-                    boolean hasBreak = false;
-                    TourActivity prevAct = route.getStart();
-                    for (TourActivity act : route.getActivities()) {
-                        if (act instanceof BreakActivity) hasBreak = true;
-                        costs += vrp.getTransportCosts().getTransportCost(prevAct.getLocation(), act.getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
-                        costs += vrp.getActivityCosts().getActivityCost(act, act.getArrTime(), route.getDriver(), route.getVehicle());
-                        prevAct = act;
-                    }
-                    costs += vrp.getTransportCosts().getTransportCost(prevAct.getLocation(), route.getEnd().getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
-                    if (route.getVehicle().getBreak() != null) {
-                        if (!hasBreak) {
-                            //break defined and required but not assigned penalty
-                            if (route.getEnd().getArrTime() > route.getVehicle().getBreak().getTimeWindow().getEnd()) {
-                                costs += 4 * (maxCosts * 2 + route.getVehicle().getBreak().getServiceDuration() * route.getVehicle().getType().getVehicleCostParams().perServiceTimeUnit);
-                            }
+            protected double getRouteCosts(VehicleRoute route) {
+                double costs = route.getVehicle().getType().getVehicleCostParams().fix;
+                boolean hasBreak = false;
+                TourActivity prevAct = route.getStart();
+                for (TourActivity act : route.getActivities()) {
+                    if (act instanceof BreakActivity) hasBreak = true;
+                    costs += vrp.getTransportCosts().getTransportCost(prevAct.getLocation(), act.getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
+                    costs += vrp.getActivityCosts().getActivityCost(act, act.getArrTime(), route.getDriver(), route.getVehicle());
+                    prevAct = act;
+                }
+                costs += vrp.getTransportCosts().getTransportCost(prevAct.getLocation(), route.getEnd().getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
+                if (route.getVehicle().getBreak() != null) {
+                    if (!hasBreak) {
+                        //break defined and required but not assigned penalty
+                        if (route.getEnd().getArrTime() > route.getVehicle().getBreak().getTimeWindow().getEnd()) {
+                            costs += 4 * (maxCosts * 2 + route.getVehicle().getBreak().getServiceDuration() * route.getVehicle().getType().getVehicleCostParams().perServiceTimeUnit);
                         }
                     }
                 }
-                for(Job j : solution.getUnassignedJobs()){
+                return costs;
+            }
+
+            @Override
+            protected double getUnassignedJobCosts(Collection<Job> unassignedJobs) {
+                double costs = 0.;
+                for (Job j : unassignedJobs) {
                     costs += maxCosts * 2 * (4 - j.getPriority());
                 }
                 return costs;
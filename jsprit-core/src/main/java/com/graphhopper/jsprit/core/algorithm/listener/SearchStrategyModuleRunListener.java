@@ -15,29 +15,19 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+package com.graphhopper.jsprit.core.algorithm.listener;
 
-package com.graphhopper.jsprit.core.algorithm.ruin;
-
-import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
+import com.graphhopper.jsprit.core.algorithm.SearchStrategyModule;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 
 /**
- * Created by schroeder on 07/01/15.
+ * Listener that is informed by a {@link SearchStrategy} before and after it runs one of its modules.
  */
-class ReferencedJob {
-    private Job job;
-    private double distance;
+public interface SearchStrategyModuleRunListener extends SearchStrategyModuleListener {
 
-    public ReferencedJob(Job job, double distance) {
-        super();
-        this.job = job;
-        this.distance = distance;
-    }
+    void informModuleStarts(SearchStrategy strategy, SearchStrategyModule module, VehicleRoutingProblemSolution solution);
 
-    public Job getJob() {
-        return job;
-    }
+    void informModuleEnds(SearchStrategy strategy, SearchStrategyModule module, VehicleRoutingProblemSolution solution);
 
-    public double getDistance() {
-        return distance;
-    }
 }
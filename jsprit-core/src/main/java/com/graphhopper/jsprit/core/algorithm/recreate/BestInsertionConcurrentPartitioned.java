@@ -0,0 +1,243 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData.NoInsertionFound;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Phaser;
+
+
+/**
+ * Best insertion that evaluates routes concurrently like {@link BestInsertionConcurrent}, but with less
+ * synchronization overhead.
+ * <p>Routes are distributed to a fixed number of partitions once per call of insertUnassignedJobs. Each partition is
+ * evaluated by the same worker for all unassigned jobs, where the calling thread evaluates the first partition itself.
+ * Workers are submitted to the executor service once per call (and not once per job and partition), and they are
+ * synchronized with a {@link Phaser}, i.e. there is no task, future or queue hand-off per job. Partition results are
+ * reduced in partition order, thus ties are resolved deterministically.
+ * <p>Note that the executor service must provide at least nuOfPartitions-1 threads that are not blocked otherwise.
+ * If it rejects a worker, the exception is rethrown and the workers started so far are released.
+ */
+public final class BestInsertionConcurrentPartitioned extends AbstractInsertionStrategy {
+
+    private static Logger logger = LoggerFactory.getLogger(BestInsertionConcurrentPartitioned.class);
+
+    private final static double NO_NEW_DEPARTURE_TIME_YET = -12345.12345;
+
+    private final static Vehicle NO_NEW_VEHICLE_YET = null;
+
+    private final static Driver NO_NEW_DRIVER_YET = null;
+
+    private final JobInsertionCostsCalculator bestInsertionCostCalculator;
+
+    private final ExecutorService executorService;
+
+    private final int nuOfPartitions;
+
+    /**
+     * State of one insertUnassignedJobs call shared by calling thread and workers. Fields are written by the calling
+     * thread and read by workers (or vice versa for results) on different sides of a phaser advance.
+     */
+    private class Round {
+
+        final List<List<VehicleRoute>> partitions;
+
+        final Phaser phaser;
+
+        final VehicleRoute[] bestRoutes;
+
+        final InsertionData[] bestInsertionData;
+
+        Job job;
+
+        boolean finished = false;
+
+        volatile Throwable error;
+
+        Round(List<List<VehicleRoute>> partitions) {
+            this.partitions = partitions;
+            //the calling thread is the only party until workers are started
+            this.phaser = new Phaser(1);
+            this.bestRoutes = new VehicleRoute[partitions.size()];
+            this.bestInsertionData = new InsertionData[partitions.size()];
+        }
+
+        void evaluate(int partition) {
+            bestRoutes[partition] = null;
+            bestInsertionData[partition] = null;
+            double bestInsertionCost = Double.MAX_VALUE;
+            for (VehicleRoute vehicleRoute : partitions.get(partition)) {
+                InsertionData iData = bestInsertionCostCalculator.getInsertionData(vehicleRoute, job, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
+                if (iData instanceof NoInsertionFound) continue;
+                if (iData.getInsertionCost() < bestInsertionCost) {
+                    bestRoutes[partition] = vehicleRoute;
+                    bestInsertionData[partition] = iData;
+                    bestInsertionCost = iData.getInsertionCost();
+                }
+            }
+        }
+
+    }
+
+    private class Worker implements Runnable {
+
+        private final Round round;
+
+        private final int partition;
+
+        Worker(Round round, int partition) {
+            this.round = round;
+            this.partition = partition;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                //wait until next job is published
+                round.phaser.arriveAndAwaitAdvance();
+                if (round.finished) {
+                    round.phaser.arriveAndDeregister();
+                    return;
+                }
+                try {
+                    round.evaluate(partition);
+                } catch (Throwable e) {
+                    round.error = e;
+                }
+                //results are ready
+                round.phaser.arriveAndAwaitAdvance();
+            }
+        }
+    }
+
+    public BestInsertionConcurrentPartitioned(JobInsertionCostsCalculator jobInsertionCalculator, ExecutorService executorService, int nuOfPartitions, VehicleRoutingProblem vehicleRoutingProblem) {
+        super(vehicleRoutingProblem);
+        if (nuOfPartitions < 1) throw new IllegalArgumentException("nuOfPartitions must be at least 1");
+        this.bestInsertionCostCalculator = jobInsertionCalculator;
+        this.executorService = executorService;
+        this.nuOfPartitions = nuOfPartitions;
+        logger.debug("initialise {}", this);
+    }
+
+    @Override
+    public String toString() {
+        return "[name=bestInsertion]";
+    }
+
+    @Override
+    public Collection<Job> insertUnassignedJobs(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        List<Job> badJobs = new ArrayList<Job>(unassignedJobs.size());
+        List<Job> unassignedJobList = new ArrayList<Job>(unassignedJobs);
+        Collections.shuffle(unassignedJobList, random);
+        sometimesSortPriorities(unassignedJobList);
+        Round round = new Round(distributeRoutes(vehicleRoutes, nuOfPartitions));
+        try {
+            for (int partition = 1; partition < nuOfPartitions; partition++) {
+                round.phaser.register();
+                try {
+                    executorService.execute(new Worker(round, partition));
+                } catch (RuntimeException e) {
+                    //worker has not been started, thus it never arrives
+                    round.phaser.arriveAndDeregister();
+                    throw e;
+                }
+            }
+            for (Job unassignedJob : unassignedJobList) {
+                round.job = unassignedJob;
+                round.phaser.arriveAndAwaitAdvance();
+                try {
+                    round.evaluate(0);
+                } catch (Throwable e) {
+                    round.error = e;
+                }
+                round.phaser.arriveAndAwaitAdvance();
+                if (round.error != null) throw new RuntimeException(round.error);
+                VehicleRoute bestRoute = null;
+                InsertionData bestInsertionData = null;
+                double bestInsertionCost = Double.MAX_VALUE;
+                for (int partition = 0; partition < nuOfPartitions; partition++) {
+                    InsertionData iData = round.bestInsertionData[partition];
+                    if (iData != null && iData.getInsertionCost() < bestInsertionCost) {
+                        bestRoute = round.bestRoutes[partition];
+                        bestInsertionData = iData;
+                        bestInsertionCost = iData.getInsertionCost();
+                    }
+                }
+                VehicleRoute newRoute = VehicleRoute.emptyRoute();
+                InsertionData newIData = bestInsertionCostCalculator.getInsertionData(newRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
+                if (newIData.getInsertionCost() < bestInsertionCost) {
+                    bestRoute = newRoute;
+                    bestInsertionData = newIData;
+                    vehicleRoutes.add(newRoute);
+                    round.partitions.get(random.nextInt(nuOfPartitions)).add(newRoute);
+                }
+                if (bestRoute == null) badJobs.add(unassignedJob);
+                else insertJob(unassignedJob, bestInsertionData, bestRoute);
+            }
+        } finally {
+            round.finished = true;
+            round.phaser.arriveAndDeregister();
+        }
+        return badJobs;
+    }
+
+    private void sometimesSortPriorities(List<Job> unassignedJobList) {
+        if (random.nextDouble() < 0.5) {
+            Collections.sort(unassignedJobList, new Comparator<Job>() {
+                @Override
+                public int compare(Job o1, Job o2) {
+                    return o1.getPriority() - o2.getPriority();
+                }
+            });
+        }
+    }
+
+    private List<List<VehicleRoute>> distributeRoutes(Collection<VehicleRoute> vehicleRoutes, int nuOfPartitions) {
+        List<List<VehicleRoute>> partitions = new ArrayList<List<VehicleRoute>>(nuOfPartitions);
+        for (int i = 0; i < nuOfPartitions; i++) partitions.add(new ArrayList<VehicleRoute>());
+        /*
+         * if route.size < nuOfPartitions add as much routes as empty partitions are available
+         * else add one empty route anyway
+         */
+        if (vehicleRoutes.size() < nuOfPartitions) {
+            int nOfNewRoutes = nuOfPartitions - vehicleRoutes.size();
+            for (int i = 0; i < nOfNewRoutes; i++) {
+                vehicleRoutes.add(VehicleRoute.emptyRoute());
+            }
+        } else {
+            vehicleRoutes.add(VehicleRoute.emptyRoute());
+        }
+        int count = 0;
+        for (VehicleRoute route : vehicleRoutes) {
+            if (count == nuOfPartitions) count = 0;
+            partitions.get(count).add(route);
+            count++;
+        }
+        return partitions;
+    }
+
+}
@@ -76,6 +76,8 @@ public class InsertionBuilder {
 
     private boolean isFastRegret = false;
 
+    private boolean isPartitionedBest = false;
+
     public InsertionBuilder(VehicleRoutingProblem vrp, VehicleFleetManager vehicleFleetManager, StateManager stateManager, ConstraintManager constraintManager) {
         super();
         this.vrp = vrp;
@@ -109,6 +111,18 @@ public class InsertionBuilder {
         return this;
     }
 
+    /**
+     * In concurrent mode, best insertion evaluates routes with {@link BestInsertionConcurrentPartitioned} instead of
+     * {@link BestInsertionConcurrent}.
+     *
+     * @param partitionedBest true if partitioned best insertion should be used
+     * @return builder
+     */
+    public InsertionBuilder setPartitionedBest(boolean partitionedBest) {
+        this.isPartitionedBest = partitionedBest;
+        return this;
+    }
+
 
     public InsertionBuilder setLocalLevel() {
         local = true;
@@ -174,7 +188,11 @@ public class InsertionBuilder {
             if (executor == null) {
                 insertion = new BestInsertion(costCalculator, vrp);
             } else {
-                insertion = new BestInsertionConcurrent(costCalculator, executor, nuOfThreads, vrp);
+                if (isPartitionedBest) {
+                    insertion = new BestInsertionConcurrentPartitioned(costCalculator, executor, nuOfThreads, vrp);
+                } else {
+                    insertion = new BestInsertionConcurrent(costCalculator, executor, nuOfThreads, vrp);
+                }
             }
         } else if (strategy.equals(Strategy.REGRET)) {
             if (executor == null) {
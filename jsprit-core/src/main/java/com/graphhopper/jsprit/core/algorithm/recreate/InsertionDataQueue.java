@@ -0,0 +1,119 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import java.util.Arrays;
+
+/**
+ * Bounded queue of the cheapest insertion options of a job, ordered by insertion costs. Options with equal costs are
+ * ordered by the time they are added.
+ * <p>Adding an option removes all options of the same route with an older version, since these are outdated anyway.
+ * If the queue is full, the most expensive option is discarded. The lowest costs of all discarded options are
+ * memorized, such that users can tell whether the options kept are sufficient to determine the best ones.
+ */
+class InsertionDataQueue {
+
+    /*
+     * regret insertion needs two valid options of different routes. some more are kept to compensate for options
+     * invalidated by route updates or not applicable due to vehicle switches.
+     */
+    static final int DEFAULT_CAPACITY = 8;
+
+    private VersionedInsertionData[] options;
+
+    private int size = 0;
+
+    private double minDiscardedCost = Double.MAX_VALUE;
+
+    InsertionDataQueue(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+        this.options = new VersionedInsertionData[capacity];
+    }
+
+    void add(VersionedInsertionData option) {
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            VersionedInsertionData o = options[i];
+            if (o.getRoute() == option.getRoute() && o.getVersion() < option.getVersion()) continue;
+            options[j++] = o;
+        }
+        Arrays.fill(options, j, size, null);
+        size = j;
+        double cost = option.getiData().getInsertionCost();
+        int position = size;
+        while (position > 0 && options[position - 1].getiData().getInsertionCost() > cost) position--;
+        if (position == options.length) {
+            discarded(cost);
+            return;
+        }
+        if (size == options.length) {
+            discarded(options[size - 1].getiData().getInsertionCost());
+            size--;
+        }
+        System.arraycopy(options, position, options, position + 1, size - position);
+        options[position] = option;
+        size++;
+    }
+
+    private void discarded(double cost) {
+        if (cost < minDiscardedCost) minDiscardedCost = cost;
+    }
+
+    void remove(int index) {
+        System.arraycopy(options, index + 1, options, index, size - index - 1);
+        options[--size] = null;
+    }
+
+    VersionedInsertionData get(int index) {
+        return options[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getCapacity() {
+        return options.length;
+    }
+
+    /**
+     * @return true if options have been discarded since the queue has been created or cleared
+     */
+    boolean hasDiscarded() {
+        return minDiscardedCost != Double.MAX_VALUE;
+    }
+
+    /**
+     * @return lowest costs of all options discarded, or Double.MAX_VALUE if no option has been discarded
+     */
+    double getMinDiscardedCost() {
+        return minDiscardedCost;
+    }
+
+    /**
+     * Removes all options and sets a new capacity.
+     *
+     * @param capacity the new capacity
+     */
+    void clear(int capacity) {
+        options = new VersionedInsertionData[capacity];
+        size = 0;
+        minDiscardedCost = Double.MAX_VALUE;
+    }
+
+}
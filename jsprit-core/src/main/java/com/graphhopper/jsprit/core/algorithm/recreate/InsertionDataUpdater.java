@@ -31,7 +31,7 @@ import java.util.*;
  */
 class InsertionDataUpdater {
 
-    static boolean update(boolean addAllAvailable, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, TreeSet<VersionedInsertionData> insertionDataSet, int updateRound, Job unassignedJob, Collection<VehicleRoute> routes) {
+    static boolean update(boolean addAllAvailable, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, InsertionDataQueue insertionDataQueue, int updateRound, Job unassignedJob, Collection<VehicleRoute> routes) {
         for(VehicleRoute route : routes) {
             Collection<Vehicle> relevantVehicles = new ArrayList<Vehicle>();
             if (!(route.getVehicle() instanceof VehicleImpl.NoVehicle)) {
@@ -46,7 +46,7 @@ class InsertionDataUpdater {
                 if (iData instanceof InsertionData.NoInsertionFound) {
                     continue;
                 }
-                insertionDataSet.add(new VersionedInsertionData(iData, updateRound, route));
+                insertionDataQueue.add(new VersionedInsertionData(iData, updateRound, route));
             }
         }
         return true;
@@ -61,58 +61,55 @@ class InsertionDataUpdater {
         return null;
     }
 
-    static Comparator<VersionedInsertionData> getComparator(){
-        return new Comparator<VersionedInsertionData>() {
-            @Override
-            public int compare(VersionedInsertionData o1, VersionedInsertionData o2) {
-                if(o1.getiData().getInsertionCost() < o2.getiData().getInsertionCost()) return -1;
-                return 1;
-            }
-        };
-    }
-
-    static ScoredJob getBest(boolean switchAllowed, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, TreeSet<VersionedInsertionData>[] priorityQueues, Map<VehicleRoute, Integer> updates, List<Job> unassignedJobList, List<Job> badJobs) {
+    static ScoredJob getBest(boolean switchAllowed, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, NewRouteInsertionCache newRouteInsertionCache, InsertionDataQueue[] priorityQueues, Map<VehicleRoute, Integer> updates, Collection<VehicleRoute> routes, List<Job> unassignedJobList, List<Job> badJobs) {
         ScoredJob bestScoredJob = null;
+        Collection<Vehicle> availableVehicles = fleetManager.getAvailableVehicles();
         for(Job j : unassignedJobList){
             VehicleRoute bestRoute = null;
             InsertionData best = null;
             InsertionData secondBest = null;
-            TreeSet<VersionedInsertionData> priorityQueue = priorityQueues[j.getIndex()];
-            Iterator<VersionedInsertionData> iterator = priorityQueue.iterator();
-            while(iterator.hasNext()){
-                VersionedInsertionData versionedIData = iterator.next();
-                if(bestRoute != null){
-                    if(versionedIData.getRoute() == bestRoute){
+            InsertionDataQueue priorityQueue = priorityQueues[j.getIndex()];
+            while (true) {
+                int i = 0;
+                while(i < priorityQueue.size()){
+                    VersionedInsertionData versionedIData = priorityQueue.get(i);
+                    int currentDataVersion = updates.get(versionedIData.getRoute());
+                    if(versionedIData.getVersion() != currentDataVersion){
+                        //outdated options never become valid again
+                        priorityQueue.remove(i);
                         continue;
                     }
-                }
-                if(versionedIData.getiData() instanceof InsertionData.NoInsertionFound) continue;
-                if(!(versionedIData.getRoute().getVehicle() instanceof VehicleImpl.NoVehicle)) {
-                    if (versionedIData.getiData().getSelectedVehicle() != versionedIData.getRoute().getVehicle()) {
-                        if (!switchAllowed) continue;
-                        if (initialVehicleIds.contains(versionedIData.getRoute().getVehicle().getId())) continue;
+                    i++;
+                    if(bestRoute != null){
+                        if(versionedIData.getRoute() == bestRoute){
+                            continue;
+                        }
                     }
-                }
-                if(versionedIData.getiData().getSelectedVehicle() != versionedIData.getRoute().getVehicle()) {
-                    if (fleetManager.isLocked(versionedIData.getiData().getSelectedVehicle())) {
-                        Vehicle available = fleetManager.getAvailableVehicle(versionedIData.getiData().getSelectedVehicle().getVehicleTypeIdentifier());
-                        if (available != null) {
-                            InsertionData oldData = versionedIData.getiData();
-                            InsertionData newData = new InsertionData(oldData.getInsertionCost(), oldData.getPickupInsertionIndex(),
-                                oldData.getDeliveryInsertionIndex(), available, oldData.getSelectedDriver());
-                            newData.setVehicleDepartureTime(oldData.getVehicleDepartureTime());
-                            for(Event e : oldData.getEvents()){
-                                if(e instanceof SwitchVehicle){
-                                    newData.getEvents().add(new SwitchVehicle(versionedIData.getRoute(),available,oldData.getVehicleDepartureTime()));
+                    if(versionedIData.getiData() instanceof InsertionData.NoInsertionFound) continue;
+                    if(!(versionedIData.getRoute().getVehicle() instanceof VehicleImpl.NoVehicle)) {
+                        if (versionedIData.getiData().getSelectedVehicle() != versionedIData.getRoute().getVehicle()) {
+                            if (!switchAllowed) continue;
+                            if (initialVehicleIds.contains(versionedIData.getRoute().getVehicle().getId())) continue;
+                        }
+                    }
+                    if(versionedIData.getiData().getSelectedVehicle() != versionedIData.getRoute().getVehicle()) {
+                        if (fleetManager.isLocked(versionedIData.getiData().getSelectedVehicle())) {
+                            Vehicle available = fleetManager.getAvailableVehicle(versionedIData.getiData().getSelectedVehicle().getVehicleTypeIdentifier());
+                            if (available != null) {
+                                InsertionData oldData = versionedIData.getiData();
+                                InsertionData newData = new InsertionData(oldData.getInsertionCost(), oldData.getPickupInsertionIndex(),
+                                    oldData.getDeliveryInsertionIndex(), available, oldData.getSelectedDriver());
+                                newData.setVehicleDepartureTime(oldData.getVehicleDepartureTime());
+                                for(Event e : oldData.getEvents()){
+                                    if(e instanceof SwitchVehicle){
+                                        newData.getEvents().add(new SwitchVehicle(versionedIData.getRoute(),available,oldData.getVehicleDepartureTime()));
+                                    }
+                                    else newData.getEvents().add(e);
                                 }
-                                else newData.getEvents().add(e);
-                            }
-                            versionedIData = new VersionedInsertionData(newData, versionedIData.getVersion(), versionedIData.getRoute());
-                        } else continue;
+                                versionedIData = new VersionedInsertionData(newData, versionedIData.getVersion(), versionedIData.getRoute());
+                            } else continue;
+                        }
                     }
-                }
-                int currentDataVersion = updates.get(versionedIData.getRoute());
-                if(versionedIData.getVersion() == currentDataVersion){
                     if(best == null) {
                         best = versionedIData.getiData();
                         bestRoute = versionedIData.getRoute();
@@ -122,9 +119,22 @@ class InsertionDataUpdater {
                         break;
                     }
                 }
+                if(!priorityQueue.hasDiscarded()) break;
+                if(secondBest != null && secondBest.getInsertionCost() < priorityQueue.getMinDiscardedCost()) break;
+                /*
+                 * discarded options might be better than the options found, thus the job is evaluated for
+                 * all routes again, keeping more options this time
+                 */
+                priorityQueue.clear(priorityQueue.getCapacity() * 2);
+                for(VehicleRoute route : routes){
+                    update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueue, updates.get(route), j, Collections.singletonList(route));
+                }
+                bestRoute = null;
+                best = null;
+                secondBest = null;
             }
-            VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
-            InsertionData iData = insertionCostsCalculator.getInsertionData(emptyRoute, j, null, -1, null, Double.MAX_VALUE);
+            VehicleRoute emptyRoute = newRouteInsertionCache.getRoute(j);
+            InsertionData iData = newRouteInsertionCache.getInsertionData(j, availableVehicles);
             if(!(iData instanceof InsertionData.NoInsertionFound)){
                 if (best == null) {
                     best = iData;
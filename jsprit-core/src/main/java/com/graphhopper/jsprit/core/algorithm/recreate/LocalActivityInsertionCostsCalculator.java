@@ -24,6 +24,7 @@ import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
@@ -48,11 +49,14 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
 
     private RouteAndActivityStateGetter stateManager;
 
+    private PrimitiveActivityStateGetter primitiveStates;
+
     public LocalActivityInsertionCostsCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts actCosts, RouteAndActivityStateGetter stateManager) {
         super();
         this.routingCosts = routingCosts;
         this.activityCosts = actCosts;
         this.stateManager = stateManager;
+        if (stateManager instanceof PrimitiveActivityStateGetter) primitiveStates = (PrimitiveActivityStateGetter) stateManager;
     }
 
     @Override
@@ -86,8 +90,7 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
             double actCost_nextAct = activityCosts.getActivityCost(nextAct, arrTime_nextAct, iFacts.getRoute().getDriver(), iFacts.getRoute().getVehicle());
 
             double endTimeDelay_nextAct = Math.max(0, endTime_nextAct_new - endTime_nextAct_old);
-            Double futureWaiting = stateManager.getActivityState(nextAct, iFacts.getRoute().getVehicle(), InternalStates.FUTURE_WAITING, Double.class);
-            if (futureWaiting == null) futureWaiting = 0.;
+            double futureWaiting = getFutureWaiting(nextAct, iFacts.getRoute().getVehicle());
             double waitingTime_savings_timeUnit = Math.min(futureWaiting, endTimeDelay_nextAct);
             double waitingTime_savings = waitingTime_savings_timeUnit * iFacts.getRoute().getVehicle().getType().getVehicleCostParams().perWaitingTimeUnit;
             oldCosts += solutionCompletenessRatio * activityCostsWeight * waitingTime_savings;
@@ -96,6 +99,17 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
         return totalCosts - oldCosts;
     }
 
+    private double getFutureWaiting(TourActivity act, Vehicle vehicle) {
+        if (primitiveStates != null) {
+            double futureWaiting = primitiveStates.getDoubleActivityState(act, vehicle, InternalStates.FUTURE_WAITING);
+            if (Double.isNaN(futureWaiting)) return 0.;
+            return futureWaiting;
+        }
+        Double futureWaiting = stateManager.getActivityState(act, vehicle, InternalStates.FUTURE_WAITING, Double.class);
+        if (futureWaiting == null) return 0.;
+        return futureWaiting;
+    }
+
     private boolean toDepot(Vehicle newVehicle) {
         return newVehicle.isReturnToDepot();
     }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.constraint.DependencyType;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Caches insertion data of jobs into a new route per job and vehicle type.
+ * <p>Inserting a job into a new route only depends on the vehicle, i.e. it changes only if fleet availability changes.
+ * Thus the insertion data of a type is reused as long as the vehicle available for this type remains the same. Jobs
+ * with a dependency type are evaluated each time, since their constraints might depend on other routes.
+ */
+class NewRouteInsertionCache {
+
+    private static class Entry {
+
+        final Vehicle vehicle;
+
+        final InsertionData iData;
+
+        Entry(Vehicle vehicle, InsertionData iData) {
+            this.vehicle = vehicle;
+            this.iData = iData;
+        }
+    }
+
+    private final JobInsertionCostsCalculator insertionCostsCalculator;
+
+    private final DependencyType[] dependencyTypes;
+
+    private final VehicleRoute[] routes;
+
+    private final Entry[][] entries;
+
+    NewRouteInsertionCache(JobInsertionCostsCalculator insertionCostsCalculator, DependencyType[] dependencyTypes, int noJobIndices) {
+        this.insertionCostsCalculator = insertionCostsCalculator;
+        this.dependencyTypes = dependencyTypes;
+        this.routes = new VehicleRoute[noJobIndices];
+        this.entries = new Entry[noJobIndices][];
+    }
+
+    /**
+     * Returns the new route the job is inserted into. It remains the same for a job as long as it is not inserted.
+     *
+     * @param job the job
+     * @return new route
+     */
+    VehicleRoute getRoute(Job job) {
+        VehicleRoute route = routes[job.getIndex()];
+        if (route == null || !route.isEmpty()) {
+            route = VehicleRoute.emptyRoute();
+            routes[job.getIndex()] = route;
+            //cached insertion data refers to the route
+            entries[job.getIndex()] = null;
+        }
+        return route;
+    }
+
+    /**
+     * Returns the best insertion data of job into its new route (see {@link #getRoute(Job)}) with one of the
+     * available vehicles.
+     *
+     * @param job               the job to insert
+     * @param availableVehicles vehicles currently available, i.e. one per vehicle type
+     * @return best insertion data or {@link InsertionData.NoInsertionFound}
+     */
+    InsertionData getInsertionData(Job job, Collection<Vehicle> availableVehicles) {
+        VehicleRoute route = getRoute(job);
+        boolean cacheable = dependencyTypes == null || dependencyTypes[job.getIndex()] == null;
+        InsertionData bestIData = InsertionData.createEmptyInsertionData();
+        double bestKnownCost = Double.MAX_VALUE;
+        for (Vehicle v : availableVehicles) {
+            int typeIndex = v.getVehicleTypeIdentifier().getIndex();
+            InsertionData iData;
+            if (cacheable && typeIndex > 0) iData = getCachedInsertionData(route, job, v, typeIndex);
+            else iData = calculate(route, job, v);
+            if (iData instanceof InsertionData.NoInsertionFound) {
+                continue;
+            }
+            if (iData.getInsertionCost() < bestKnownCost) {
+                bestIData = iData;
+                bestKnownCost = iData.getInsertionCost();
+            }
+        }
+        return bestIData;
+    }
+
+    private InsertionData getCachedInsertionData(VehicleRoute route, Job job, Vehicle vehicle, int typeIndex) {
+        Entry[] entriesOfJob = entries[job.getIndex()];
+        if (entriesOfJob == null || typeIndex >= entriesOfJob.length) {
+            entriesOfJob = entriesOfJob == null ? new Entry[typeIndex + 1] : Arrays.copyOf(entriesOfJob, typeIndex + 1);
+            entries[job.getIndex()] = entriesOfJob;
+        }
+        Entry entry = entriesOfJob[typeIndex];
+        if (entry == null || entry.vehicle != vehicle) {
+            entry = new Entry(vehicle, calculate(route, job, vehicle));
+            entriesOfJob[typeIndex] = entry;
+        }
+        return entry.iData;
+    }
+
+    private InsertionData calculate(VehicleRoute route, Job job, Vehicle vehicle) {
+        return insertionCostsCalculator.getInsertionData(route, job, vehicle, vehicle.getEarliestDeparture(), route.getDriver(), Double.MAX_VALUE);
+    }
+
+}
@@ -18,6 +18,7 @@
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
+import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.constraint.*;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
@@ -36,7 +37,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
+import java.util.List;
 
 /**
  * Calculator that calculates the best insertion position for a {@link Service}.
@@ -65,6 +66,29 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator {
 
     private AdditionalAccessEgressCalculator additionalAccessEgressCalculator;
 
+    /*
+     * start, end and activity context are only needed while evaluating insertion positions. they are reused per thread
+     * since the calculator might be shared by concurrent insertion strategies.
+     */
+    private static class Scratch {
+
+        final Start start = new Start((Location) null, 0.0, Double.MAX_VALUE);
+
+        final End end = new End((Location) null, 0.0, Double.MAX_VALUE);
+
+        final ActivityContext activityContext = new ActivityContext();
+
+    }
+
+    private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+
+    };
+
     public ServiceInsertionCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts activityCosts, ActivityInsertionCostsCalculator additionalTransportCostsCalculator, ConstraintManager constraintManager) {
         super();
         this.transportCosts = routingCosts;
@@ -117,20 +141,31 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator {
 		TimeWindow bestTimeWindow = null;
 
         /*
-        generate new start and end for new vehicle
+        prepare start and end for new vehicle
          */
-        Start start = new Start(newVehicle.getStartLocation(), newVehicle.getEarliestDeparture(), Double.MAX_VALUE);
+        Scratch scratch = this.scratch.get();
+        Start start = scratch.start;
+        start.setLocation(newVehicle.getStartLocation());
+        start.setTheoreticalEarliestOperationStartTime(newVehicle.getEarliestDeparture());
+        start.setTheoreticalLatestOperationStartTime(Double.MAX_VALUE);
+        start.setArrTime(0.0);
         start.setEndTime(newVehicleDepartureTime);
-        End end = new End(newVehicle.getEndLocation(), 0.0, newVehicle.getLatestArrival());
+        End end = scratch.end;
+        end.setLocation(newVehicle.getEndLocation());
+        end.setTheoreticalEarliestOperationStartTime(0.0);
+        end.setTheoreticalLatestOperationStartTime(newVehicle.getLatestArrival());
+        end.setArrTime(0.0);
+        end.setEndTime(newVehicle.getLatestArrival());
+        ActivityContext activityContext = scratch.activityContext;
 
         TourActivity prevAct = start;
         double prevActStartTime = newVehicleDepartureTime;
         int actIndex = 0;
-        Iterator<TourActivity> activityIterator = currentRoute.getActivities().iterator();
+        List<TourActivity> activities = currentRoute.getActivities();
         boolean tourEnd = false;
         while(!tourEnd){
             TourActivity nextAct;
-            if(activityIterator.hasNext()) nextAct = activityIterator.next();
+            if(actIndex < activities.size()) nextAct = activities.get(actIndex);
             else{
                 nextAct = end;
                 tourEnd = true;
@@ -139,11 +174,10 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator {
 			for(TimeWindow timeWindow : service.getTimeWindows()) {
                 deliveryAct2Insert.setTheoreticalEarliestOperationStartTime(timeWindow.getStart());
                 deliveryAct2Insert.setTheoreticalLatestOperationStartTime(timeWindow.getEnd());
-                ActivityContext activityContext = new ActivityContext();
                 activityContext.setInsertionIndex(actIndex);
                 insertionContext.setActivityContext(activityContext);
                 ConstraintsStatus status = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
-                if (status.equals(ConstraintsStatus.FULFILLED)) {
+                if (status == ConstraintsStatus.FULFILLED) {
                     double additionalICostsAtActLevel = softActivityConstraint.getCosts(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
                     double additionalTransportationCosts = additionalTransportCostsCalculator.getCosts(insertionContext, prevAct, nextAct, deliveryAct2Insert, prevActStartTime);
                     if (additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts < bestCost) {
@@ -152,7 +186,7 @@ final class ServiceInsertionCalculator implements JobInsertionCostsCalculator {
                         bestTimeWindow = timeWindow;
                     }
                     not_fulfilled_break = false;
-                } else if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                } else if (status == ConstraintsStatus.NOT_FULFILLED) {
                     not_fulfilled_break = false;
                 }
 			}
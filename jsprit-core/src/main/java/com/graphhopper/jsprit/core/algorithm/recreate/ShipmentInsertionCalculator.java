@@ -17,6 +17,7 @@
  */
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.constraint.*;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
@@ -91,8 +92,9 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
     public InsertionData getInsertionData(final VehicleRoute currentRoute, final Job jobToInsert, final Vehicle newVehicle, double newVehicleDepartureTime, final Driver newDriver, final double bestKnownCosts) {
         JobInsertionContext insertionContext = new JobInsertionContext(currentRoute, jobToInsert, newVehicle, newDriver, newVehicleDepartureTime);
         Shipment shipment = (Shipment) jobToInsert;
-        TourActivity pickupShipment = activityFactory.createActivities(shipment).get(0);
-        TourActivity deliverShipment = activityFactory.createActivities(shipment).get(1);
+        List<AbstractActivity> shipmentActivities = activityFactory.createActivities(shipment);
+        TourActivity pickupShipment = shipmentActivities.get(0);
+        TourActivity deliverShipment = shipmentActivities.get(1);
         insertionContext.getAssociatedActivities().add(pickupShipment);
         insertionContext.getAssociatedActivities().add(deliverShipment);
 
@@ -122,6 +124,8 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
         End end = new End(newVehicle.getEndLocation(), 0.0, newVehicle.getLatestArrival());
 
         ActivityContext pickupContext = new ActivityContext();
+        ActivityContext pickupInsertionContext = new ActivityContext();
+        ActivityContext deliveryInsertionContext = new ActivityContext();
 
         TourActivity prevAct = start;
         double prevActEndTime = newVehicleDepartureTime;
@@ -131,6 +135,7 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
         boolean tourEnd = false;
         //pickupShipmentLoop
         List<TourActivity> activities = currentRoute.getTourActivities().getActivities();
+        double[] endTimes = calculateEndTimes(activities, start, newVehicleDepartureTime, newDriver, newVehicle);
 
         while (!tourEnd) {
             TourActivity nextAct;
@@ -145,9 +150,8 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
             for(TimeWindow pickupTimeWindow : shipment.getPickupTimeWindows()) {
                 pickupShipment.setTheoreticalEarliestOperationStartTime(pickupTimeWindow.getStart());
                 pickupShipment.setTheoreticalLatestOperationStartTime(pickupTimeWindow.getEnd());
-                ActivityContext activityContext = new ActivityContext();
-                activityContext.setInsertionIndex(i);
-                insertionContext.setActivityContext(activityContext);
+                pickupInsertionContext.setInsertionIndex(i);
+                insertionContext.setActivityContext(pickupInsertionContext);
                 ConstraintsStatus pickupShipmentConstraintStatus = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime);
                 if (pickupShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED)) {
                     pickupInsertionNotFulfilledBreak = false;
@@ -171,6 +175,11 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
                 insertionContext.setRelatedActivityContext(pickupContext);
 
                 double prevActEndTime_deliveryLoop = shipmentPickupEndTime;
+                /*
+                once the delay caused by the pickup is absorbed (e.g. by waiting for a time window to open), the end times
+                of subsequent activities are the same as without pickup, i.e. they need not be calculated again
+                 */
+                boolean delayAbsorbed = false;
 
 			/*
             --------------------------------
@@ -191,9 +200,8 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
                     for (TimeWindow deliveryTimeWindow : shipment.getDeliveryTimeWindows()) {
                         deliverShipment.setTheoreticalEarliestOperationStartTime(deliveryTimeWindow.getStart());
                         deliverShipment.setTheoreticalLatestOperationStartTime(deliveryTimeWindow.getEnd());
-                        ActivityContext activityContext_ = new ActivityContext();
-                        activityContext_.setInsertionIndex(j);
-                        insertionContext.setActivityContext(activityContext_);
+                        deliveryInsertionContext.setInsertionIndex(j);
+                        insertionContext.setActivityContext(deliveryInsertionContext);
                         ConstraintsStatus deliverShipmentConstraintStatus = hardActivityLevelConstraint.fulfilled(insertionContext, prevAct_deliveryLoop, deliverShipment, nextAct_deliveryLoop, prevActEndTime_deliveryLoop);
                         if (deliverShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)) {
                             double additionalDeliveryICosts = softActivityConstraint.getCosts(insertionContext, prevAct_deliveryLoop, deliverShipment, nextAct_deliveryLoop, prevActEndTime_deliveryLoop);
@@ -214,8 +222,13 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
                     }
                     if (deliveryInsertionNotFulfilledBreak) break;
                     //update prevAct and endTime
-                    double nextActArrTime = prevActEndTime_deliveryLoop + transportCosts.getTransportTime(prevAct_deliveryLoop.getLocation(), nextAct_deliveryLoop.getLocation(), prevActEndTime_deliveryLoop, newDriver, newVehicle);
-                    prevActEndTime_deliveryLoop = Math.max(nextActArrTime, nextAct_deliveryLoop.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct_deliveryLoop,nextActArrTime,newDriver,newVehicle);
+                    if (delayAbsorbed && j < activities.size()) {
+                        prevActEndTime_deliveryLoop = endTimes[j];
+                    } else {
+                        double nextActArrTime = prevActEndTime_deliveryLoop + transportCosts.getTransportTime(prevAct_deliveryLoop.getLocation(), nextAct_deliveryLoop.getLocation(), prevActEndTime_deliveryLoop, newDriver, newVehicle);
+                        prevActEndTime_deliveryLoop = Math.max(nextActArrTime, nextAct_deliveryLoop.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct_deliveryLoop, nextActArrTime, newDriver, newVehicle);
+                        delayAbsorbed = j < activities.size() && prevActEndTime_deliveryLoop == endTimes[j];
+                    }
                     prevAct_deliveryLoop = nextAct_deliveryLoop;
                     j++;
                 }
@@ -224,8 +237,7 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
                 break;
             }
             //update prevAct and endTime
-            double nextActArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocation(), nextAct.getLocation(), prevActEndTime, newDriver, newVehicle);
-            prevActEndTime = Math.max(nextActArrTime, nextAct.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct,nextActArrTime,newDriver,newVehicle);
+            if (i < activities.size()) prevActEndTime = endTimes[i];
             prevAct = nextAct;
             i++;
         }
@@ -244,6 +256,23 @@ final class ShipmentInsertionCalculator implements JobInsertionCostsCalculator {
         return insertionData;
     }
 
+    /*
+     * end times of the route's activities if nothing is inserted
+     */
+    private double[] calculateEndTimes(List<TourActivity> activities, Start start, double departureTime, Driver driver, Vehicle vehicle) {
+        double[] endTimes = new double[activities.size()];
+        TourActivity prevAct = start;
+        double prevActEndTime = departureTime;
+        for (int k = 0; k < activities.size(); k++) {
+            TourActivity act = activities.get(k);
+            double arrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocation(), act.getLocation(), prevActEndTime, driver, vehicle);
+            prevActEndTime = Math.max(arrTime, act.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(act, arrTime, driver, vehicle);
+            endTimes[k] = prevActEndTime;
+            prevAct = act;
+        }
+        return endTimes;
+    }
+
     private double calculate(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double departureTimeAtPrevAct) {
         return activityInsertionCostsCalculator.getCosts(iFacts, prevAct, nextAct, newAct, departureTimeAtPrevAct);
 
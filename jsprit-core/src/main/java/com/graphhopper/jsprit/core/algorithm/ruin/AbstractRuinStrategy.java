@@ -28,6 +28,7 @@ import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Random;
 
@@ -41,6 +42,18 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
 
     protected VehicleRoutingProblem vrp;
 
+    /*
+     * routes of the current ruin, i.e. null if ruinRoutes is not called by ruin
+     */
+    private Collection<VehicleRoute> routesOfRuin;
+
+    /*
+     * route of each job by job index. it is built lazily for the routes of the current ruin.
+     */
+    private VehicleRoute[] routesOfJobs;
+
+    private boolean routesOfJobsIndexed = false;
+
     public void setRandom(Random random) {
         this.random = random;
     }
@@ -63,7 +76,14 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
     @Override
     public Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes) {
         ruinListeners.ruinStarts(vehicleRoutes);
-        Collection<Job> unassigned = ruinRoutes(vehicleRoutes);
+        routesOfRuin = vehicleRoutes;
+        routesOfJobsIndexed = false;
+        Collection<Job> unassigned;
+        try {
+            unassigned = ruinRoutes(vehicleRoutes);
+        } finally {
+            routesOfRuin = null;
+        }
         logger.trace("ruin: [ruined={}]", unassigned.size());
         ruinListeners.ruinEnds(vehicleRoutes, unassigned);
         return unassigned;
@@ -88,12 +108,45 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
 
     protected boolean removeJob(Job job, Collection<VehicleRoute> vehicleRoutes) {
         if (jobIsInitial(job)) return false;
+        VehicleRoute route = findRoute(job, vehicleRoutes);
+        if (route == null) return false;
+        return removeJob(job, route);
+    }
+
+    /**
+     * Returns the route that serves the specified job.
+     * <p>Within {@link #ruin(Collection)}, routes are looked up in an index of all jobs of vehicleRoutes, which is
+     * built once per ruin. Otherwise all routes are searched.
+     *
+     * @param job           the job to look up
+     * @param vehicleRoutes routes to search
+     * @return route serving the job or null if job is not served by any route
+     */
+    protected VehicleRoute findRoute(Job job, Collection<VehicleRoute> vehicleRoutes) {
+        if (vehicleRoutes == routesOfRuin) {
+            if (!routesOfJobsIndexed) indexRoutesOfJobs(vehicleRoutes);
+            if (job.getIndex() < routesOfJobs.length) {
+                VehicleRoute route = routesOfJobs[job.getIndex()];
+                //each job of vehicleRoutes has an entry, but jobs not part of the problem might share an index
+                if (route == null) return null;
+                if (route.getTourActivities().servesJob(job)) return route;
+            }
+        }
         for (VehicleRoute route : vehicleRoutes) {
-            if (removeJob(job, route)) {
-                return true;
+            if (route.getTourActivities().servesJob(job)) return route;
+        }
+        return null;
+    }
+
+    private void indexRoutesOfJobs(Collection<VehicleRoute> vehicleRoutes) {
+        if (routesOfJobs == null) routesOfJobs = new VehicleRoute[vrp.getJobs().size() + 1];
+        else Arrays.fill(routesOfJobs, null);
+        for (VehicleRoute route : vehicleRoutes) {
+            for (Job j : route.getTourActivities().getJobs()) {
+                if (j.getIndex() < routesOfJobs.length) routesOfJobs[j.getIndex()] = route;
             }
         }
-        return false;
+        routesOfJobsIndexed = true;
     }
 
     private boolean jobIsInitial(Job job) {
@@ -105,6 +158,9 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
         boolean removed = route.getTourActivities().removeJob(job);
         if (removed) {
             logger.trace("ruin: {}", job.getId());
+            if (routesOfJobsIndexed && job.getIndex() < routesOfJobs.length && routesOfJobs[job.getIndex()] == route) {
+                routesOfJobs[job.getIndex()] = null;
+            }
             ruinListeners.removed(job, route);
             return true;
         }
@@ -15,7 +15,6 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.graphhopper.jsprit.core.algorithm.ruin;
 
 import com.graphhopper.jsprit.core.problem.Location;
@@ -25,87 +24,81 @@ import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import com.graphhopper.jsprit.core.util.RandomUtils;
-import org.apache.commons.math3.ml.clustering.Cluster;
-import org.apache.commons.math3.ml.clustering.Clusterable;
-import org.apache.commons.math3.ml.distance.DistanceMeasure;
 
 import java.util.*;
 
 /**
+ * Clusters the jobs of a route with DBSCAN. The distance between two jobs is the average transport cost between
+ * their locations.
+ * <p>Distances between the jobs of a route are memorized per route content, i.e. per set of jobs. Thus, a clusterer
+ * that is reused for many routes only calculates distances again if the jobs of a route have changed. The number of
+ * memorized distances is limited to {@link #DEFAULT_CACHE_CAPACITY} (or the capacity set), distances of least recently
+ * used routes are dropped first. Routes with jobs that have no unique index, e.g. jobs that are not part of a problem,
+ * are not memorized.
+ * <p>If job neighborhoods are set, the neighbors of a job are found by iterating its neighborhood until the first
+ * job of the route is farther away than eps, instead of calculating its distance to all jobs of the route. Jobs that
+ * are not part of the neighborhood are still found by a scan of all jobs.
+ * <p>A clusterer is not thread-safe.
+ * <p>
  * Created by schroeder on 04/02/15.
  */
 public class DBSCANClusterer {
 
-    private static class LocationWrapper implements Clusterable {
+    public static final int DEFAULT_CACHE_CAPACITY = 1 << 20;
 
-        private static int objCounter = 0;
+    private static final int UNVISITED = 0;
 
-        private final Job job;
+    private static final int NOISE = 1;
 
-        private List<Location> locations;
+    private static final int PART_OF_CLUSTER = 2;
 
-        private int id;
+    /**
+     * Jobs of a route (sorted by index if possible) and lazily calculated distances between them.
+     */
+    private static class RouteJobs {
 
-        public LocationWrapper(Job job, List<Location> locations) {
-            this.locations = locations;
-            objCounter++;
-            this.job = job;
-            this.id = objCounter;
-        }
+        private final Job[] jobs;
 
-//        private List<Location> getLocations(Job job){
-//            List<Location> locs = new ArrayList<Location>();
-//            if(job instanceof Service) {
-//                locs.add(((Service) job).getLocation());
-//            }
-//            else if(job instanceof Shipment){
-//                locs.add(((Shipment) job).getPickupLocation());
-//                locs.add(((Shipment) job).getDeliveryLocation());
-//            }
-//            return locs;
-//        }
+        private final Location[][] locations;
 
-        public List<Location> getLocations() {
-            return locations;
-        }
+        private final double[] distances;
 
-        @Override
-        public double[] getPoint() {
-            return new double[]{id};
+        private RouteJobs(Job[] jobs, Location[][] locations) {
+            this.jobs = jobs;
+            this.locations = locations;
+            this.distances = new double[jobs.length * jobs.length];
+            Arrays.fill(distances, Double.NaN);
         }
 
-        public Job getJob() {
-            return job;
+        private boolean hasSameJobs(Job[] otherJobs) {
+            if (otherJobs.length != jobs.length) return false;
+            for (int i = 0; i < jobs.length; i++) {
+                if (otherJobs[i] != jobs[i]) return false;
+            }
+            return true;
         }
+
     }
 
-    private static class MyDistance implements DistanceMeasure {
+    private static class RouteKey {
 
-        private Map<Integer, LocationWrapper> locations;
+        private final int[] jobIndices;
 
-        private VehicleRoutingTransportCosts costs;
+        private final int hashCode;
 
-        public MyDistance(List<LocationWrapper> locations, VehicleRoutingTransportCosts costs) {
-            this.locations = new HashMap<Integer, LocationWrapper>();
-            for (LocationWrapper lw : locations) {
-                this.locations.put((int) lw.getPoint()[0], lw);
-            }
-            this.costs = costs;
+        private RouteKey(int[] jobIndices) {
+            this.jobIndices = jobIndices;
+            this.hashCode = Arrays.hashCode(jobIndices);
         }
 
         @Override
-        public double compute(double[] doubles, double[] doubles1) {
-            LocationWrapper l1 = locations.get((int) doubles[0]);
-            LocationWrapper l2 = locations.get((int) doubles1[0]);
-            int count = 0;
-            double sum = 0;
-            for (Location loc_1 : l1.getLocations()) {
-                for (Location loc_2 : l2.getLocations()) {
-                    sum += costs.getTransportCost(loc_1, loc_2, 0, null, null);
-                    count++;
-                }
-            }
-            return sum / (double) count;
+        public boolean equals(Object o) {
+            return o instanceof RouteKey && Arrays.equals(jobIndices, ((RouteKey) o).jobIndices);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
         }
     }
 
@@ -121,6 +114,18 @@ public class DBSCANClusterer {
 
     private Random random = RandomNumberGeneration.getRandom();
 
+    private JobNeighborhoods jobNeighborhoods;
+
+    private int cacheCapacity = DEFAULT_CACHE_CAPACITY;
+
+    private final LinkedHashMap<RouteKey, RouteJobs> cache = new LinkedHashMap<RouteKey, RouteJobs>(16, 0.75f, true);
+
+    private long noCachedDistances = 0;
+
+    private int[] positionsOfJobIndices = new int[0];
+
+    private long noCalculatedDistances = 0;
+
     public void setRandom(Random random) {
         this.random = random;
     }
@@ -141,63 +146,226 @@ public class DBSCANClusterer {
         this.epsDistance = epsDistance;
     }
 
+    /**
+     * Sets the neighborhoods that are used to find the neighbors of a job. They must be sorted by the distance
+     * used for clustering, e.g. neighborhoods created with
+     * {@link com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance} and the same
+     * transport costs.
+     *
+     * @param jobNeighborhoods the neighborhoods sorted by distance, or null to compare each job to all jobs
+     */
+    public void setJobNeighborhoods(JobNeighborhoods jobNeighborhoods) {
+        this.jobNeighborhoods = jobNeighborhoods;
+    }
+
+    /**
+     * Sets the max. number of memorized distances, where a route with n jobs requires n^2 distances. 0 disables the
+     * cache.
+     *
+     * @param cacheCapacity max. number of memorized distances
+     */
+    public void setCacheCapacity(int cacheCapacity) {
+        if (cacheCapacity < 0) throw new IllegalArgumentException("cacheCapacity must not be negative");
+        this.cacheCapacity = cacheCapacity;
+        evict();
+    }
+
+    /**
+     * Returns the number of distances between jobs that have been calculated so far, i.e. that could not be
+     * taken from the cache.
+     *
+     * @return no. of calculated distances
+     */
+    public long getNoCalculatedDistances() {
+        return noCalculatedDistances;
+    }
+
     public List<List<Job>> getClusters(VehicleRoute route) {
-        List<LocationWrapper> locations = getLocationWrappers(route);
-        List<Cluster<LocationWrapper>> clusterResults = getClusters(route, locations);
-        return makeList(clusterResults);
+        if (route.isEmpty()) return new ArrayList<List<Job>>();
+        return getClusters(route, getRouteJobs(route));
     }
 
-    private List<LocationWrapper> getLocationWrappers(VehicleRoute route) {
-        List<LocationWrapper> locations = new ArrayList<LocationWrapper>(route.getTourActivities().getJobs().size());
-        Map<Job, List<Location>> jobs2locations = new HashMap<Job, List<Location>>();
+    public List<Job> getRandomCluster(VehicleRoute route) {
+        if (route.isEmpty()) return Collections.emptyList();
+        List<List<Job>> clusters = getClusters(route);
+        if (clusters.isEmpty()) return Collections.emptyList();
+        return RandomUtils.nextItem(clusters, random);
+    }
+
+    private RouteJobs getRouteJobs(VehicleRoute route) {
+        Map<Job, List<Location>> jobs2locations = new LinkedHashMap<Job, List<Location>>();
         for (TourActivity act : route.getActivities()) {
             if (act instanceof TourActivity.JobActivity) {
                 Job job = ((TourActivity.JobActivity) act).getJob();
-                if (!jobs2locations.containsKey(job)) {
-                    jobs2locations.put(job, new ArrayList<Location>());
+                List<Location> locations = jobs2locations.get(job);
+                if (locations == null) {
+                    locations = new ArrayList<Location>(2);
+                    jobs2locations.put(job, locations);
                 }
-                jobs2locations.get(job).add(act.getLocation());
+                locations.add(act.getLocation());
             }
         }
-        for (Job j : jobs2locations.keySet()) {
-            locations.add(new LocationWrapper(j, jobs2locations.get(j)));
+        Job[] jobs = jobs2locations.keySet().toArray(new Job[jobs2locations.size()]);
+        RouteKey key = null;
+        if (cacheCapacity > 0 && hasUniqueIndices(jobs)) {
+            Arrays.sort(jobs, new Comparator<Job>() {
+                @Override
+                public int compare(Job o1, Job o2) {
+                    return o1.getIndex() - o2.getIndex();
+                }
+            });
+            int[] jobIndices = new int[jobs.length];
+            for (int i = 0; i < jobs.length; i++) jobIndices[i] = jobs[i].getIndex();
+            key = new RouteKey(jobIndices);
+            RouteJobs routeJobs = cache.get(key);
+            if (routeJobs != null && routeJobs.hasSameJobs(jobs)) return routeJobs;
         }
-        return locations;
+        Location[][] locations = new Location[jobs.length][];
+        for (int i = 0; i < jobs.length; i++) {
+            List<Location> jobLocations = jobs2locations.get(jobs[i]);
+            locations[i] = jobLocations.toArray(new Location[jobLocations.size()]);
+        }
+        RouteJobs routeJobs = new RouteJobs(jobs, locations);
+        if (key != null && routeJobs.distances.length <= cacheCapacity) {
+            RouteJobs replaced = cache.put(key, routeJobs);
+            if (replaced != null) noCachedDistances -= replaced.distances.length;
+            noCachedDistances += routeJobs.distances.length;
+            evict();
+        }
+        return routeJobs;
     }
 
-    private List<Cluster<LocationWrapper>> getClusters(VehicleRoute route, List<LocationWrapper> locations) {
-        double sampledDistance;
-        if (epsDistance != null) sampledDistance = epsDistance;
-        else sampledDistance = Math.max(0, sample(costs, route));
-        org.apache.commons.math3.ml.clustering.DBSCANClusterer<LocationWrapper> clusterer = new org.apache.commons.math3.ml.clustering.DBSCANClusterer<LocationWrapper>(sampledDistance, minNoOfJobsInCluster, new MyDistance(locations, costs));
-        return clusterer.cluster(locations);
+    private void evict() {
+        Iterator<RouteJobs> leastRecentlyUsed = cache.values().iterator();
+        while (noCachedDistances > cacheCapacity && leastRecentlyUsed.hasNext()) {
+            noCachedDistances -= leastRecentlyUsed.next().distances.length;
+            leastRecentlyUsed.remove();
+        }
     }
 
-    private List<List<Job>> makeList(List<Cluster<LocationWrapper>> clusterResults) {
-        List<List<Job>> l = new ArrayList<List<Job>>();
-        for (Cluster<LocationWrapper> c : clusterResults) {
-            List<Job> l_ = getJobList(c);
-            l.add(l_);
+    private boolean hasUniqueIndices(Job[] jobs) {
+        int maxIndex = 0;
+        for (Job job : jobs) {
+            if (job.getIndex() <= 0) return false;
+            maxIndex = Math.max(maxIndex, job.getIndex());
         }
-        return l;
+        ensurePositionCapacity(maxIndex);
+        boolean unique = true;
+        for (Job job : jobs) {
+            if (positionsOfJobIndices[job.getIndex()] >= 0) unique = false;
+            positionsOfJobIndices[job.getIndex()] = 0;
+        }
+        for (Job job : jobs) positionsOfJobIndices[job.getIndex()] = -1;
+        return unique;
+    }
+
+    private void ensurePositionCapacity(int maxIndex) {
+        if (maxIndex < positionsOfJobIndices.length) return;
+        int oldLength = positionsOfJobIndices.length;
+        positionsOfJobIndices = Arrays.copyOf(positionsOfJobIndices, Math.max(maxIndex + 1, 2 * oldLength));
+        Arrays.fill(positionsOfJobIndices, oldLength, positionsOfJobIndices.length, -1);
     }
 
-    private List<Job> getJobList(Cluster<LocationWrapper> c) {
-        List<Job> l_ = new ArrayList<Job>();
-        if (c == null) return l_;
-        for (LocationWrapper lw : c.getPoints()) {
-            l_.add(lw.getJob());
+    private List<List<Job>> getClusters(VehicleRoute route, RouteJobs routeJobs) {
+        double eps;
+        if (epsDistance != null) eps = epsDistance;
+        else eps = Math.max(0, sample(costs, route));
+        int noJobs = routeJobs.jobs.length;
+        boolean useNeighborhoods = jobNeighborhoods != null && hasUniqueIndices(routeJobs.jobs);
+        if (useNeighborhoods) {
+            for (int i = 0; i < noJobs; i++) positionsOfJobIndices[routeJobs.jobs[i].getIndex()] = i;
+        }
+        try {
+            int[] status = new int[noJobs];
+            int[] seedStamps = new int[noJobs];
+            int[] neighbors = new int[noJobs];
+            int[] seeds = new int[noJobs];
+            List<List<Job>> clusters = new ArrayList<List<Job>>();
+            for (int point = 0; point < noJobs; point++) {
+                if (status[point] != UNVISITED) continue;
+                int noNeighbors = getNeighbors(routeJobs, point, eps, useNeighborhoods, neighbors);
+                if (noNeighbors < minNoOfJobsInCluster) {
+                    status[point] = NOISE;
+                    continue;
+                }
+                int stamp = clusters.size() + 1;
+                List<Job> cluster = new ArrayList<Job>();
+                cluster.add(routeJobs.jobs[point]);
+                status[point] = PART_OF_CLUSTER;
+                seedStamps[point] = stamp;
+                int noSeeds = 0;
+                for (int i = 0; i < noNeighbors; i++) {
+                    seeds[noSeeds++] = neighbors[i];
+                    seedStamps[neighbors[i]] = stamp;
+                }
+                for (int index = 0; index < noSeeds; index++) {
+                    int current = seeds[index];
+                    if (status[current] == UNVISITED) {
+                        int noCurrentNeighbors = getNeighbors(routeJobs, current, eps, useNeighborhoods, neighbors);
+                        if (noCurrentNeighbors >= minNoOfJobsInCluster) {
+                            for (int i = 0; i < noCurrentNeighbors; i++) {
+                                if (seedStamps[neighbors[i]] == stamp) continue;
+                                seeds[noSeeds++] = neighbors[i];
+                                seedStamps[neighbors[i]] = stamp;
+                            }
+                        }
+                    }
+                    if (status[current] != PART_OF_CLUSTER) {
+                        status[current] = PART_OF_CLUSTER;
+                        cluster.add(routeJobs.jobs[current]);
+                    }
+                }
+                clusters.add(cluster);
+            }
+            return clusters;
+        } finally {
+            if (useNeighborhoods) {
+                for (Job job : routeJobs.jobs) positionsOfJobIndices[job.getIndex()] = -1;
+            }
         }
-        return l_;
     }
 
-    public List<Job> getRandomCluster(VehicleRoute route) {
-        if (route.isEmpty()) return Collections.emptyList();
-        List<LocationWrapper> locations = getLocationWrappers(route);
-        List<Cluster<LocationWrapper>> clusterResults = getClusters(route, locations);
-        if (clusterResults.isEmpty()) return Collections.emptyList();
-        Cluster<LocationWrapper> randomCluster = RandomUtils.nextItem(clusterResults, random);
-        return getJobList(randomCluster);
+    private int getNeighbors(RouteJobs routeJobs, int point, double eps, boolean useNeighborhoods, int[] neighbors) {
+        int noJobs = routeJobs.jobs.length;
+        if (useNeighborhoods) {
+            int noNeighbors = 0;
+            int noVisited = 0;
+            Iterator<Job> neighborhood = jobNeighborhoods.getNearestNeighborsIterator(Integer.MAX_VALUE, routeJobs.jobs[point]);
+            while (neighborhood.hasNext() && noVisited < noJobs - 1) {
+                Job neighbor = neighborhood.next();
+                if (neighbor.getIndex() <= 0 || neighbor.getIndex() >= positionsOfJobIndices.length) continue;
+                int position = positionsOfJobIndices[neighbor.getIndex()];
+                if (position < 0 || position == point || routeJobs.jobs[position] != neighbor) continue;
+                //neighborhood is sorted by distance, thus all remaining jobs are farther away than eps
+                if (distance(routeJobs, position, point) > eps) return noNeighbors;
+                neighbors[noNeighbors++] = position;
+                noVisited++;
+            }
+            //all jobs of the route have been visited
+            if (noVisited == noJobs - 1) return noNeighbors;
+        }
+        int noNeighbors = 0;
+        for (int neighbor = 0; neighbor < noJobs; neighbor++) {
+            if (neighbor != point && distance(routeJobs, neighbor, point) <= eps) neighbors[noNeighbors++] = neighbor;
+        }
+        return noNeighbors;
+    }
+
+    private double distance(RouteJobs routeJobs, int from, int to) {
+        int index = from * routeJobs.jobs.length + to;
+        double distance = routeJobs.distances[index];
+        if (Double.isNaN(distance)) {
+            noCalculatedDistances++;
+            double sum = 0;
+            for (Location fromLocation : routeJobs.locations[from]) {
+                for (Location toLocation : routeJobs.locations[to]) {
+                    sum += costs.getTransportCost(fromLocation, toLocation, 0, null, null);
+                }
+            }
+            distance = sum / (double) (routeJobs.locations[from].length * routeJobs.locations[to].length);
+            routeJobs.distances[index] = distance;
+        }
+        return distance;
     }
 
     private double sample(VehicleRoutingTransportCosts costs, VehicleRoute r) {
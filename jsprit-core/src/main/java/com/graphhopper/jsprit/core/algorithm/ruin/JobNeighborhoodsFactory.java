@@ -21,18 +21,28 @@ package com.graphhopper.jsprit.core.algorithm.ruin;
 import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Created by schroeder on 05/03/15.
  */
 public class JobNeighborhoodsFactory {
 
     public JobNeighborhoods createNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance) {
-        return new JobNeighborhoodsImpl(vrp, jobDistance);
+        return new JobNeighborhoodsIndex(vrp, vrp.getJobs().values(), jobDistance, vrp.getJobs().size());
     }
 
     public JobNeighborhoods createNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity) {
-//        return new JobNeighborhoodsImplWithCapRestriction(vrp, jobDistance, capacity);
-        return new JobNeighborhoodsOptimized(vrp, jobDistance, capacity);
+        return new JobNeighborhoodsIndex(vrp, jobDistance, capacity);
+    }
+
+    /**
+     * Creates neighborhoods that are calculated concurrently with the specified executor service.
+     */
+    public JobNeighborhoods createNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, ExecutorService executorService, int noThreads) {
+        JobNeighborhoodsIndex neighborhoods = new JobNeighborhoodsIndex(vrp, jobDistance, capacity);
+        neighborhoods.setExecutorService(executorService, noThreads);
+        return neighborhoods;
     }
 
 }
@@ -0,0 +1,335 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.CoordinateBasedJobDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Memorizes the nearest neighbors of each job as sorted array of job indices.
+ * <p>For each job, distances to all other jobs are calculated into a primitive buffer. Then the <code>capacity</code>
+ * nearest neighbors are selected and sorted in place. Jobs with equal distance are ordered by job index. Thus only
+ * n * capacity ints are memorized and no object is created per job relation.
+ * <p>If the job distance is a {@link CoordinateBasedJobDistance} and only few neighbors are memorized, the nearest
+ * neighbors are searched with a kd-tree instead of calculating the distance of each pair of jobs.
+ */
+class JobNeighborhoodsIndex implements JobNeighborhoods {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    //kd-tree is only used if at most 1/KD_TREE_MIN_NEIGHBORHOOD_SHARE of all jobs are memorized as neighbors
+    private static final int KD_TREE_MIN_NEIGHBORHOOD_SHARE = 4;
+
+    static class ArrayIterator implements Iterator<Job> {
+
+        private final int noItems;
+
+        private final int[] itemArray;
+
+        private final Job[] jobs;
+
+        private int index = 0;
+
+        public ArrayIterator(int noItems, int[] itemArray, Job[] jobs) {
+            this.noItems = noItems;
+            this.itemArray = itemArray;
+            this.jobs = jobs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < noItems && index < itemArray.length;
+        }
+
+        @Override
+        public Job next() {
+            Job job = jobs[itemArray[index]];
+            index++;
+            return job;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static Logger logger = LoggerFactory.getLogger(JobNeighborhoodsIndex.class);
+
+    private final Collection<Job> jobsToConsider;
+
+    private final JobDistance jobDistance;
+
+    private final int capacity;
+
+    private final int[][] neighbors;
+
+    private final Job[] jobs;
+
+    private double maxDistance = 0.;
+
+    private ExecutorService executorService;
+
+    private int noThreads = 1;
+
+    /**
+     * Creates neighborhoods of all jobs inclusive jobs of initial routes.
+     *
+     * @param vrp         the problem
+     * @param jobDistance distance between two jobs
+     * @param capacity    max. number of neighbors memorized per job
+     */
+    public JobNeighborhoodsIndex(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity) {
+        this(vrp, vrp.getJobsInclusiveInitialJobsInRoutes().values(), jobDistance, capacity);
+    }
+
+    JobNeighborhoodsIndex(VehicleRoutingProblem vrp, Collection<Job> jobsToConsider, JobDistance jobDistance, int capacity) {
+        super();
+        this.jobsToConsider = jobsToConsider;
+        this.jobDistance = jobDistance;
+        this.capacity = capacity;
+        neighbors = new int[vrp.getJobsInclusiveInitialJobsInRoutes().size() + 1][];
+        jobs = new Job[vrp.getJobsInclusiveInitialJobsInRoutes().size() + 1];
+        logger.debug("initialize {}", this);
+    }
+
+    /**
+     * Sets the executor service neighborhoods are calculated with in {@link #initialise()}. The job distance needs
+     * to be thread-safe then.
+     *
+     * @param executorService the executor service
+     * @param noThreads       number of tasks the calculation is split into
+     */
+    public void setExecutorService(ExecutorService executorService, int noThreads) {
+        this.executorService = executorService;
+        this.noThreads = noThreads;
+    }
+
+    @Override
+    public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+        int index = neighborTo.getIndex();
+        if (index < 0 || index >= neighbors.length || neighbors[index] == null) return Collections.<Job>emptyList().iterator();
+        return new ArrayIterator(nNeighbors, neighbors[index], jobs);
+    }
+
+    @Override
+    public void initialise() {
+        logger.debug("calculates distances from EACH job to EACH job --> n^2={} calculations, but 'only' {} are cached.", Math.pow(jobsToConsider.size(), 2), (jobsToConsider.size() * (long) Math.min(capacity, Math.max(0, jobsToConsider.size() - 1))));
+        if (capacity <= 0) return;
+        calculateDistancesFromJob2Job();
+    }
+
+    @Override
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    private void calculateDistancesFromJob2Job() {
+        logger.debug("pre-process distances between locations ...");
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        final Job[] candidates = jobsToConsider.toArray(new Job[jobsToConsider.size()]);
+        for (Job job : candidates) jobs[job.getIndex()] = job;
+        final int noNeighborsToMemorize = Math.min(capacity, Math.max(0, candidates.length - 1));
+        final KdTree kdTree = createKdTree(candidates, noNeighborsToMemorize);
+        if (kdTree != null) {
+            logger.debug("search {} nearest neighbors with kd-tree", noNeighborsToMemorize);
+            int[] farthestPair = kdTree.farthestPair();
+            maxDistance = jobDistance.getDistance(candidates[farthestPair[0]], candidates[farthestPair[1]]);
+        }
+        if (executorService == null || noThreads <= 1) {
+            double max = calculateNeighbors(candidates, 0, 1, noNeighborsToMemorize, kdTree);
+            if (max > maxDistance) maxDistance = max;
+        } else {
+            List<Future<Double>> futures = new ArrayList<Future<Double>>(noThreads);
+            for (int t = 0; t < noThreads; t++) {
+                final int offset = t;
+                futures.add(executorService.submit(new Callable<Double>() {
+                    @Override
+                    public Double call() throws Exception {
+                        return calculateNeighbors(candidates, offset, noThreads, noNeighborsToMemorize, kdTree);
+                    }
+                }));
+            }
+            try {
+                for (Future<Double> future : futures) {
+                    double max = future.get();
+                    if (max > maxDistance) maxDistance = max;
+                }
+            } catch (InterruptedException e) {
+                cancel(futures);
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                cancel(futures);
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        stopWatch.stop();
+        logger.debug("pre-processing comp-time: {}; nuOfDistances stored: {}; estimated memory: {} bytes", stopWatch, candidates.length * (long) noNeighborsToMemorize, candidates.length * (16 + 4L * noNeighborsToMemorize));
+    }
+
+    private static void cancel(List<Future<Double>> futures) {
+        for (Future<Double> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Calculates the neighbors of every step-th candidate starting at offset. Neighborhoods of different
+     * candidates are written to different rows of neighbors, thus this can run concurrently.
+     *
+     * @return max. distance calculated
+     */
+    private double calculateNeighbors(Job[] candidates, int offset, int step, int noNeighborsToMemorize, KdTree kdTree) {
+        int noNeighbors = kdTree == null ? Math.max(0, candidates.length - 1) : noNeighborsToMemorize;
+        double[] distances = new double[noNeighbors];
+        int[] jobIndices = new int[noNeighbors];
+        double max = 0.;
+        for (int i = offset; i < candidates.length; i += step) {
+            Job job_i = candidates[i];
+            int n = 0;
+            if (kdTree == null) {
+                for (Job job_j : candidates) {
+                    if (job_i == job_j) continue;
+                    double distance = jobDistance.getDistance(job_i, job_j);
+                    if (distance > max) max = distance;
+                    distances[n] = distance;
+                    jobIndices[n] = job_j.getIndex();
+                    n++;
+                }
+                if (noNeighborsToMemorize < n) select(distances, jobIndices, 0, n - 1, noNeighborsToMemorize);
+            } else {
+                n = kdTree.nearestNeighbors(i, noNeighborsToMemorize, jobIndices, distances);
+                for (int j = 0; j < n; j++) {
+                    Job job_j = candidates[jobIndices[j]];
+                    distances[j] = jobDistance.getDistance(job_i, job_j);
+                    jobIndices[j] = job_j.getIndex();
+                }
+            }
+            int noMemorized = Math.min(n, noNeighborsToMemorize);
+            sort(distances, jobIndices, 0, noMemorized - 1);
+            neighbors[job_i.getIndex()] = Arrays.copyOf(jobIndices, noMemorized);
+        }
+        return max;
+    }
+
+    /**
+     * Returns a kd-tree over the coordinates of the candidates if jobDistance is based on coordinates and if only a small
+     * share of all neighbors need to be memorized. Otherwise, returns null, i.e. distances of all pairs of jobs are
+     * calculated. This includes the case of less than two candidates, i.e. no neighbors at all.
+     */
+    private KdTree createKdTree(Job[] candidates, int noNeighborsToMemorize) {
+        if (!(jobDistance instanceof CoordinateBasedJobDistance)) return null;
+        if (noNeighborsToMemorize == 0) return null;
+        if ((long) noNeighborsToMemorize * KD_TREE_MIN_NEIGHBORHOOD_SHARE > candidates.length) return null;
+        CoordinateBasedJobDistance coordinateBasedJobDistance = (CoordinateBasedJobDistance) jobDistance;
+        double[] xs = new double[candidates.length];
+        double[] ys = new double[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            Coordinate coordinate = coordinateBasedJobDistance.getCoordinate(candidates[i]);
+            if (coordinate == null) return null;
+            xs[i] = coordinate.getX();
+            ys[i] = coordinate.getY();
+        }
+        return new KdTree(xs, ys);
+    }
+
+    /**
+     * Rearranges [from,to] such that the k smallest elements are at [from,from+k).
+     */
+    static void select(double[] distances, int[] jobIndices, int from, int to, int k) {
+        int target = from + k;
+        while (from < to) {
+            int p = partition(distances, jobIndices, from, to);
+            if (p == target) return;
+            if (p < target) from = p + 1;
+            else to = p - 1;
+        }
+    }
+
+    /**
+     * Sorts [from,to] by distance and, if distances are equal, by job index.
+     */
+    static void sort(double[] distances, int[] jobIndices, int from, int to) {
+        while (to - from >= INSERTION_SORT_THRESHOLD) {
+            int p = partition(distances, jobIndices, from, to);
+            if (p - from < to - p) {
+                sort(distances, jobIndices, from, p - 1);
+                from = p + 1;
+            } else {
+                sort(distances, jobIndices, p + 1, to);
+                to = p - 1;
+            }
+        }
+        for (int i = from + 1; i <= to; i++) {
+            for (int j = i; j > from && less(distances, jobIndices, j, j - 1); j--) {
+                swap(distances, jobIndices, j, j - 1);
+            }
+        }
+    }
+
+    private static int partition(double[] distances, int[] jobIndices, int from, int to) {
+        int mid = (from + to) >>> 1;
+        if (less(distances, jobIndices, mid, from)) swap(distances, jobIndices, mid, from);
+        if (less(distances, jobIndices, to, from)) swap(distances, jobIndices, to, from);
+        if (less(distances, jobIndices, to, mid)) swap(distances, jobIndices, to, mid);
+        swap(distances, jobIndices, mid, to);
+        int store = from;
+        for (int i = from; i < to; i++) {
+            if (less(distances, jobIndices, i, to)) {
+                swap(distances, jobIndices, i, store);
+                store++;
+            }
+        }
+        swap(distances, jobIndices, store, to);
+        return store;
+    }
+
+    private static boolean less(double[] distances, int[] jobIndices, int i, int j) {
+        return distances[i] < distances[j] || (distances[i] == distances[j] && jobIndices[i] < jobIndices[j]);
+    }
+
+    private static void swap(double[] distances, int[] jobIndices, int i, int j) {
+        double d = distances[i];
+        distances[i] = distances[j];
+        distances[j] = d;
+        int index = jobIndices[i];
+        jobIndices[i] = jobIndices[j];
+        jobIndices[j] = index;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=neighborhoodIndex][capacity=" + capacity + "]";
+    }
+
+}
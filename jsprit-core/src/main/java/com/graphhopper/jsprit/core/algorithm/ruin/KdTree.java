@@ -0,0 +1,225 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Static 2-d tree over points with ids 0..n-1 to search the k nearest neighbors of a point. Points with equal distance
+ * are ordered by id.
+ * <p>The tree is implicit, i.e. the median of each subtree is at the center of its range in {@link #order}. Once
+ * built, it can be searched concurrently.
+ */
+class KdTree {
+
+    private final double[] xs;
+
+    private final double[] ys;
+
+    private final int[] order;
+
+    KdTree(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        order = new int[xs.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        build(0, order.length, 0);
+    }
+
+    private void build(int from, int to, int depth) {
+        while (to - from > 1) {
+            int mid = (from + to) >>> 1;
+            select(from, to - 1, mid, depth & 1);
+            build(from, mid, depth + 1);
+            from = mid + 1;
+            depth++;
+        }
+    }
+
+    private void select(int from, int to, int target, int axis) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            swap(mid, to);
+            int store = from;
+            for (int i = from; i < to; i++) {
+                if (less(order[i], order[to], axis)) {
+                    swap(i, store);
+                    store++;
+                }
+            }
+            swap(store, to);
+            if (store == target) return;
+            if (store < target) from = store + 1;
+            else to = store - 1;
+        }
+    }
+
+    private boolean less(int i, int j, int axis) {
+        double ci = axis == 0 ? xs[i] : ys[i];
+        double cj = axis == 0 ? xs[j] : ys[j];
+        return ci < cj || (ci == cj && i < j);
+    }
+
+    private void swap(int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+
+    /**
+     * Searches the k nearest neighbors of point, excluding the point itself. Neighbors are written to the first
+     * entries of ids and squaredDistances in no particular order.
+     *
+     * @return the number of neighbors found
+     */
+    int nearestNeighbors(int point, int k, int[] ids, double[] squaredDistances) {
+        if (k <= 0) return 0;
+        Heap heap = new Heap(k, ids, squaredDistances);
+        search(0, order.length, 0, point, heap);
+        return heap.size;
+    }
+
+    private void search(int from, int to, int depth, int point, Heap heap) {
+        if (from >= to) return;
+        int mid = (from + to) >>> 1;
+        int id = order[mid];
+        if (id != point) {
+            double dx = xs[point] - xs[id];
+            double dy = ys[point] - ys[id];
+            heap.offer(id, dx * dx + dy * dy);
+        }
+        double diff = (depth & 1) == 0 ? xs[point] - xs[id] : ys[point] - ys[id];
+        boolean lowerFirst = diff < 0 || (diff == 0 && point < id);
+        if (lowerFirst) search(from, mid, depth + 1, point, heap);
+        else search(mid + 1, to, depth + 1, point, heap);
+        if (!heap.isFull() || diff * diff <= heap.worstDistance()) {
+            if (lowerFirst) search(mid + 1, to, depth + 1, point, heap);
+            else search(from, mid, depth + 1, point, heap);
+        }
+    }
+
+    /**
+     * Returns the ids of the two points that are farthest apart. They are searched among the points of the convex hull.
+     * The tree must contain at least one point.
+     */
+    int[] farthestPair() {
+        int n = xs.length;
+        Integer[] sorted = new Integer[n];
+        for (int i = 0; i < n; i++) sorted[i] = i;
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i, Integer j) {
+                int c = Double.compare(xs[i], xs[j]);
+                if (c != 0) return c;
+                return Double.compare(ys[i], ys[j]);
+            }
+        });
+        int[] hull = new int[2 * n];
+        int h = 0;
+        for (int i = 0; i < n; i++) {
+            while (h >= 2 && cross(hull[h - 2], hull[h - 1], sorted[i]) <= 0) h--;
+            hull[h++] = sorted[i];
+        }
+        for (int i = n - 2, lower = h + 1; i >= 0; i--) {
+            while (h >= lower && cross(hull[h - 2], hull[h - 1], sorted[i]) <= 0) h--;
+            hull[h++] = sorted[i];
+        }
+        int[] pair = new int[]{0, 0};
+        double max = -1.;
+        for (int i = 0; i < h; i++) {
+            for (int j = i + 1; j < h; j++) {
+                double dx = xs[hull[i]] - xs[hull[j]];
+                double dy = ys[hull[i]] - ys[hull[j]];
+                if (dx * dx + dy * dy > max) {
+                    max = dx * dx + dy * dy;
+                    pair[0] = hull[i];
+                    pair[1] = hull[j];
+                }
+            }
+        }
+        return pair;
+    }
+
+    private double cross(int o, int a, int b) {
+        return (xs[a] - xs[o]) * (ys[b] - ys[o]) - (ys[a] - ys[o]) * (xs[b] - xs[o]);
+    }
+
+    /**
+     * Bounded max-heap on (squared distance, id).
+     */
+    private static class Heap {
+
+        final int capacity;
+
+        final int[] ids;
+
+        final double[] distances;
+
+        int size = 0;
+
+        Heap(int capacity, int[] ids, double[] distances) {
+            this.capacity = capacity;
+            this.ids = ids;
+            this.distances = distances;
+        }
+
+        boolean isFull() {
+            return size == capacity;
+        }
+
+        double worstDistance() {
+            return distances[0];
+        }
+
+        void offer(int id, double distance) {
+            if (size < capacity) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!greater(distance, id, distances[parent], ids[parent])) break;
+                    ids[i] = ids[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                ids[i] = id;
+                distances[i] = distance;
+            } else if (greater(distances[0], ids[0], distance, id)) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && greater(distances[child + 1], ids[child + 1], distances[child], ids[child]))
+                        child++;
+                    if (!greater(distances[child], ids[child], distance, id)) break;
+                    ids[i] = ids[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                ids[i] = id;
+                distances[i] = distance;
+            }
+        }
+
+        private static boolean greater(double d1, int id1, double d2, int id2) {
+            return d1 > d2 || (d1 == d2 && id1 > id2);
+        }
+    }
+
+}
@@ -32,8 +32,10 @@ import java.util.*;
 
 
 /**
- * Ruin strategy that ruins current solution randomly. I.e.
- * customer are removed randomly from current solution.
+ * Ruin strategy that removes clusters of jobs. It clusters the jobs of a random route with {@link DBSCANClusterer},
+ * removes a random cluster and continues with a route that is close to the removed jobs.
+ * <p>The clusterer is kept for the lifetime of this strategy, thus distances between the jobs of routes that did not
+ * change are not calculated again.
  *
  * @author stefan schroeder
  */
@@ -77,6 +79,8 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
 
     private double epsFactor = 0.8;
 
+    private final DBSCANClusterer dbscan;
+
     public RuinClusters(VehicleRoutingProblem vrp, final int initialNumberJobsToRemove, JobNeighborhoods jobNeighborhoods) {
         super(vrp);
         this.vrp = vrp;
@@ -87,9 +91,23 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
             }
         });
         this.jobNeighborhoods = jobNeighborhoods;
+        this.dbscan = new DBSCANClusterer(vrp.getTransportCosts());
         logger.debug("initialise {}", this);
     }
 
+    /**
+     * Lets DBSCAN find the neighbors of a job in the job neighborhoods of this strategy instead of comparing it to all
+     * jobs of its route. This requires the neighborhoods to be sorted by average transport costs between jobs, i.e.
+     * to be created with {@link com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance}
+     * and the transport costs of the problem. It pays off for long routes only, since the neighborhood of a job in a
+     * short route mostly consists of jobs of other routes.
+     *
+     * @param clusterWithNeighborhoods true if neighborhoods are to be used for clustering
+     */
+    public void setClusterWithNeighborhoods(boolean clusterWithNeighborhoods) {
+        dbscan.setJobNeighborhoods(clusterWithNeighborhoods ? jobNeighborhoods : null);
+    }
+
     public void setNoClusters(int noClusters) {
         this.noClusters = noClusters;
     }
@@ -109,7 +127,6 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
 
     private void ruin(Collection<VehicleRoute> vehicleRoutes, int nOfJobs2BeRemoved, List<Job> unassignedJobs) {
         if (vrp.getJobs().values().size() == 0) return;
-        Map<Job, VehicleRoute> mappedRoutes = map(vehicleRoutes);
         int toRemove = nOfJobs2BeRemoved;
 
         Collection<Job> lastRemoved = new ArrayList<Job>();
@@ -121,14 +138,16 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
             VehicleRoute targetRoute = null;
             if (lastRemoved.isEmpty()) {
                 target = RandomUtils.nextJob(vrp.getJobs().values(), random);
-                targetRoute = mappedRoutes.get(target);
+                targetRoute = findRoute(target, vehicleRoutes);
             } else {
                 target = RandomUtils.nextJob(lastRemoved, random);
                 Iterator<Job> neighborIterator = jobNeighborhoods.getNearestNeighborsIterator(nOfJobs2BeRemoved, target);
                 while (neighborIterator.hasNext()) {
                     Job j = neighborIterator.next();
-                    if (!removed.contains(j) && !ruined.contains(mappedRoutes.get(j))) {
-                        targetRoute = mappedRoutes.get(j);
+                    if (removed.contains(j)) continue;
+                    VehicleRoute route = findRoute(j, vehicleRoutes);
+                    if (!ruined.contains(route)) {
+                        targetRoute = route;
                         break;
                     }
                 }
@@ -140,7 +159,6 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
                 cycleCandidates.add(targetRoute);
                 break;
             }
-            DBSCANClusterer dbscan = new DBSCANClusterer(vrp.getTransportCosts());
             dbscan.setRandom(random);
             dbscan.setMinPts(minPts);
             dbscan.setEpsFactor(epsFactor);
@@ -148,6 +166,7 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
             for (Job j : cluster) {
                 if (toRemove == 0) break;
                 if (removeJob(j, vehicleRoutes)) {
+                    removed.add(j);
                     lastRemoved.add(j);
                     unassignedJobs.add(j);
                 }
@@ -165,16 +184,6 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
         return wl;
     }
 
-    private Map<Job, VehicleRoute> map(Collection<VehicleRoute> vehicleRoutes) {
-        Map<Job, VehicleRoute> map = new HashMap<Job, VehicleRoute>(vrp.getJobs().size());
-        for (VehicleRoute r : vehicleRoutes) {
-            for (Job j : r.getTourActivities().getJobs()) {
-                map.put(j, r);
-            }
-        }
-        return map;
-    }
-
     @Override
     public String toString() {
         return "[name=clusterRuin]";
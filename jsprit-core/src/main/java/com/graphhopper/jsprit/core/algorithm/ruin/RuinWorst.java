@@ -31,8 +31,11 @@ import java.util.*;
 
 
 /**
- * Ruin strategy that ruins current solution randomly. I.e.
- * customer are removed randomly from current solution.
+ * Ruin strategy that removes the jobs with the highest removal savings, i.e. the jobs whose removal saves the most
+ * transport costs.
+ * <p>Savings are determined once per ruin and afterwards only updated for the jobs next to a removed job. They are
+ * kept in a max-heap, thus removing k jobs costs O(k log n) instead of evaluating all routes k times. Noise is drawn
+ * whenever the savings of a job are (re)evaluated.
  *
  * @author stefan schroeder
  */
@@ -81,61 +84,249 @@ public final class RuinWorst extends AbstractRuinStrategy {
     }
 
     private void ruin(Collection<VehicleRoute> vehicleRoutes, int nOfJobs2BeRemoved, List<Job> unassignedJobs) {
-        LinkedList<Job> availableJobs = new LinkedList<Job>(vrp.getJobs().values());
+        if (nOfJobs2BeRemoved <= 0) return;
+        SavingsIndex index = new SavingsIndex(vehicleRoutes);
         int toRemove = nOfJobs2BeRemoved;
         while (toRemove > 0) {
-            Job worst = getWorst(vehicleRoutes);
-            if (worst == null) break;
-            if (removeJob(worst, vehicleRoutes)) {
-                availableJobs.remove(worst);
-                unassignedJobs.add(worst);
+            int worst = index.pollWorst();
+            if (worst < 0) break;
+            Job job = index.jobs[worst];
+            if (removeJob(job, index.getRoute(worst))) {
+                unassignedJobs.add(job);
+                index.removeActivities(worst);
             }
             toRemove--;
         }
     }
 
-    private Job getWorst(Collection<VehicleRoute> copied) {
-        Job worst = null;
-        double bestSavings = Double.MIN_VALUE;
-
-        for (VehicleRoute route : copied) {
-            if (route.isEmpty()) continue;
-            Map<Job, Double> savingsMap = new HashMap<Job, Double>();
-            TourActivity actBefore = route.getStart();
-            TourActivity actToEval = null;
-            for (TourActivity act : route.getActivities()) {
-                if (actToEval == null) {
-                    actToEval = act;
-                    continue;
-                }
-                double savings = savings(route, actBefore, actToEval, act);
-                Job job = ((TourActivity.JobActivity) actToEval).getJob();
-                if (!savingsMap.containsKey(job)) {
-                    savingsMap.put(job, savings);
-                } else {
-                    double s = savingsMap.get(job);
-                    savingsMap.put(job, s + savings);
+    /**
+     * Removal savings of all jobs of one ruin. Activities are linked to their predecessor and successor in their
+     * route, thus removing a job only requires to update the savings of the jobs next to its activities. Jobs that
+     * cannot be removed (i.e. initial jobs or breaks) are considered as neighbours, but never become worst.
+     */
+    private class SavingsIndex {
+
+        private static final int NO_JOB = 0;
+
+        private final VehicleRoute[] routes;
+
+        private final TourActivity[] activities;
+
+        private final int[] routeOfActivity;
+
+        private final int[] prev;
+
+        private final int[] next;
+
+        private final int[] jobOfActivity;
+
+        private final int[] nextActivityOfJob;
+
+        private final int[] firstActivityOfJob;
+
+        private final Job[] jobs;
+
+        private final SavingsHeap heap;
+
+        SavingsIndex(Collection<VehicleRoute> vehicleRoutes) {
+            int noActivities = 0;
+            int noRoutes = 0;
+            for (VehicleRoute route : vehicleRoutes) {
+                if (route.isEmpty()) continue;
+                noActivities += route.getActivities().size() + 2;
+                noRoutes++;
+            }
+            int noJobIndices = vrp.getJobs().size() + 1;
+            routes = new VehicleRoute[noRoutes];
+            activities = new TourActivity[noActivities];
+            routeOfActivity = new int[noActivities];
+            prev = new int[noActivities];
+            next = new int[noActivities];
+            jobOfActivity = new int[noActivities];
+            nextActivityOfJob = new int[noActivities];
+            firstActivityOfJob = new int[noJobIndices];
+            Arrays.fill(firstActivityOfJob, -1);
+            jobs = new Job[noJobIndices];
+            heap = new SavingsHeap(noJobIndices);
+            int r = 0;
+            int a = 0;
+            for (VehicleRoute route : vehicleRoutes) {
+                if (route.isEmpty()) continue;
+                routes[r] = route;
+                a = link(route.getStart(), r, a, NO_JOB);
+                for (TourActivity act : route.getActivities()) {
+                    a = link(act, r, a, jobIndex(act));
                 }
-                actBefore = actToEval;
-                actToEval = act;
+                a = link(route.getEnd(), r, a, NO_JOB);
+                next[a - 1] = -1;
+                r++;
             }
-            double savings = savings(route, actBefore, actToEval, route.getEnd());
-            Job job = ((TourActivity.JobActivity) actToEval).getJob();
-            if (!savingsMap.containsKey(job)) {
-                savingsMap.put(job, savings);
-            } else {
-                double s = savingsMap.get(job);
-                savingsMap.put(job, s + savings);
+            for (int j = 1; j < noJobIndices; j++) {
+                if (jobs[j] != null) heap.add(j, savings(j));
             }
-            //getCounts best
-            for (Job j : savingsMap.keySet()) {
-                if (savingsMap.get(j) > bestSavings) {
-                    bestSavings = savingsMap.get(j);
-                    worst = j;
+        }
+
+        private int link(TourActivity act, int route, int a, int job) {
+            activities[a] = act;
+            routeOfActivity[a] = route;
+            boolean first = act == routes[route].getStart();
+            prev[a] = first ? -1 : a - 1;
+            if (!first) next[a - 1] = a;
+            jobOfActivity[a] = job;
+            nextActivityOfJob[a] = -1;
+            if (job != NO_JOB) {
+                if (firstActivityOfJob[job] < 0) firstActivityOfJob[job] = a;
+                else {
+                    int last = firstActivityOfJob[job];
+                    while (nextActivityOfJob[last] >= 0) last = nextActivityOfJob[last];
+                    nextActivityOfJob[last] = a;
                 }
             }
+            return a + 1;
+        }
+
+        private int jobIndex(TourActivity act) {
+            if (!(act instanceof TourActivity.JobActivity)) return NO_JOB;
+            Job job = ((TourActivity.JobActivity) act).getJob();
+            //initial jobs and breaks are not part of the problem, thus they cannot be removed
+            if (!vrp.getJobs().containsKey(job.getId())) return NO_JOB;
+            if (job.getIndex() <= 0 || job.getIndex() >= jobs.length) return NO_JOB;
+            jobs[job.getIndex()] = job;
+            return job.getIndex();
+        }
+
+        VehicleRoute getRoute(int job) {
+            return routes[routeOfActivity[firstActivityOfJob[job]]];
+        }
+
+        int pollWorst() {
+            if (heap.isEmpty() || heap.peekSavings() <= Double.MIN_VALUE) return -1;
+            return heap.poll();
+        }
+
+        void removeActivities(int job) {
+            int[] neighbours = new int[4];
+            int noNeighbours = 0;
+            for (int a = firstActivityOfJob[job]; a >= 0; a = nextActivityOfJob[a]) {
+                int p = prev[a];
+                int n = next[a];
+                next[p] = n;
+                prev[n] = p;
+                noNeighbours = addNeighbour(neighbours, noNeighbours, jobOfActivity[p]);
+                noNeighbours = addNeighbour(neighbours, noNeighbours, jobOfActivity[n]);
+            }
+            for (int i = 0; i < noNeighbours; i++) {
+                int neighbour = neighbours[i];
+                if (neighbour != job && heap.contains(neighbour)) heap.update(neighbour, savings(neighbour));
+            }
+        }
+
+        private int addNeighbour(int[] neighbours, int noNeighbours, int job) {
+            if (job == NO_JOB) return noNeighbours;
+            for (int i = 0; i < noNeighbours; i++) {
+                if (neighbours[i] == job) return noNeighbours;
+            }
+            neighbours[noNeighbours] = job;
+            return noNeighbours + 1;
         }
-        return worst;
+
+        private double savings(int job) {
+            double savings = 0;
+            for (int a = firstActivityOfJob[job]; a >= 0; a = nextActivityOfJob[a]) {
+                savings += RuinWorst.this.savings(routes[routeOfActivity[a]], activities[prev[a]], activities[a], activities[next[a]]);
+            }
+            return savings;
+        }
+
+    }
+
+    /**
+     * Indexed binary max-heap of job indices ordered by their savings.
+     */
+    private static class SavingsHeap {
+
+        private final int[] heap;
+
+        private final int[] positions;
+
+        private final double[] savings;
+
+        private int size = 0;
+
+        SavingsHeap(int noJobIndices) {
+            heap = new int[noJobIndices];
+            positions = new int[noJobIndices];
+            Arrays.fill(positions, -1);
+            savings = new double[noJobIndices];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int job) {
+            return positions[job] >= 0;
+        }
+
+        double peekSavings() {
+            return savings[heap[0]];
+        }
+
+        void add(int job, double jobSavings) {
+            savings[job] = jobSavings;
+            heap[size] = job;
+            positions[job] = size;
+            size++;
+            siftUp(size - 1);
+        }
+
+        void update(int job, double jobSavings) {
+            double old = savings[job];
+            savings[job] = jobSavings;
+            if (jobSavings > old) siftUp(positions[job]);
+            else siftDown(positions[job]);
+        }
+
+        int poll() {
+            int job = heap[0];
+            size--;
+            positions[job] = -1;
+            if (size > 0) {
+                heap[0] = heap[size];
+                positions[heap[0]] = 0;
+                siftDown(0);
+            }
+            return job;
+        }
+
+        private void siftUp(int i) {
+            int job = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (savings[heap[parent]] >= savings[job]) break;
+                heap[i] = heap[parent];
+                positions[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = job;
+            positions[job] = i;
+        }
+
+        private void siftDown(int i) {
+            int job = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && savings[heap[child + 1]] > savings[heap[child]]) child++;
+                if (savings[job] >= savings[heap[child]]) break;
+                heap[i] = heap[child];
+                positions[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = job;
+            positions[job] = i;
+        }
+
     }
 
     private double savings(VehicleRoute route, TourActivity actBefore, TourActivity actToEval, TourActivity act) {
@@ -22,6 +22,8 @@ import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.EuclideanCosts;
 import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
 
 
@@ -32,7 +34,7 @@ import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
  *
  * @author stefan schroeder
  */
-public class AvgServiceAndShipmentDistance implements JobDistance {
+public class AvgServiceAndShipmentDistance implements CoordinateBasedJobDistance {
 
     private VehicleRoutingTransportCosts costs;
 
@@ -64,6 +66,17 @@ public class AvgServiceAndShipmentDistance implements JobDistance {
         }
     }
 
+    /**
+     * Returns the coordinate of services if the input-transport costs are euclidean. Otherwise, returns null.
+     */
+    @Override
+    public Coordinate getCoordinate(Job job) {
+        if (costs instanceof EuclideanCosts && job instanceof Service) {
+            return ((Service) job).getLocation().getCoordinate();
+        }
+        return null;
+    }
+
     private double calcDist(Service i, Service j) {
         return calcDist(i.getLocation(), j.getLocation());
     }
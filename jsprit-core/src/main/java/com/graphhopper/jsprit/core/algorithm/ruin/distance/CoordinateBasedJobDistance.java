@@ -0,0 +1,39 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin.distance;
+
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.util.Coordinate;
+
+/**
+ * JobDistance that can represent jobs by coordinates. If both jobs have a coordinate, their distance must increase
+ * with the euclidean distance between these coordinates. This allows nearest neighbors to be searched with a
+ * spatial index rather than by calculating the distance of each pair of jobs.
+ */
+public interface CoordinateBasedJobDistance extends JobDistance {
+
+    /**
+     * Returns the coordinate representing the job, or null if the distance of this job cannot be derived from a
+     * coordinate.
+     *
+     * @param job the job
+     * @return coordinate of job or null
+     */
+    public Coordinate getCoordinate(Job job);
+
+}
@@ -19,9 +19,10 @@ package com.graphhopper.jsprit.core.algorithm.ruin.distance;
 
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.util.Coordinate;
 import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
 
-public class EuclideanServiceDistance implements JobDistance {
+public class EuclideanServiceDistance implements CoordinateBasedJobDistance {
 
     public EuclideanServiceDistance() {
         super();
@@ -47,4 +48,10 @@ public class EuclideanServiceDistance implements JobDistance {
         return avgCost;
     }
 
+    @Override
+    public Coordinate getCoordinate(Job job) {
+        if (job instanceof Service) return ((Service) job).getLocation().getCoordinate();
+        return null;
+    }
+
 }
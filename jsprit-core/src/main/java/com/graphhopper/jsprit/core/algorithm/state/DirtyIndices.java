@@ -0,0 +1,63 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.graphhopper.jsprit.core.algorithm.state;
+
+/**
+ * Memorizes the indices that have been marked since the last reset. Each index is memorized only once, thus
+ * iterating over the marked indices and resetting them is proportional to the number of marked indices rather than
+ * to the capacity.
+ */
+class DirtyIndices {
+
+    private final boolean[] marked;
+
+    private final int[] indices;
+
+    private int size;
+
+    DirtyIndices(int capacity) {
+        marked = new boolean[capacity];
+        indices = new int[capacity];
+    }
+
+    void mark(int index) {
+        if (!marked[index]) {
+            marked[index] = true;
+            indices[size++] = index;
+        }
+    }
+
+    boolean isMarked(int index) {
+        return marked[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int i) {
+        return indices[i];
+    }
+
+    void reset() {
+        for (int i = 0; i < size; i++) marked[indices[i]] = false;
+        size = 0;
+    }
+
+}
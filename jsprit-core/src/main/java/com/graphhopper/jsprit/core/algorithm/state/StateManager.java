@@ -31,7 +31,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
-import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
 import java.util.*;
@@ -41,10 +41,26 @@ import java.util.*;
  * <p>
  * <p>Some condition, rules or constraints are stateful. This StateManager manages these states, i.e. it offers
  * methods to add, store and retrieve states based on the problem, vehicle-routes and tour-activities.
+ * <p>
+ * <p>If the fleet is finite, each vehicle can only serve one route at a time. Route states are then memorized in arrays
+ * that are indexed by <code>route.getVehicle().getIndex()</code>. If a route switches its vehicle, its states
+ * move to the index of the new vehicle. With an infinite fleet, the same vehicle can serve many routes, thus route
+ * states are memorized in maps with the route as key.
  *
  * @author schroeder
  */
-public class StateManager implements RouteAndActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener {
+public class StateManager implements PrimitiveActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener, VehicleSwitchedListener {
+
+    /**
+     * Value that is returned by the int-typed activity state getters if no state value is associated.
+     */
+    public static final int NO_INT_STATE = Integer.MIN_VALUE;
+
+    private static final byte OBJECT_STATE = 0;
+
+    private static final byte DOUBLE_STATE = 1;
+
+    private static final byte INT_STATE = 2;
 
     private RouteActivityVisitor routeActivityVisitor = new RouteActivityVisitor();
 
@@ -78,6 +94,24 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private Object[][][] vehicleDependentActivityStates;
 
+    private int nuStates;
+
+    private byte[] stateTypes;
+
+    private double[] doubleActivityStates;
+
+    private double[] vehicleDependentDoubleActivityStates;
+
+    private int[] intActivityStates;
+
+    private int[] vehicleDependentIntActivityStates;
+
+    private DirtyIndices dirtyActivities;
+
+    private DirtyIndices dirtyVehicleDependentActivities;
+
+    private DirtyIndices dirtyRoutes;
+
     private Map<VehicleRoute, Object[]> routeStateMap;
 
     private Map<VehicleRoute, Object[][]> vehicleDependentRouteStateMap;
@@ -105,20 +139,87 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      * @throws java.lang.IllegalStateException if name of state is already used internally
      */
     public StateId createStateId(String name) {
-        if (createdStateIds.containsKey(name)) return createdStateIds.get(name);
-        if (stateIndexCounter >= activityStates[0].length) {
-            activityStates = new Object[nuActivities][stateIndexCounter + 1];
-            vehicleDependentActivityStates = new Object[nuActivities][nuVehicleTypeKeys][stateIndexCounter + 1];
-            routeStatesArr = new Object[vrp.getVehicles().size() + 2][stateIndexCounter+1];
-            vehicleDependentRouteStatesArr = new Object[vrp.getVehicles().size() + 2][nuVehicleTypeKeys][stateIndexCounter+1];
-            problemStates = new Object[stateIndexCounter+1];
+        return createStateId(name, OBJECT_STATE);
+    }
+
+    /**
+     * Creates and returns a stateId for a primitive double state, i.e. an activity state that is stored in a flat
+     * double array rather than being boxed. Such states are put and retrieved with
+     * {@link #putDoubleActivityState(TourActivity, StateId, double)} and {@link #getDoubleActivityState(TourActivity, StateId)}.
+     * They can still be retrieved with {@link #getActivityState(TourActivity, StateId, Class)} and <code>Double.class</code>.
+     * <p>
+     * <p>Note that only activity states are stored primitively. Route and problem states associated to this stateId are
+     * memorized as objects.</p>
+     *
+     * @param name the specified name of the state
+     * @return the stateId with which the double state can be identified
+     * @throws java.lang.IllegalStateException if name of state is already used internally or if a state with the same
+     *                                         name but different type has already been created
+     */
+    public StateId createDoubleStateId(String name) {
+        return createStateId(name, DOUBLE_STATE);
+    }
+
+    /**
+     * Creates and returns a stateId for a primitive int state, i.e. an activity state that is stored in a flat
+     * int array rather than being boxed. Such states are put and retrieved with
+     * {@link #putIntActivityState(TourActivity, StateId, int)} and {@link #getIntActivityState(TourActivity, StateId)}.
+     * <p>
+     * <p>Note that only activity states are stored primitively. Route and problem states associated to this stateId are
+     * memorized as objects.</p>
+     *
+     * @param name the specified name of the state
+     * @return the stateId with which the int state can be identified
+     * @throws java.lang.IllegalStateException if name of state is already used internally or if a state with the same
+     *                                         name but different type has already been created
+     */
+    public StateId createIntStateId(String name) {
+        return createStateId(name, INT_STATE);
+    }
+
+    private StateId createStateId(String name, byte stateType) {
+        if (createdStateIds.containsKey(name)) {
+            StateId id = createdStateIds.get(name);
+            if (stateTypes[id.getIndex()] != stateType)
+                throw new IllegalStateException("state-id with name '" + name + "' has already been created with a different type.");
+            return id;
+        }
+        if (stateIndexCounter >= nuStates) {
+            nuStates = stateIndexCounter + 1;
+            activityStates = new Object[nuActivities][nuStates];
+            vehicleDependentActivityStates = new Object[nuActivities][nuVehicleTypeKeys][nuStates];
+            routeStatesArr = new Object[vrp.getVehicles().size() + 2][nuStates];
+            vehicleDependentRouteStatesArr = new Object[vrp.getVehicles().size() + 2][nuVehicleTypeKeys][nuStates];
+            problemStates = new Object[nuStates];
+            stateTypes = Arrays.copyOf(stateTypes, nuStates);
+            initDoubleStates();
+            if (intActivityStates != null) initIntStates();
+            dirtyActivities.reset();
+            dirtyVehicleDependentActivities.reset();
+            if (isIndexedBased) dirtyRoutes.reset();
         }
         StateId id = StateFactory.createId(name, stateIndexCounter);
+        stateTypes[id.getIndex()] = stateType;
+        if (stateType == INT_STATE && intActivityStates == null) initIntStates();
         incStateIndexCounter();
         createdStateIds.put(name, id);
         return id;
     }
 
+    private void initDoubleStates() {
+        doubleActivityStates = new double[nuActivities * nuStates];
+        vehicleDependentDoubleActivityStates = new double[nuActivities * nuVehicleTypeKeys * nuStates];
+        Arrays.fill(doubleActivityStates, Double.NaN);
+        Arrays.fill(vehicleDependentDoubleActivityStates, Double.NaN);
+    }
+
+    private void initIntStates() {
+        intActivityStates = new int[nuActivities * nuStates];
+        vehicleDependentIntActivityStates = new int[nuActivities * nuVehicleTypeKeys * nuStates];
+        Arrays.fill(intActivityStates, NO_INT_STATE);
+        Arrays.fill(vehicleDependentIntActivityStates, NO_INT_STATE);
+    }
+
     private void incStateIndexCounter() {
         stateIndexCounter++;
     }
@@ -135,18 +236,26 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         this.vrp = vehicleRoutingProblem;
         nuActivities = Math.max(10, vrp.getNuActivities() + 1);
         nuVehicleTypeKeys = Math.max(3, getNuVehicleTypes(vrp) + 2);
-        activityStates = new Object[nuActivities][initialStateArrayLength];
-        vehicleDependentActivityStates = new Object[nuActivities][nuVehicleTypeKeys][initialStateArrayLength];
-//        if(vehicleRoutingProblem.getFleetSize().equals(VehicleRoutingProblem.FleetSize.FINITE)){
-//            isIndexedBased = true;
-//            routeStatesArr = new Object[vrp.getVehicles().size() + 2][initialStateArrayLength];
-//            vehicleDependentRouteStatesArr = new Object[vrp.getVehicles().size() + 2][nuVehicleTypeKeys][initialStateArrayLength];
-//        }
-//        else {
+        nuStates = initialStateArrayLength;
+        activityStates = new Object[nuActivities][nuStates];
+        vehicleDependentActivityStates = new Object[nuActivities][nuVehicleTypeKeys][nuStates];
+        stateTypes = new byte[nuStates];
+        stateTypes[InternalStates.COSTS.getIndex()] = DOUBLE_STATE;
+        stateTypes[InternalStates.LATEST_OPERATION_START_TIME.getIndex()] = DOUBLE_STATE;
+        stateTypes[InternalStates.FUTURE_WAITING.getIndex()] = DOUBLE_STATE;
+        initDoubleStates();
+        dirtyActivities = new DirtyIndices(nuActivities);
+        dirtyVehicleDependentActivities = new DirtyIndices(nuActivities * nuVehicleTypeKeys);
+        if (vrp.getFleetSize() == VehicleRoutingProblem.FleetSize.FINITE) {
+            isIndexedBased = true;
+            routeStatesArr = new Object[vrp.getVehicles().size() + 2][nuStates];
+            vehicleDependentRouteStatesArr = new Object[vrp.getVehicles().size() + 2][nuVehicleTypeKeys][nuStates];
+            dirtyRoutes = new DirtyIndices(vrp.getVehicles().size() + 2);
+        } else {
             isIndexedBased = false;
             routeStateMap = new HashMap<VehicleRoute, Object[]>();
             vehicleDependentRouteStateMap = new HashMap<VehicleRoute, Object[][]>();
-//        }
+        }
         problemStates = new Object[initialStateArrayLength];
     }
 
@@ -187,13 +296,36 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     /**
      * Clears all states, i.e. set all value to null.
+     * <p>
+     * <p>Only activities and routes that have been written since the last clear are reset, thus clearing is
+     * proportional to what has changed rather than to the size of the problem.
      */
     public void clear() {
-        fill_twoDimArr(activityStates, null);
-        fill_threeDimArr(vehicleDependentActivityStates, null);
+        for (int i = 0; i < dirtyActivities.size(); i++) {
+            int actIndex = dirtyActivities.get(i);
+            Arrays.fill(activityStates[actIndex], null);
+            Arrays.fill(doubleActivityStates, actIndex * nuStates, (actIndex + 1) * nuStates, Double.NaN);
+            if (intActivityStates != null) {
+                Arrays.fill(intActivityStates, actIndex * nuStates, (actIndex + 1) * nuStates, NO_INT_STATE);
+            }
+        }
+        dirtyActivities.reset();
+        for (int i = 0; i < dirtyVehicleDependentActivities.size(); i++) {
+            int rowIndex = dirtyVehicleDependentActivities.get(i);
+            Arrays.fill(vehicleDependentActivityStates[rowIndex / nuVehicleTypeKeys][rowIndex % nuVehicleTypeKeys], null);
+            Arrays.fill(vehicleDependentDoubleActivityStates, rowIndex * nuStates, (rowIndex + 1) * nuStates, Double.NaN);
+            if (intActivityStates != null) {
+                Arrays.fill(vehicleDependentIntActivityStates, rowIndex * nuStates, (rowIndex + 1) * nuStates, NO_INT_STATE);
+            }
+        }
+        dirtyVehicleDependentActivities.reset();
         if(isIndexedBased) {
-            fill_twoDimArr(routeStatesArr, null);
-            fill_threeDimArr(vehicleDependentRouteStatesArr, null);
+            for (int i = 0; i < dirtyRoutes.size(); i++) {
+                int vehicleIndex = dirtyRoutes.get(i);
+                Arrays.fill(routeStatesArr[vehicleIndex], null);
+                for (Object[] states : vehicleDependentRouteStatesArr[vehicleIndex]) Arrays.fill(states, null);
+            }
+            dirtyRoutes.reset();
         }
         else{
             routeStateMap.clear();
@@ -202,18 +334,12 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         Arrays.fill(problemStates,null);
     }
 
-    private void fill_threeDimArr(Object[][][] states, Object o) {
-        for (Object[][] twoDimArr : states) {
-            for (Object[] oneDimArr : twoDimArr) {
-                Arrays.fill(oneDimArr, o);
-            }
-        }
+    private void markDirty(TourActivity act) {
+        dirtyActivities.mark(act.getIndex());
     }
 
-    private void fill_twoDimArr(Object[][] states, Object o) {
-        for (Object[] rows : states) {
-            Arrays.fill(rows, o);
-        }
+    private void markDirty(TourActivity act, Vehicle vehicle) {
+        dirtyVehicleDependentActivities.mark(act.getIndex() * nuVehicleTypeKeys + vehicle.getVehicleTypeIdentifier().getIndex());
     }
 
     /**
@@ -232,15 +358,105 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (act.getIndex() < 0) return null;
+        Object stateValue;
+        if (stateTypes[stateId.getIndex()] == DOUBLE_STATE) {
+            stateValue = box(doubleActivityStates[index(act, stateId)]);
+        } else if (stateTypes[stateId.getIndex()] == INT_STATE) {
+            stateValue = box(intActivityStates[index(act, stateId)]);
+        } else stateValue = activityStates[act.getIndex()][stateId.getIndex()];
         T state;
         try {
-            state = type.cast(activityStates[act.getIndex()][stateId.getIndex()]);
+            state = type.cast(stateValue);
         } catch (ClassCastException e) {
-            throw getClassCastException(e, stateId, type.toString(), activityStates[act.getIndex()][stateId.getIndex()].getClass().toString());
+            throw getClassCastException(e, stateId, type.toString(), stateValue.getClass().toString());
         }
         return state;
     }
 
+    /**
+     * Returns the double state value that is associated to the specified activity and stateId, or <code>Double.NaN</code>
+     * if no value is associated.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the stateId that has been created with {@link #createDoubleStateId(String)}
+     * @return the state value or <code>Double.NaN</code> if no value is associated
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public double getDoubleActivityState(TourActivity act, StateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return Double.NaN;
+        return doubleActivityStates[index(act, stateId)];
+    }
+
+    /**
+     * Returns the double state value that is associated to the specified activity, vehicle and stateId, or
+     * <code>Double.NaN</code> if no value is associated.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the stateId that has been created with {@link #createDoubleStateId(String)}
+     * @return the state value or <code>Double.NaN</code> if no value is associated
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public double getDoubleActivityState(TourActivity act, Vehicle vehicle, StateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return Double.NaN;
+        return vehicleDependentDoubleActivityStates[index(act, vehicle, stateId)];
+    }
+
+    /**
+     * Returns the int state value that is associated to the specified activity and stateId, or {@link #NO_INT_STATE}
+     * if no value is associated.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the stateId that has been created with {@link #createIntStateId(String)}
+     * @return the state value or {@link #NO_INT_STATE} if no value is associated
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public int getIntActivityState(TourActivity act, StateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0 || intActivityStates == null) return NO_INT_STATE;
+        return intActivityStates[index(act, stateId)];
+    }
+
+    /**
+     * Returns the int state value that is associated to the specified activity, vehicle and stateId, or
+     * {@link #NO_INT_STATE} if no value is associated.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the stateId that has been created with {@link #createIntStateId(String)}
+     * @return the state value or {@link #NO_INT_STATE} if no value is associated
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public int getIntActivityState(TourActivity act, Vehicle vehicle, StateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0 || intActivityStates == null) return NO_INT_STATE;
+        return vehicleDependentIntActivityStates[index(act, vehicle, stateId)];
+    }
+
+    private int index(TourActivity act, StateId stateId) {
+        return act.getIndex() * nuStates + stateId.getIndex();
+    }
+
+    private int index(TourActivity act, Vehicle vehicle, StateId stateId) {
+        return (act.getIndex() * nuVehicleTypeKeys + vehicle.getVehicleTypeIdentifier().getIndex()) * nuStates + stateId.getIndex();
+    }
+
+    private static Object box(double state) {
+        if (Double.isNaN(state)) return null;
+        return state;
+    }
+
+    private static Object box(int state) {
+        if (state == NO_INT_STATE) return null;
+        return state;
+    }
+
     /**
      * Returns true if a state value is associated to the specified activity, vehicle and stateId.
      *
@@ -252,6 +468,12 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     public boolean hasActivityState(TourActivity act, Vehicle vehicle, StateId stateId) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (stateTypes[stateId.getIndex()] == DOUBLE_STATE) {
+            return !Double.isNaN(vehicleDependentDoubleActivityStates[index(act, vehicle, stateId)]);
+        }
+        if (stateTypes[stateId.getIndex()] == INT_STATE) {
+            return vehicleDependentIntActivityStates[index(act, vehicle, stateId)] != NO_INT_STATE;
+        }
         return vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
     }
 
@@ -273,12 +495,18 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public <T> T getActivityState(TourActivity act, Vehicle vehicle, StateId stateId, Class<T> type) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (act.getIndex() < 0) return null; //act.getIndex() < 0 indicates that act is either Start (-1) or End (-2)
+        Object stateValue;
+        if (stateTypes[stateId.getIndex()] == DOUBLE_STATE) {
+            stateValue = box(vehicleDependentDoubleActivityStates[index(act, vehicle, stateId)]);
+        } else if (stateTypes[stateId.getIndex()] == INT_STATE) {
+            stateValue = box(vehicleDependentIntActivityStates[index(act, vehicle, stateId)]);
+        } else
+            stateValue = vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()];
         T state;
         try {
-            state = type.cast(vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
+            state = type.cast(stateValue);
         } catch (ClassCastException e) {
-            Object state_class = vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()];
-            throw getClassCastException(e, stateId, type.toString(), state_class.getClass().toString());
+            throw getClassCastException(e, stateId, type.toString(), stateValue.getClass().toString());
         }
         return state;
     }
@@ -311,12 +539,13 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             }
         }
         else {
-            try {
-                if (routeStateMap.containsKey(route)) {
-                    state = type.cast(routeStateMap.get(route)[stateId.getIndex()]);
+            Object[] states = routeStateMap.get(route);
+            if (states != null) {
+                try {
+                    state = type.cast(states[stateId.getIndex()]);
+                } catch (ClassCastException e) {
+                    throw getClassCastException(e, stateId, type.toString(), states[stateId.getIndex()].getClass().toString());
                 }
-            } catch (ClassCastException e) {
-                throw getClassCastException(e, stateId, type.toString(), routeStateMap.get(route)[stateId.getIndex()].getClass().toString());
             }
         }
         return state;
@@ -332,9 +561,12 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     @SuppressWarnings("UnusedDeclaration")
     public boolean hasRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId) {
-        if (!vehicleDependentRouteStateMap.containsKey(route)) return false;
-        return vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
-//        return vehicle_dependent_route_states[route.getActivities().get(0).getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
+        if (isIndexedBased) {
+            return vehicleDependentRouteStatesArr[route.getVehicle().getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
+        }
+        Object[][] states = vehicleDependentRouteStateMap.get(route);
+        if (states == null) return false;
+        return states[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
     }
 
     /**
@@ -361,12 +593,13 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             }
         }
         else {
-            try {
-                if (vehicleDependentRouteStateMap.containsKey(route)) {
-                    state = type.cast(vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
+            Object[][] states = vehicleDependentRouteStateMap.get(route);
+            if (states != null) {
+                try {
+                    state = type.cast(states[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
+                } catch (ClassCastException e) {
+                    throw getClassCastException(e, stateId, type.toString(), states[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()].getClass().toString());
                 }
-            } catch (ClassCastException e) {
-                throw getClassCastException(e, stateId, type.toString(), vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()].getClass().toString());
             }
         }
         return state;
@@ -418,11 +651,106 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     }
 
     <T> void putInternalTypedActivityState(TourActivity act, StateId stateId, T state) {
-        activityStates[act.getIndex()][stateId.getIndex()] = state;
+        if (stateTypes[stateId.getIndex()] == DOUBLE_STATE) {
+            putInternalDoubleActivityState(act, stateId, state == null ? Double.NaN : (Double) state);
+        } else if (stateTypes[stateId.getIndex()] == INT_STATE) {
+            putInternalIntActivityState(act, stateId, state == null ? NO_INT_STATE : (Integer) state);
+        } else {
+            markDirty(act);
+            activityStates[act.getIndex()][stateId.getIndex()] = state;
+        }
     }
 
     <T> void putInternalTypedActivityState(TourActivity act, Vehicle vehicle, StateId stateId, T state) {
-        vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+        if (stateTypes[stateId.getIndex()] == DOUBLE_STATE) {
+            putInternalDoubleActivityState(act, vehicle, stateId, state == null ? Double.NaN : (Double) state);
+        } else if (stateTypes[stateId.getIndex()] == INT_STATE) {
+            putInternalIntActivityState(act, vehicle, stateId, state == null ? NO_INT_STATE : (Integer) state);
+        } else {
+            markDirty(act, vehicle);
+            vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+        }
+    }
+
+    /**
+     * Associates the specified activity and double stateId to the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the stateId that has been created with {@link #createDoubleStateId(String)}
+     * @param state   the state value
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code> || stateId is not a double stateId
+     */
+    public void putDoubleActivityState(TourActivity act, StateId stateId, double state) {
+        checkTypedActivityState(act, stateId, DOUBLE_STATE);
+        putInternalDoubleActivityState(act, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity, vehicle and double stateId to the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the stateId that has been created with {@link #createDoubleStateId(String)}
+     * @param state   the state value
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code> || stateId is not a double stateId
+     */
+    public void putDoubleActivityState(TourActivity act, Vehicle vehicle, StateId stateId, double state) {
+        checkTypedActivityState(act, stateId, DOUBLE_STATE);
+        putInternalDoubleActivityState(act, vehicle, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity and int stateId to the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the stateId that has been created with {@link #createIntStateId(String)}
+     * @param state   the state value
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code> || stateId is not an int stateId
+     */
+    public void putIntActivityState(TourActivity act, StateId stateId, int state) {
+        checkTypedActivityState(act, stateId, INT_STATE);
+        putInternalIntActivityState(act, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity, vehicle and int stateId to the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the stateId that has been created with {@link #createIntStateId(String)}
+     * @param state   the state value
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code> || stateId is not an int stateId
+     */
+    public void putIntActivityState(TourActivity act, Vehicle vehicle, StateId stateId, int state) {
+        checkTypedActivityState(act, stateId, INT_STATE);
+        putInternalIntActivityState(act, vehicle, stateId, state);
+    }
+
+    private void checkTypedActivityState(TourActivity act, StateId stateId, byte stateType) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (stateId.getIndex() < initialNoStates) StateFactory.throwReservedIdException(stateId.toString());
+        if (stateTypes[stateId.getIndex()] != stateType)
+            throw new IllegalStateException("state-id with name '" + stateId.toString() + "' has not been created as " + (stateType == DOUBLE_STATE ? "double" : "int") + " state.");
+    }
+
+    void putInternalDoubleActivityState(TourActivity act, StateId stateId, double state) {
+        markDirty(act);
+        doubleActivityStates[index(act, stateId)] = state;
+    }
+
+    void putInternalDoubleActivityState(TourActivity act, Vehicle vehicle, StateId stateId, double state) {
+        markDirty(act, vehicle);
+        vehicleDependentDoubleActivityStates[index(act, vehicle, stateId)] = state;
+    }
+
+    void putInternalIntActivityState(TourActivity act, StateId stateId, int state) {
+        markDirty(act);
+        intActivityStates[index(act, stateId)] = state;
+    }
+
+    void putInternalIntActivityState(TourActivity act, Vehicle vehicle, StateId stateId, int state) {
+        markDirty(act, vehicle);
+        vehicleDependentIntActivityStates[index(act, vehicle, stateId)] = state;
     }
 
     /**
@@ -460,26 +788,32 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     <T> void putTypedInternalRouteState(VehicleRoute route, StateId stateId, T state) {
         if (route.isEmpty()) return;
         if(isIndexedBased){
+            dirtyRoutes.mark(route.getVehicle().getIndex());
             routeStatesArr[route.getVehicle().getIndex()][stateId.getIndex()] = state;
         }
         else {
-            if (!routeStateMap.containsKey(route)) {
-                routeStateMap.put(route, new Object[stateIndexCounter]);
+            Object[] states = routeStateMap.get(route);
+            if (states == null) {
+                states = new Object[stateIndexCounter];
+                routeStateMap.put(route, states);
             }
-            routeStateMap.get(route)[stateId.getIndex()] = state;
+            states[stateId.getIndex()] = state;
         }
     }
 
     <T> void putTypedInternalRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, T state) {
         if (route.isEmpty()) return;
         if(isIndexedBased){
+            dirtyRoutes.mark(route.getVehicle().getIndex());
             vehicleDependentRouteStatesArr[route.getVehicle().getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
         }
         else {
-            if (!vehicleDependentRouteStateMap.containsKey(route)) {
-                vehicleDependentRouteStateMap.put(route, new Object[nuVehicleTypeKeys][stateIndexCounter]);
+            Object[][] states = vehicleDependentRouteStateMap.get(route);
+            if (states == null) {
+                states = new Object[nuVehicleTypeKeys][stateIndexCounter];
+                vehicleDependentRouteStateMap.put(route, states);
             }
-            vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+            states[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
         }
 
     }
@@ -601,6 +935,27 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         ruinListeners.removed(job, fromRoute);
     }
 
+    /**
+     * If route states are indexed by vehicle, the states of the route move from the old to the new vehicle index
+     * and the states at the old vehicle index are cleared.
+     */
+    @Override
+    public void vehicleSwitched(VehicleRoute vehicleRoute, Vehicle oldVehicle, Vehicle newVehicle) {
+        if (!isIndexedBased) return;
+        int oldIndex = oldVehicle.getIndex();
+        int newIndex = newVehicle.getIndex();
+        if (oldIndex == newIndex) return;
+        Object[] routeStates = routeStatesArr[newIndex];
+        routeStatesArr[newIndex] = routeStatesArr[oldIndex];
+        Arrays.fill(routeStates, null);
+        routeStatesArr[oldIndex] = routeStates;
+        Object[][] vehicleDependentRouteStates = vehicleDependentRouteStatesArr[newIndex];
+        vehicleDependentRouteStatesArr[newIndex] = vehicleDependentRouteStatesArr[oldIndex];
+        for (Object[] states : vehicleDependentRouteStates) Arrays.fill(states, null);
+        vehicleDependentRouteStatesArr[oldIndex] = vehicleDependentRouteStates;
+        if (dirtyRoutes.isMarked(oldIndex)) dirtyRoutes.mark(newIndex);
+    }
+
     @Override
     public void informInsertionEnds(Collection<VehicleRoute> vehicleRoutes) {
         insertionListeners.informInsertionEndsListeners(vehicleRoutes);
@@ -48,7 +48,7 @@ public class UpdateSkills implements StateUpdater, ActivityVisitor {
     public void visit(TourActivity activity) {
         if (activity instanceof TourActivity.JobActivity) {
             Skills skills = ((TourActivity.JobActivity) activity).getJob().getRequiredSkills();
-            skillBuilder.addAllSkills(skills.values());
+            skillBuilder.addAllSkills(skills);
         }
     }
 
@@ -93,7 +93,7 @@ public class UpdateVariableCosts implements ActivityVisitor, StateUpdater {
         totalOperationCost += transportCost;
         totalOperationCost += actCost;
 
-        states.putInternalTypedActivityState(act, InternalStates.COSTS, totalOperationCost);
+        states.putInternalDoubleActivityState(act, InternalStates.COSTS, totalOperationCost);
 
         prevAct = act;
         startTimeAtPrevAct = timeTracker.getActEndTime();
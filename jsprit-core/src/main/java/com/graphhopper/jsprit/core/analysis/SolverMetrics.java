@@ -0,0 +1,439 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.analysis;
+
+import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
+import com.graphhopper.jsprit.core.algorithm.SearchStrategyModule;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleRunListener;
+import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionEndsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
+import com.graphhopper.jsprit.core.problem.constraint.HardConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.HardConstraintListener;
+import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in metrics that show where solve time goes.
+ * <p>Register it at the algorithm, i.e. <code>vra.addListener(metrics)</code>, to record the number of iterations,
+ * the acceptance rate and the wall time of each search strategy. The latter is split into time spent to ruin and to
+ * recreate solutions, where recreating includes updating states. It also records the wall time of each
+ * {@link SearchStrategyModule} of a strategy. Register it at the constraint manager, i.e.
+ * <code>constraintManager.addListener(metrics)</code>, to count insertion calculations and the rejections of each hard
+ * constraint. {@link com.graphhopper.jsprit.core.algorithm.box.Jsprit.Builder#setSolverMetrics(SolverMetrics)} does
+ * both. Nothing is recorded (and nothing costs) if it is not registered.
+ * <p>Metrics can be recorded concurrently, e.g. by concurrent insertion or by islands, and read with
+ * {@link #getSnapshot()} at any time.
+ */
+public class SolverMetrics implements IterationStartsListener, StrategySelectedListener, SearchStrategyModuleRunListener, RuinListener,
+    InsertionStartsListener, InsertionEndsListener, HardConstraintListener {
+
+    /**
+     * Metrics of a search strategy.
+     */
+    public static class StrategyMetrics {
+
+        private final String strategyId;
+
+        private long noIterations;
+
+        private long noAcceptedSolutions;
+
+        private long time;
+
+        private long ruinTime;
+
+        private long recreateTime;
+
+        StrategyMetrics(String strategyId) {
+            this.strategyId = strategyId;
+        }
+
+        StrategyMetrics(StrategyMetrics metrics) {
+            this.strategyId = metrics.strategyId;
+            this.noIterations = metrics.noIterations;
+            this.noAcceptedSolutions = metrics.noAcceptedSolutions;
+            this.time = metrics.time;
+            this.ruinTime = metrics.ruinTime;
+            this.recreateTime = metrics.recreateTime;
+        }
+
+        public String getStrategyId() {
+            return strategyId;
+        }
+
+        public long getNoIterations() {
+            return noIterations;
+        }
+
+        public long getNoAcceptedSolutions() {
+            return noAcceptedSolutions;
+        }
+
+        public double getAcceptanceRate() {
+            if (noIterations == 0) return 0.;
+            return (double) noAcceptedSolutions / (double) noIterations;
+        }
+
+        /**
+         * @return wall time in milliseconds spent in this strategy
+         */
+        public double getTime() {
+            return time / 1e6;
+        }
+
+        /**
+         * @return wall time in milliseconds spent to ruin solutions
+         */
+        public double getRuinTime() {
+            return ruinTime / 1e6;
+        }
+
+        /**
+         * @return wall time in milliseconds spent to recreate solutions (including state updates)
+         */
+        public double getRecreateTime() {
+            return recreateTime / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "[strategy=" + strategyId + "][iterations=" + noIterations + "][acceptanceRate=" + getAcceptanceRate()
+                + "][time=" + getTime() + "][ruinTime=" + getRuinTime() + "][recreateTime=" + getRecreateTime() + "]";
+        }
+    }
+
+    /**
+     * Metrics of a module of a search strategy.
+     */
+    public static class ModuleMetrics {
+
+        private final String strategyId;
+
+        private final String moduleName;
+
+        private long noRuns;
+
+        private long time;
+
+        ModuleMetrics(String strategyId, String moduleName) {
+            this.strategyId = strategyId;
+            this.moduleName = moduleName;
+        }
+
+        ModuleMetrics(ModuleMetrics metrics) {
+            this.strategyId = metrics.strategyId;
+            this.moduleName = metrics.moduleName;
+            this.noRuns = metrics.noRuns;
+            this.time = metrics.time;
+        }
+
+        public String getStrategyId() {
+            return strategyId;
+        }
+
+        public String getModuleName() {
+            return moduleName;
+        }
+
+        public long getNoRuns() {
+            return noRuns;
+        }
+
+        /**
+         * @return wall time in milliseconds spent in this module
+         */
+        public double getTime() {
+            return time / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "[strategy=" + strategyId + "][module=" + moduleName + "][runs=" + noRuns + "][time=" + getTime() + "]";
+        }
+    }
+
+    /**
+     * Immutable copy of the metrics recorded so far.
+     */
+    public static class Snapshot {
+
+        private final List<StrategyMetrics> strategyMetrics;
+
+        private final List<ModuleMetrics> moduleMetrics;
+
+        private final long noInsertionCalculations;
+
+        private final Map<String, Long> constraintRejections;
+
+        Snapshot(List<StrategyMetrics> strategyMetrics, List<ModuleMetrics> moduleMetrics, long noInsertionCalculations, Map<String, Long> constraintRejections) {
+            this.strategyMetrics = Collections.unmodifiableList(strategyMetrics);
+            this.moduleMetrics = Collections.unmodifiableList(moduleMetrics);
+            this.noInsertionCalculations = noInsertionCalculations;
+            this.constraintRejections = Collections.unmodifiableMap(constraintRejections);
+        }
+
+        public List<StrategyMetrics> getStrategyMetrics() {
+            return strategyMetrics;
+        }
+
+        public List<ModuleMetrics> getModuleMetrics() {
+            return moduleMetrics;
+        }
+
+        /**
+         * @return no. of evaluations of inserting a job into a route (with a particular vehicle)
+         */
+        public long getNoInsertionCalculations() {
+            return noInsertionCalculations;
+        }
+
+        /**
+         * @return no. of rejections per hard constraint, where constraints are identified by their class name
+         */
+        public Map<String, Long> getConstraintRejections() {
+            return constraintRejections;
+        }
+
+        /**
+         * Returns the metrics as csv with the columns type, name, metric and value, e.g. strategy,radial_best,iterations,42.
+         *
+         * @return metrics in csv format
+         */
+        public String toCsv() {
+            StringBuilder csv = new StringBuilder();
+            csv.append("type,name,metric,value\n");
+            for (StrategyMetrics m : strategyMetrics) {
+                appendCsv(csv, "strategy", m.getStrategyId(), "iterations", m.getNoIterations());
+                appendCsv(csv, "strategy", m.getStrategyId(), "accepted", m.getNoAcceptedSolutions());
+                appendCsv(csv, "strategy", m.getStrategyId(), "acceptance_rate", m.getAcceptanceRate());
+                appendCsv(csv, "strategy", m.getStrategyId(), "time_ms", m.getTime());
+                appendCsv(csv, "strategy", m.getStrategyId(), "ruin_time_ms", m.getRuinTime());
+                appendCsv(csv, "strategy", m.getStrategyId(), "recreate_time_ms", m.getRecreateTime());
+            }
+            for (ModuleMetrics m : moduleMetrics) {
+                appendCsv(csv, "module", m.getStrategyId() + "/" + m.getModuleName(), "runs", m.getNoRuns());
+                appendCsv(csv, "module", m.getStrategyId() + "/" + m.getModuleName(), "time_ms", m.getTime());
+            }
+            appendCsv(csv, "insertion", "calculator", "calls", noInsertionCalculations);
+            for (Map.Entry<String, Long> e : constraintRejections.entrySet()) {
+                appendCsv(csv, "constraint", e.getKey(), "rejections", e.getValue());
+            }
+            return csv.toString();
+        }
+
+        private static void appendCsv(StringBuilder csv, String type, String name, String metric, Object value) {
+            csv.append(type).append(",").append(name).append(",").append(metric).append(",").append(value).append("\n");
+        }
+
+        @Override
+        public String toString() {
+            return "[strategies=" + strategyMetrics + "][modules=" + moduleMetrics + "][insertionCalculations=" + noInsertionCalculations + "][constraintRejections=" + constraintRejections + "]";
+        }
+    }
+
+    /*
+     * times of the iteration that is currently run by a thread
+     */
+    private static class IterationTimes {
+
+        long start;
+
+        long moduleStart;
+
+        long ruinStart;
+
+        long ruinTime;
+
+        long recreateStart;
+
+        long recreateTime;
+
+    }
+
+    private final ThreadLocal<IterationTimes> iterationTimes = new ThreadLocal<IterationTimes>() {
+
+        @Override
+        protected IterationTimes initialValue() {
+            return new IterationTimes();
+        }
+
+    };
+
+    private final Map<String, StrategyMetrics> strategyMetrics = new LinkedHashMap<String, StrategyMetrics>();
+
+    private final Map<String, ModuleMetrics> moduleMetrics = new LinkedHashMap<String, ModuleMetrics>();
+
+    private final AtomicLong noInsertionCalculations = new AtomicLong();
+
+    private final ConcurrentHashMap<HardConstraint, AtomicLong> constraintRejections = new ConcurrentHashMap<HardConstraint, AtomicLong>();
+
+    @Override
+    public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        IterationTimes times = iterationTimes.get();
+        times.start = System.nanoTime();
+        times.ruinTime = 0;
+        times.recreateTime = 0;
+    }
+
+    @Override
+    public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+        IterationTimes times = iterationTimes.get();
+        long time = System.nanoTime() - times.start;
+        synchronized (strategyMetrics) {
+            StrategyMetrics metrics = strategyMetrics.get(discoveredSolution.getStrategyId());
+            if (metrics == null) {
+                metrics = new StrategyMetrics(discoveredSolution.getStrategyId());
+                strategyMetrics.put(discoveredSolution.getStrategyId(), metrics);
+            }
+            metrics.noIterations++;
+            if (discoveredSolution.isAccepted()) metrics.noAcceptedSolutions++;
+            metrics.time += time;
+            metrics.ruinTime += times.ruinTime;
+            metrics.recreateTime += times.recreateTime;
+        }
+    }
+
+    @Override
+    public void informModuleStarts(SearchStrategy strategy, SearchStrategyModule module, VehicleRoutingProblemSolution solution) {
+        iterationTimes.get().moduleStart = System.nanoTime();
+    }
+
+    @Override
+    public void informModuleEnds(SearchStrategy strategy, SearchStrategyModule module, VehicleRoutingProblemSolution solution) {
+        long time = System.nanoTime() - iterationTimes.get().moduleStart;
+        String key = strategy.getId() + "/" + module.getName();
+        synchronized (moduleMetrics) {
+            ModuleMetrics metrics = moduleMetrics.get(key);
+            if (metrics == null) {
+                metrics = new ModuleMetrics(strategy.getId(), module.getName());
+                moduleMetrics.put(key, metrics);
+            }
+            metrics.noRuns++;
+            metrics.time += time;
+        }
+    }
+
+    @Override
+    public void ruinStarts(Collection<VehicleRoute> routes) {
+        iterationTimes.get().ruinStart = System.nanoTime();
+    }
+
+    @Override
+    public void ruinEnds(Collection<VehicleRoute> routes, Collection<Job> unassignedJobs) {
+        IterationTimes times = iterationTimes.get();
+        times.ruinTime += System.nanoTime() - times.ruinStart;
+    }
+
+    @Override
+    public void removed(Job job, VehicleRoute fromRoute) {
+
+    }
+
+    @Override
+    public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        iterationTimes.get().recreateStart = System.nanoTime();
+    }
+
+    @Override
+    public void informInsertionEnds(Collection<VehicleRoute> vehicleRoutes) {
+        IterationTimes times = iterationTimes.get();
+        times.recreateTime += System.nanoTime() - times.recreateStart;
+    }
+
+    @Override
+    public void informRouteConstraintsChecked(JobInsertionContext insertionContext) {
+        noInsertionCalculations.incrementAndGet();
+    }
+
+    @Override
+    public void informNotFulfilled(HardRouteConstraint constraint, JobInsertionContext insertionContext) {
+        countRejection(constraint);
+    }
+
+    @Override
+    public void informNotFulfilled(HardActivityConstraint constraint, ConstraintsStatus status, JobInsertionContext insertionContext) {
+        countRejection(constraint);
+    }
+
+    private void countRejection(HardConstraint constraint) {
+        AtomicLong counter = constraintRejections.get(constraint);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = constraintRejections.putIfAbsent(constraint, newCounter);
+            if (counter == null) counter = newCounter;
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Returns a copy of the metrics recorded so far.
+     *
+     * @return snapshot of metrics
+     */
+    public Snapshot getSnapshot() {
+        List<StrategyMetrics> strategies = new ArrayList<StrategyMetrics>();
+        synchronized (strategyMetrics) {
+            for (StrategyMetrics metrics : strategyMetrics.values()) strategies.add(new StrategyMetrics(metrics));
+        }
+        List<ModuleMetrics> modules = new ArrayList<ModuleMetrics>();
+        synchronized (moduleMetrics) {
+            for (ModuleMetrics metrics : moduleMetrics.values()) modules.add(new ModuleMetrics(metrics));
+        }
+        Map<String, Long> rejections = new TreeMap<String, Long>();
+        for (Map.Entry<HardConstraint, AtomicLong> e : constraintRejections.entrySet()) {
+            String name = getName(e.getKey());
+            Long noRejections = rejections.get(name);
+            rejections.put(name, (noRejections == null ? 0 : noRejections) + e.getValue().get());
+        }
+        return new Snapshot(strategies, modules, noInsertionCalculations.get(), rejections);
+    }
+
+    /**
+     * Removes all metrics recorded so far.
+     */
+    public void reset() {
+        synchronized (strategyMetrics) {
+            strategyMetrics.clear();
+        }
+        synchronized (moduleMetrics) {
+            moduleMetrics.clear();
+        }
+        noInsertionCalculations.set(0);
+        constraintRejections.clear();
+    }
+
+    private static String getName(HardConstraint constraint) {
+        String name = constraint.getClass().getSimpleName();
+        if (name.isEmpty()) return constraint.getClass().getName();
+        return name;
+    }
+
+}
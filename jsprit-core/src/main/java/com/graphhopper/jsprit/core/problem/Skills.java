@@ -18,16 +18,31 @@
 
 package com.graphhopper.jsprit.core.problem;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Skill container managing skills
+ * <p>When a {@link VehicleRoutingProblem} is built, the skills of its jobs and vehicles are interned to indices such
+ * that they can be compared as bitsets with {@link #containsAll(Skills)}.
  */
 public class Skills {
 
+    /**
+     * Skills as bitset, where bit i is set if this container has the skill with index i in the dictionary.
+     */
+    private static final class Bits {
+
+        private final Map<String, Integer> dictionary;
+
+        private final long[] words;
+
+        private Bits(Map<String, Integer> dictionary, long[] words) {
+            this.dictionary = dictionary;
+            this.words = words;
+        }
+
+    }
+
     public static class Builder {
 
         /**
@@ -41,6 +56,12 @@ public class Skills {
 
         private Set<String> skills = new HashSet<String>();
 
+        private Map<String, Integer> dictionary;
+
+        private long[] words = new long[0];
+
+        private boolean indexed = true;
+
         /**
          * Adds skill. Skill is transformed into lowerCase.
          *
@@ -49,6 +70,28 @@ public class Skills {
          */
         public Builder addSkill(String skill) {
             skills.add(skill.trim().toLowerCase());
+            indexed = false;
+            return this;
+        }
+
+        /**
+         * Adds all skills of a skill container. If all containers added are interned by the same problem, the skills
+         * built are interned as well.
+         *
+         * @param skills skill container whose skills are to be added
+         * @return builder
+         */
+        public Builder addAllSkills(Skills skills) {
+            if (skills.skills.isEmpty()) return this;
+            this.skills.addAll(skills.skills);
+            Bits bits = skills.bits;
+            if (bits == null || (dictionary != null && dictionary != bits.dictionary)) {
+                indexed = false;
+            } else if (indexed) {
+                dictionary = bits.dictionary;
+                if (bits.words.length > words.length) words = Arrays.copyOf(words, bits.words.length);
+                for (int i = 0; i < bits.words.length; i++) words[i] |= bits.words[i];
+            }
             return this;
         }
 
@@ -76,8 +119,31 @@ public class Skills {
 
     private Set<String> skills = new HashSet<String>();
 
+    private Bits bits;
+
     private Skills(Builder builder) {
         skills.addAll(builder.skills);
+        if (builder.indexed && builder.dictionary != null) {
+            bits = new Bits(builder.dictionary, builder.words.clone());
+        }
+    }
+
+    /**
+     * Interns skills to the indices of the specified dictionary. If a skill is not part of the dictionary, skills
+     * remain unindexed.
+     *
+     * @param dictionary indices of skills
+     */
+    void index(Map<String, Integer> dictionary) {
+        long[] words = new long[0];
+        for (String skill : skills) {
+            Integer index = dictionary.get(skill);
+            if (index == null) return;
+            int word = index >>> 6;
+            if (word >= words.length) words = Arrays.copyOf(words, word + 1);
+            words[word] |= 1L << index;
+        }
+        bits = new Bits(dictionary, words);
     }
 
     /**
@@ -112,6 +178,27 @@ public class Skills {
         return skills.contains(skill.toLowerCase());
     }
 
+    /**
+     * Returns true if this container contains all skills of the specified container. If both are interned by the same
+     * problem, this is a bitwise comparison.
+     *
+     * @param skills skills which are checked whether they are in this container or not
+     * @return true if all skills are included, false otherwise
+     */
+    public boolean containsAll(Skills skills) {
+        if (skills.skills.isEmpty()) return true;
+        Bits bits = this.bits;
+        Bits otherBits = skills.bits;
+        if (bits != null && otherBits != null && bits.dictionary == otherBits.dictionary) {
+            for (int i = 0; i < otherBits.words.length; i++) {
+                long word = i < bits.words.length ? bits.words[i] : 0L;
+                if ((otherBits.words[i] & ~word) != 0) return false;
+            }
+            return true;
+        }
+        return this.skills.containsAll(skills.skills);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
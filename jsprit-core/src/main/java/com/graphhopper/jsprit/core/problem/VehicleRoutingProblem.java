@@ -441,9 +441,32 @@ public class VehicleRoutingProblem {
             boolean hasBreaks = addBreaksToActivityMap();
             if (hasBreaks && fleetSize.equals(FleetSize.INFINITE))
                 throw new UnsupportedOperationException("breaks are not yet supported when dealing with infinite fleet. either set it to finite or omit breaks.");
+            indexSkills();
             return new VehicleRoutingProblem(this);
         }
 
+        private void indexSkills() {
+            List<Skills> skillsToIndex = new ArrayList<Skills>();
+            for (Job job : tentativeJobs.values()) skillsToIndex.add(job.getRequiredSkills());
+            for (VehicleRoute route : initialRoutes) {
+                for (Job job : route.getTourActivities().getJobs()) skillsToIndex.add(job.getRequiredSkills());
+            }
+            for (Vehicle vehicle : uniqueVehicles) {
+                skillsToIndex.add(vehicle.getSkills());
+                if (vehicle.getBreak() != null) skillsToIndex.add(vehicle.getBreak().getRequiredSkills());
+            }
+            Map<String, Integer> skillIndices = new HashMap<String, Integer>();
+            for (Skills skills : skillsToIndex) {
+                if (skills == null) continue;
+                for (String skill : skills.values()) {
+                    if (!skillIndices.containsKey(skill)) skillIndices.put(skill, skillIndices.size());
+                }
+            }
+            for (Skills skills : skillsToIndex) {
+                if (skills != null) skills.index(skillIndices);
+            }
+        }
+
         @SuppressWarnings("UnusedDeclaration")
         public Builder addLocation(String locationId, Coordinate coordinate) {
             tentative_coordinates.put(locationId, coordinate);
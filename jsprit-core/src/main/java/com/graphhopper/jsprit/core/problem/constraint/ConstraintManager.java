@@ -163,6 +163,17 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
         softRouteConstraintManager.addConstraint(softRouteConstraint);
     }
 
+    /**
+     * Adds a listener that is informed about checks of hard route and activity constraints. Without listeners,
+     * constraints are checked without any overhead.
+     *
+     * @param listener the listener to be informed
+     */
+    public void addListener(HardConstraintListener listener) {
+        actLevelConstraintManager.addListener(listener);
+        routeLevelConstraintManager.addListener(listener);
+    }
+
     @Override
     public boolean fulfilled(JobInsertionContext insertionContext) {
         return routeLevelConstraintManager.fulfilled(insertionContext);
@@ -34,6 +34,8 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
 
     private Collection<HardActivityConstraint> lowPrioConstraints = new ArrayList<HardActivityConstraint>();
 
+    private List<HardConstraintListener> listeners = new ArrayList<HardConstraintListener>();
+
     public void addConstraint(HardActivityConstraint constraint, ConstraintManager.Priority priority) {
         if (priority.equals(ConstraintManager.Priority.CRITICAL)) {
             criticalConstraints.add(constraint);
@@ -44,6 +46,10 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
         }
     }
 
+    void addListener(HardConstraintListener listener) {
+        listeners.add(listener);
+    }
+
     Collection<HardActivityConstraint> getCriticalConstraints() {
         return Collections.unmodifiableCollection(criticalConstraints);
     }
@@ -69,6 +75,7 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
         ConstraintsStatus notFulfilled = null;
         for (HardActivityConstraint c : criticalConstraints) {
             ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            if (!listeners.isEmpty()) informListeners(c, status, iFacts);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
                 return status;
             } else {
@@ -81,6 +88,7 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
 
         for (HardActivityConstraint c : highPrioConstraints) {
             ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            if (!listeners.isEmpty()) informListeners(c, status, iFacts);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
                 return status;
             } else {
@@ -93,6 +101,7 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
 
         for (HardActivityConstraint constraint : lowPrioConstraints) {
             ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            if (!listeners.isEmpty()) informListeners(constraint, status, iFacts);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK) || status.equals(ConstraintsStatus.NOT_FULFILLED)) {
                 return status;
             }
@@ -101,4 +110,9 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
         return ConstraintsStatus.FULFILLED;
     }
 
+    private void informListeners(HardActivityConstraint constraint, ConstraintsStatus status, JobInsertionContext iFacts) {
+        if (status == ConstraintsStatus.FULFILLED) return;
+        for (HardConstraintListener listener : listeners) listener.informNotFulfilled(constraint, status, iFacts);
+    }
+
 }
@@ -0,0 +1,55 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+
+/**
+ * Listener that is informed about checks of hard constraints registered at a {@link ConstraintManager}.
+ * <p>Since constraints are checked concurrently if jobs are inserted concurrently, implementations need to be
+ * thread-safe.
+ */
+public interface HardConstraintListener {
+
+    /**
+     * Informs that hard route constraints are checked. Insertion calculators check them once per evaluation of
+     * inserting a job into a route (with a particular vehicle).
+     *
+     * @param insertionContext the insertion context
+     */
+    public void informRouteConstraintsChecked(JobInsertionContext insertionContext);
+
+    /**
+     * Informs that a hard route constraint is not fulfilled.
+     *
+     * @param constraint       the constraint not fulfilled
+     * @param insertionContext the insertion context
+     */
+    public void informNotFulfilled(HardRouteConstraint constraint, JobInsertionContext insertionContext);
+
+    /**
+     * Informs that a hard activity constraint is not fulfilled.
+     *
+     * @param constraint       the constraint not fulfilled
+     * @param status           either NOT_FULFILLED or NOT_FULFILLED_BREAK
+     * @param insertionContext the insertion context
+     */
+    public void informNotFulfilled(HardActivityConstraint constraint, ConstraintsStatus status, JobInsertionContext insertionContext);
+
+}
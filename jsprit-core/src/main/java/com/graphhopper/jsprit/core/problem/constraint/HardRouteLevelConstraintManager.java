@@ -22,24 +22,37 @@ import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 
 class HardRouteLevelConstraintManager implements HardRouteConstraint {
 
     private Collection<HardRouteConstraint> hardConstraints = new ArrayList<HardRouteConstraint>();
 
+    private List<HardConstraintListener> listeners = new ArrayList<HardConstraintListener>();
+
     public void addConstraint(HardRouteConstraint constraint) {
         hardConstraints.add(constraint);
     }
 
+    void addListener(HardConstraintListener listener) {
+        listeners.add(listener);
+    }
+
     Collection<HardRouteConstraint> getConstraints() {
         return Collections.unmodifiableCollection(hardConstraints);
     }
 
     @Override
     public boolean fulfilled(JobInsertionContext insertionContext) {
+        if (!listeners.isEmpty()) {
+            for (HardConstraintListener listener : listeners) listener.informRouteConstraintsChecked(insertionContext);
+        }
         for (HardRouteConstraint constraint : hardConstraints) {
             if (!constraint.fulfilled(insertionContext)) {
+                if (!listeners.isEmpty()) {
+                    for (HardConstraintListener listener : listeners) listener.informNotFulfilled(constraint, insertionContext);
+                }
                 return false;
             }
         }
@@ -25,7 +25,9 @@ import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
 
 /**
@@ -35,6 +37,8 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
 
     private RouteAndActivityStateGetter states;
 
+    private PrimitiveActivityStateGetter primitiveStates;
+
     private VehicleRoutingTransportCosts routingCosts;
 
     private VehicleRoutingActivityCosts activityCosts;
@@ -42,6 +46,7 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
     public VehicleDependentTimeWindowConstraints(RouteAndActivityStateGetter states, VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts activityCosts) {
         super();
         this.states = states;
+        if (states instanceof PrimitiveActivityStateGetter) primitiveStates = (PrimitiveActivityStateGetter) states;
         this.routingCosts = routingCosts;
         this.activityCosts = activityCosts;
     }
@@ -49,7 +54,7 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
     @Override
     public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
         double latestVehicleArrival = iFacts.getNewVehicle().getLatestArrival();
-        Double latestArrTimeAtNextAct;
+        double latestArrTimeAtNextAct;
         Location nextActLocation;
         if (nextAct instanceof End) {
             latestArrTimeAtNextAct = latestVehicleArrival;
@@ -58,8 +63,8 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
                 nextActLocation = newAct.getLocation();
             }
         } else {
-            latestArrTimeAtNextAct = states.getActivityState(nextAct, iFacts.getNewVehicle(), InternalStates.LATEST_OPERATION_START_TIME, Double.class);
-            if (latestArrTimeAtNextAct == null) {//otherwise set it to theoretical_latest_operation_startTime
+            latestArrTimeAtNextAct = getLatestOperationStartTime(nextAct, iFacts.getNewVehicle());
+            if (Double.isNaN(latestArrTimeAtNextAct)) {//otherwise set it to theoretical_latest_operation_startTime
                 latestArrTimeAtNextAct = nextAct.getTheoreticalLatestOperationStartTime();
             }
             nextActLocation = nextAct.getLocation();
@@ -145,5 +150,17 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
         }
         return ConstraintsStatus.FULFILLED;
     }
-}
 
+    /*
+     * returns NaN if no state is associated
+     */
+    private double getLatestOperationStartTime(TourActivity act, Vehicle vehicle) {
+        if (primitiveStates != null) {
+            return primitiveStates.getDoubleActivityState(act, vehicle, InternalStates.LATEST_OPERATION_START_TIME);
+        }
+        Double latestOperationStartTime = states.getActivityState(act, vehicle, InternalStates.LATEST_OPERATION_START_TIME, Double.class);
+        if (latestOperationStartTime == null) return Double.NaN;
+        return latestOperationStartTime;
+    }
+
+}
@@ -38,7 +38,19 @@ public class VehicleRoutingProblemSolution {
      * @return solution
      */
     public static VehicleRoutingProblemSolution copyOf(VehicleRoutingProblemSolution solution2copy) {
-        return new VehicleRoutingProblemSolution(solution2copy);
+        return new VehicleRoutingProblemSolution(solution2copy, false);
+    }
+
+    /**
+     * Makes a copy of the solution to be copied whose routes share activities with the routes of the original solution
+     * until either of them is modified (see {@link VehicleRoute#copyOnWriteOf(VehicleRoute)}). It is meant to be used
+     * by search strategies only; the copy and the original must not be used by different threads.
+     *
+     * @param solution2copy solution to be copied
+     * @return solution
+     */
+    public static VehicleRoutingProblemSolution copyOnWriteOf(VehicleRoutingProblemSolution solution2copy) {
+        return new VehicleRoutingProblemSolution(solution2copy, true);
     }
 
     private final Collection<VehicleRoute> routes;
@@ -47,10 +59,10 @@ public class VehicleRoutingProblemSolution {
 
     private double cost;
 
-    private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution) {
+    private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution, boolean copyOnWrite) {
         routes = new ArrayList<VehicleRoute>();
         for (VehicleRoute r : solution.getRoutes()) {
-            VehicleRoute route = VehicleRoute.copyOf(r);
+            VehicleRoute route = copyOnWrite ? VehicleRoute.copyOnWriteOf(r) : VehicleRoute.copyOf(r);
             routes.add(route);
         }
         this.cost = solution.getCost();
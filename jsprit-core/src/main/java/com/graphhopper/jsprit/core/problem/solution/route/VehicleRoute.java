@@ -44,7 +44,21 @@ public class VehicleRoute {
      */
     public static VehicleRoute copyOf(VehicleRoute route) {
         if (route == null) throw new IllegalArgumentException("route must not be null");
-        return new VehicleRoute(route);
+        return new VehicleRoute(route, false);
+    }
+
+    /**
+     * Returns a copy of this vehicleRoute whose activities are copied lazily, i.e. not before activities are added to or
+     * removed from either this route or its copy (see {@link TourActivities#copyOnWriteOf(TourActivities)}). It is
+     * meant to be used by search strategies only.
+     *
+     * @param route route to copy
+     * @return copied route
+     * @throws IllegalArgumentException if route is null
+     */
+    public static VehicleRoute copyOnWriteOf(VehicleRoute route) {
+        if (route == null) throw new IllegalArgumentException("route must not be null");
+        return new VehicleRoute(route, true);
     }
 
     /**
@@ -322,10 +336,11 @@ public class VehicleRoute {
      *
      * @param route to copy
      */
-    private VehicleRoute(VehicleRoute route) {
+    private VehicleRoute(VehicleRoute route, boolean copyOnWrite) {
         this.start = Start.copyOf(route.getStart());
         this.end = End.copyOf(route.getEnd());
-        this.tourActivities = TourActivities.copyOf(route.getTourActivities());
+        if (copyOnWrite) this.tourActivities = TourActivities.copyOnWriteOf(route.getTourActivities());
+        else this.tourActivities = TourActivities.copyOf(route.getTourActivities());
         this.vehicle = route.getVehicle();
         this.driver = route.getDriver();
     }
@@ -18,6 +18,8 @@
 package com.graphhopper.jsprit.core.problem.solution.route.activity;
 
 import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity.JobActivity;
 
 import java.util.*;
@@ -29,8 +31,30 @@ import java.util.*;
 
 public class TourActivities {
 
+    /**
+     * Returns a deep copy of the specified tour activities, i.e. each activity is duplicated.
+     *
+     * @param tourActivities tour activities to be copied
+     * @return copy of tour activities
+     */
     public static TourActivities copyOf(TourActivities tourActivities) {
-        return new TourActivities(tourActivities);
+        return new TourActivities(tourActivities, false);
+    }
+
+    /**
+     * Returns a copy of the specified tour activities that is made lazily (copy-on-write).
+     * <p>Copy and original share the list of activities until one of them is modified by adding or removing
+     * activities. Only then activities are duplicated, i.e. copying a solution only costs time and memory for routes
+     * that are actually changed afterwards. It is meant to be used by search strategies only: shared activities must
+     * not be modified other than by updating their times (which are the same for both tours as long as they share
+     * activities), the specified tour is marked as shared as well, and neither tour must be used by another thread.
+     * Use {@link #copyOf(TourActivities)} otherwise.
+     *
+     * @param tourActivities tour activities to be copied
+     * @return copy of tour activities sharing activities with the specified tour
+     */
+    public static TourActivities copyOnWriteOf(TourActivities tourActivities) {
+        return new TourActivities(tourActivities, true);
     }
 
     public static class ReverseActivityIterator implements Iterator<TourActivity> {
@@ -67,17 +91,63 @@ public class TourActivities {
         }
     }
 
-    private final ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
+    private ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
 
-    private final Set<Job> jobs = new HashSet<Job>();
+    private Set<Job> jobs = new HashSet<Job>();
 
     private ReverseActivityIterator backward;
 
-    private TourActivities(TourActivities tour2copy) {
-        for (TourActivity tourAct : tour2copy.getActivities()) {
-            TourActivity newAct = tourAct.duplicate();
-            this.tourActivities.add(newAct);
-            addJob(newAct);
+    /*
+     * true if activities (and jobs) might be shared with other tour activities
+     */
+    private boolean shared = false;
+
+    /*
+     * removed activities are set to null and removed from the list not before it is accessed the next time
+     */
+    private int noRemovedActivities = 0;
+
+    /*
+     * position of the first activity of each job. it is built lazily and it remains valid as long as activities are
+     * only removed (without compacting the list).
+     */
+    private Map<Job, Integer> firstPositions;
+
+    /*
+     * unmodifiable view of the activities. it compacts activities before each access, thus removed activities are
+     * never visible (not even to callers that keep the view while jobs are removed)
+     */
+    private final List<TourActivity> activitiesView = new AbstractList<TourActivity>() {
+
+        @Override
+        public TourActivity get(int index) {
+            compact();
+            return tourActivities.get(index);
+        }
+
+        @Override
+        public int size() {
+            compact();
+            return tourActivities.size();
+        }
+
+    };
+
+    private TourActivities(TourActivities tour2copy, boolean copyOnWrite) {
+        if (copyOnWrite) {
+            tour2copy.compact();
+            tourActivities = tour2copy.tourActivities;
+            jobs = tour2copy.jobs;
+            if (!tourActivities.isEmpty()) {
+                tour2copy.shared = true;
+                shared = true;
+            }
+        } else {
+            for (TourActivity tourAct : tour2copy.getActivities()) {
+                TourActivity newAct = tourAct.duplicate();
+                this.tourActivities.add(newAct);
+                addJob(newAct);
+            }
         }
     }
 
@@ -85,16 +155,76 @@ public class TourActivities {
 
     }
 
+    private void copyIfShared() {
+        if (!shared) return;
+        ArrayList<TourActivity> acts = new ArrayList<TourActivity>(tourActivities.size() + 2);
+        Set<Job> jobsOfActs = new HashSet<Job>(jobs.size() * 2);
+        for (TourActivity tourAct : tourActivities) {
+            TourActivity newAct = tourAct.duplicate();
+            acts.add(newAct);
+            if (newAct instanceof JobActivity) jobsOfActs.add(((JobActivity) newAct).getJob());
+        }
+        tourActivities = acts;
+        jobs = jobsOfActs;
+        backward = null;
+        firstPositions = null;
+        shared = false;
+    }
+
+    private void compact() {
+        if (noRemovedActivities == 0) return;
+        int size = 0;
+        for (int i = 0; i < tourActivities.size(); i++) {
+            TourActivity act = tourActivities.get(i);
+            if (act != null) {
+                if (i != size) tourActivities.set(size, act);
+                size++;
+            }
+        }
+        tourActivities.subList(size, tourActivities.size()).clear();
+        noRemovedActivities = 0;
+        firstPositions = null;
+    }
+
+    private int getFirstPosition(Job job) {
+        if (firstPositions == null) {
+            firstPositions = new HashMap<Job, Integer>(jobs.size() * 2);
+            for (int i = tourActivities.size() - 1; i >= 0; i--) {
+                TourActivity act = tourActivities.get(i);
+                if (act instanceof JobActivity) firstPositions.put(((JobActivity) act).getJob(), i);
+            }
+        }
+        Integer position = firstPositions.get(job);
+        if (position == null) return -1;
+        return position;
+    }
+
+    private void removeActivityAt(int position) {
+        tourActivities.set(position, null);
+        noRemovedActivities++;
+    }
+
+    /**
+     * Returns an unmodifiable view of the activities. The view reflects subsequent changes of this tour.
+     *
+     * @return activities
+     */
     public List<TourActivity> getActivities() {
-        return Collections.unmodifiableList(tourActivities);
+        return activitiesView;
     }
 
+    /**
+     * Returns an iterator over the activities. It does not support removal, use {@link #removeActivity(TourActivity)}
+     * or {@link #removeJob(Job)} instead.
+     *
+     * @return iterator over activities
+     */
     public Iterator<TourActivity> iterator() {
-        return tourActivities.iterator();
+        return activitiesView.iterator();
     }
 
     public boolean isEmpty() {
-        return (tourActivities.size() == 0);
+        return (tourActivities.size() - noRemovedActivities == 0);
     }
 
     public Collection<Job> getJobs() {
@@ -111,41 +241,73 @@ public class TourActivities {
 
     @Override
     public String toString() {
-        return "[nuOfActivities=" + tourActivities.size() + "]";
+        return "[nuOfActivities=" + (tourActivities.size() - noRemovedActivities) + "]";
     }
 
     /**
      * Removes job AND belonging activity from tour. Note that if job is a Service, it is assumed that there is only one belonging activity,
      * thus, it stops trying to remove activities once the first is found.
-     * If you want to always look for belonging activities to be removed in the entire route, use removeJob(Job job, boolean enforceEntireRoute)
+     * <p>The position of the job's (first) activity is looked up in an index, and removed activities are discarded
+     * lazily, i.e. removing a number of jobs from a tour only costs a single pass over its activities.
      *
      * @param job to be removed
      * @return true if job has been removed, otherwise false.
      */
     public boolean removeJob(Job job) {
-        boolean jobRemoved = false;
         if (!jobs.contains(job)) {
             return false;
-        } else {
-            jobRemoved = jobs.remove(job);
-        }
-        boolean activityRemoved = false;
-        Iterator<TourActivity> iterator = tourActivities.iterator();
-        while (iterator.hasNext()) {
-            TourActivity c = iterator.next();
-            if (c instanceof JobActivity) {
-                Job underlyingJob = ((JobActivity) c).getJob();
-                if (job.equals(underlyingJob)) {
-                    iterator.remove();
-                    activityRemoved = true;
+        }
+        copyIfShared();
+        jobs.remove(job);
+        int position = getFirstPosition(job);
+        assert position >= 0 : "job removed, but belonging activity not.";
+        if (position < 0) return false;
+        removeActivityAt(position);
+        firstPositions.remove(job);
+        if (!(job instanceof Service)) {
+            for (int i = position + 1; i < tourActivities.size(); i++) {
+                TourActivity act = tourActivities.get(i);
+                if (act instanceof JobActivity && job.equals(((JobActivity) act).getJob())) {
+                    removeActivityAt(i);
+                    //a shipment has a pickup and a delivery
+                    if (job instanceof Shipment) break;
                 }
             }
         }
-        assert jobRemoved == activityRemoved : "job removed, but belonging activity not.";
-        return activityRemoved;
+        return true;
     }
 
-
+    /**
+     * Removes the specified jobs AND their belonging activities from tour. Other than removing them one by one,
+     * this compacts the activities in a single pass.
+     *
+     * @param jobsToRemove jobs to be removed
+     * @return true if at least one job has been removed, otherwise false.
+     */
+    public boolean removeJobs(Collection<Job> jobsToRemove) {
+        boolean servesAnyJob = false;
+        for (Job job : jobsToRemove) {
+            if (jobs.contains(job)) {
+                servesAnyJob = true;
+                break;
+            }
+        }
+        if (!servesAnyJob) return false;
+        copyIfShared();
+        compact();
+        Set<Job> toRemove = jobsToRemove instanceof Set ? (Set<Job>) jobsToRemove : new HashSet<Job>(jobsToRemove);
+        int size = 0;
+        for (int i = 0; i < tourActivities.size(); i++) {
+            TourActivity act = tourActivities.get(i);
+            if (act instanceof JobActivity && toRemove.contains(((JobActivity) act).getJob())) continue;
+            if (i != size) tourActivities.set(size, act);
+            size++;
+        }
+        tourActivities.subList(size, tourActivities.size()).clear();
+        jobs.removeAll(toRemove);
+        firstPositions = null;
+        return true;
+    }
 
     /**
      * Removes activity from this activity sequence. Removes its corresponding job as well, if there are no other activities
@@ -155,29 +317,30 @@ public class TourActivities {
      * @return true if activity has been removed, false otherwise
      */
     public boolean removeActivity(TourActivity activity) {
-        Job job = null;
+        compact();
+        int actIndex = -1;
+        for (int i = 0; i < tourActivities.size(); i++) {
+            if (tourActivities.get(i) == activity) {
+                actIndex = i;
+                break;
+            }
+        }
+        if (actIndex < 0) return false;
+        copyIfShared();
+        tourActivities.remove(actIndex);
+        firstPositions = null;
         if (activity instanceof JobActivity) {
-            job = ((JobActivity) activity).getJob();
-        }
-        boolean jobIsAlsoAssociateToOtherActs = false;
-        boolean actRemoved = false;
-        List<TourActivity> acts = new ArrayList<TourActivity>(tourActivities);
-        for (TourActivity act : acts) {
-            if (act == activity) {
-                tourActivities.remove(act);
-                actRemoved = true;
-            } else {
-                if (act instanceof JobActivity && job != null) {
-                    if (((JobActivity) act).getJob().equals(job)) {
-                        jobIsAlsoAssociateToOtherActs = true;
-                    }
+            Job job = ((JobActivity) activity).getJob();
+            boolean jobIsAlsoAssociateToOtherActs = false;
+            for (TourActivity act : tourActivities) {
+                if (act instanceof JobActivity && ((JobActivity) act).getJob().equals(job)) {
+                    jobIsAlsoAssociateToOtherActs = true;
+                    break;
                 }
             }
+            if (!jobIsAlsoAssociateToOtherActs) jobs.remove(job);
         }
-        if (!jobIsAlsoAssociateToOtherActs && actRemoved) {
-            jobs.remove(job);
-        }
-        return actRemoved;
+        return true;
     }
 
 
@@ -202,11 +365,14 @@ public class TourActivities {
 		 * ...
 		 *
 		 */
+        copyIfShared();
+        compact();
         if (insertionIndex < tourActivities.size()) {
             tourActivities.add(insertionIndex, act);
         } else if (insertionIndex >= tourActivities.size()) {
             tourActivities.add(act);
         }
+        firstPositions = null;
         addJob(act);
     }
 
@@ -218,9 +384,12 @@ public class TourActivities {
      * @throws IllegalArgumentException if activity-list already contains act.
      */
     public void addActivity(TourActivity act) {
+        compact();
         if (tourActivities.contains(act))
             throw new IllegalArgumentException("act " + act + " already in tour. cannot add act twice.");
+        copyIfShared();
         tourActivities.add(act);
+        firstPositions = null;
         addJob(act);
     }
 
@@ -242,6 +411,7 @@ public class TourActivities {
     }
 
     public Iterator<TourActivity> reverseActivityIterator() {
+        compact();
         if (backward == null) backward = new ReverseActivityIterator(tourActivities);
         else backward.reset();
         return backward;
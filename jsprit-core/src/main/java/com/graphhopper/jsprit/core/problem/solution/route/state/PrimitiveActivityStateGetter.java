@@ -0,0 +1,37 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.solution.route.state;
+
+import com.graphhopper.jsprit.core.algorithm.state.StateId;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * State getter that additionally returns double and int activity states as primitives, i.e. without boxing them.
+ */
+public interface PrimitiveActivityStateGetter extends RouteAndActivityStateGetter {
+
+    public double getDoubleActivityState(TourActivity act, StateId stateId);
+
+    public double getDoubleActivityState(TourActivity act, Vehicle vehicle, StateId stateId);
+
+    public int getIntActivityState(TourActivity act, StateId stateId);
+
+    public int getIntActivityState(TourActivity act, Vehicle vehicle, StateId stateId);
+
+}
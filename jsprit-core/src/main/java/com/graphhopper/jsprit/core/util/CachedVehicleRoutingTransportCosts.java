@@ -0,0 +1,296 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeKey;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decorator that memorizes transport costs and times of another {@link VehicleRoutingTransportCosts}. Use it
+ * to wrap cost functions that are expensive to evaluate such as {@link GreatCircleCosts}.
+ * <p>Values are cached per (from, to, vehicle type) relation, i.e. the decorated costs must neither depend
+ * on departure time nor on driver. Locations are identified by their index. If a location has no index,
+ * its id is mapped to an internal index.
+ * <p>The cache has a fixed capacity and is divided into stripes, each being an open-addressing table guarded by its
+ * own lock. Thus it can be shared by concurrent insertion strategies. A relation is looked up at up
+ * to {@link #MAX_PROBES} consecutive slots. If none of them is free, the relation replaces the entry at its first slot.
+ */
+public class CachedVehicleRoutingTransportCosts implements VehicleRoutingTransportCosts {
+
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+
+    public static final int MAX_PROBES = 4;
+
+    private static final int NO_OF_STRIPES = 64;
+
+    private static final long EMPTY = -1L;
+
+    private static final int LOCATION_BITS = 24;
+
+    private static final int MAX_LOCATION_INDEX = (1 << LOCATION_BITS) - 1;
+
+    private static final int MAX_TYPE_INDEX = (1 << (64 - 2 * LOCATION_BITS)) - 2;
+
+    private static final int COST = 0;
+
+    private static final int TIME = 1;
+
+    private static final int BACKWARD_COST = 2;
+
+    private static final int BACKWARD_TIME = 3;
+
+    private static final int NO_OF_VALUES = 4;
+
+    private static class Stripe {
+
+        final long[] keys;
+
+        final double[] values;
+
+        long hits;
+
+        long misses;
+
+        Stripe(int capacity) {
+            keys = new long[capacity];
+            values = new double[capacity * NO_OF_VALUES];
+            clear();
+        }
+
+        void clear() {
+            Arrays.fill(keys, EMPTY);
+            Arrays.fill(values, Double.NaN);
+        }
+
+        int find(long key, int home) {
+            int mask = keys.length - 1;
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (home + i) & mask;
+                if (keys[slot] == key) return slot;
+                if (keys[slot] == EMPTY) return -1;
+            }
+            return -1;
+        }
+
+        int findOrReplace(long key, int home) {
+            int mask = keys.length - 1;
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (home + i) & mask;
+                if (keys[slot] == key) return slot;
+                if (keys[slot] == EMPTY) {
+                    keys[slot] = key;
+                    return slot;
+                }
+            }
+            keys[home] = key;
+            Arrays.fill(values, home * NO_OF_VALUES, (home + 1) * NO_OF_VALUES, Double.NaN);
+            return home;
+        }
+
+    }
+
+    private final VehicleRoutingTransportCosts transportCosts;
+
+    private final Stripe[] stripes;
+
+    private final int stripeShift;
+
+    private final int slotMask;
+
+    private final ConcurrentHashMap<String, Integer> locationIds = new ConcurrentHashMap<String, Integer>();
+
+    private final AtomicInteger locationIdCounter = new AtomicInteger();
+
+    public CachedVehicleRoutingTransportCosts(VehicleRoutingTransportCosts transportCosts) {
+        this(transportCosts, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param transportCosts the transport costs to be cached
+     * @param capacity       max. number of cached relations, rounded up to the next power of two
+     */
+    public CachedVehicleRoutingTransportCosts(VehicleRoutingTransportCosts transportCosts, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        if (capacity > 1 << 30) throw new IllegalArgumentException("capacity must not exceed " + (1 << 30));
+        this.transportCosts = transportCosts;
+        int minStripeCapacity = Math.max(MAX_PROBES, (capacity - 1) / NO_OF_STRIPES + 1);
+        int stripeCapacity = Integer.highestOneBit(minStripeCapacity - 1) << 1;
+        stripes = new Stripe[NO_OF_STRIPES];
+        for (int i = 0; i < NO_OF_STRIPES; i++) stripes[i] = new Stripe(stripeCapacity);
+        stripeShift = Integer.numberOfTrailingZeros(NO_OF_STRIPES);
+        slotMask = stripeCapacity - 1;
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        long key = key(from, to, vehicle);
+        if (key == EMPTY) return transportCosts.getTransportTime(from, to, departureTime, driver, vehicle);
+        double time = lookup(key, TIME);
+        if (Double.isNaN(time)) {
+            time = transportCosts.getTransportTime(from, to, departureTime, driver, vehicle);
+            store(key, TIME, time);
+        }
+        return time;
+    }
+
+    @Override
+    public double getBackwardTransportTime(Location from, Location to, double arrivalTime, Driver driver, Vehicle vehicle) {
+        long key = key(from, to, vehicle);
+        if (key == EMPTY) return transportCosts.getBackwardTransportTime(from, to, arrivalTime, driver, vehicle);
+        double time = lookup(key, BACKWARD_TIME);
+        if (Double.isNaN(time)) {
+            time = transportCosts.getBackwardTransportTime(from, to, arrivalTime, driver, vehicle);
+            store(key, BACKWARD_TIME, time);
+        }
+        return time;
+    }
+
+    @Override
+    public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        long key = key(from, to, vehicle);
+        if (key == EMPTY) return transportCosts.getTransportCost(from, to, departureTime, driver, vehicle);
+        double cost = lookup(key, COST);
+        if (Double.isNaN(cost)) {
+            cost = transportCosts.getTransportCost(from, to, departureTime, driver, vehicle);
+            store(key, COST, cost);
+        }
+        return cost;
+    }
+
+    @Override
+    public double getBackwardTransportCost(Location from, Location to, double arrivalTime, Driver driver, Vehicle vehicle) {
+        long key = key(from, to, vehicle);
+        if (key == EMPTY) return transportCosts.getBackwardTransportCost(from, to, arrivalTime, driver, vehicle);
+        double cost = lookup(key, BACKWARD_COST);
+        if (Double.isNaN(cost)) {
+            cost = transportCosts.getBackwardTransportCost(from, to, arrivalTime, driver, vehicle);
+            store(key, BACKWARD_COST, cost);
+        }
+        return cost;
+    }
+
+    /**
+     * Returns the number of lookups that could be answered from the cache.
+     *
+     * @return no. of cache hits
+     */
+    public long getHits() {
+        long hits = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                hits += stripe.hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to be delegated to the underlying transport costs.
+     *
+     * @return no. of cache misses
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                misses += stripe.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Removes all cached values and resets hit and miss counters.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+                stripe.hits = 0;
+                stripe.misses = 0;
+            }
+        }
+    }
+
+    private double lookup(long key, int value) {
+        int hash = hash(key);
+        Stripe stripe = stripes[hash & (NO_OF_STRIPES - 1)];
+        synchronized (stripe) {
+            int slot = stripe.find(key, (hash >>> stripeShift) & slotMask);
+            double v = slot < 0 ? Double.NaN : stripe.values[slot * NO_OF_VALUES + value];
+            if (Double.isNaN(v)) stripe.misses++;
+            else stripe.hits++;
+            return v;
+        }
+    }
+
+    private void store(long key, int value, double v) {
+        int hash = hash(key);
+        Stripe stripe = stripes[hash & (NO_OF_STRIPES - 1)];
+        synchronized (stripe) {
+            int slot = stripe.findOrReplace(key, (hash >>> stripeShift) & slotMask);
+            stripe.values[slot * NO_OF_VALUES + value] = v;
+        }
+    }
+
+    private long key(Location from, Location to, Vehicle vehicle) {
+        int typeIndex = 0;
+        if (vehicle != null) {
+            VehicleTypeKey typeKey = vehicle.getVehicleTypeIdentifier();
+            //vehicle is not part of a problem, thus its type cannot be identified
+            if (typeKey == null || typeKey.getIndex() <= 0 || typeKey.getIndex() > MAX_TYPE_INDEX) return EMPTY;
+            typeIndex = typeKey.getIndex();
+        }
+        int fromIndex = locationIndex(from);
+        int toIndex = locationIndex(to);
+        if (fromIndex < 0 || toIndex < 0) return EMPTY;
+        return ((long) typeIndex << (2 * LOCATION_BITS)) | ((long) fromIndex << LOCATION_BITS) | toIndex;
+    }
+
+    private int locationIndex(Location location) {
+        int index = location.getIndex();
+        if (index != Location.NO_INDEX) {
+            //indices of the upper half are reserved for locations without index
+            if (index > MAX_LOCATION_INDEX >> 1) return -1;
+            return index;
+        }
+        Integer idIndex = locationIds.get(location.getId());
+        if (idIndex == null) {
+            Integer newIndex = locationIdCounter.getAndIncrement();
+            idIndex = locationIds.putIfAbsent(location.getId(), newIndex);
+            if (idIndex == null) idIndex = newIndex;
+        }
+        if (idIndex > MAX_LOCATION_INDEX >> 1) return -1;
+        return (MAX_LOCATION_INDEX >> 1) + 1 + idIndex;
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+}
@@ -29,6 +29,9 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
  * CostMatrix that allows pre-compiled time and distance-matrices to be considered as {@link com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts}
  * in the {@link com.graphhopper.jsprit.core.problem.VehicleRoutingProblem}.
  * <p>Note that you can also use it with distance matrix only (or time matrix).
+ * <p>Distances and times are stored in two contiguous one-dimensional arrays. If the matrix is symmetric, only the upper
+ * triangle (including the diagonal) is stored. Values can optionally be stored with float precision which halves
+ * memory consumption.
  *
  * @author schroeder
  */
@@ -41,9 +44,19 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
      */
     public static class Builder {
 
-        private boolean isSymmetric;
+        private final int noLocations;
 
-        private double[][][] matrix;
+        private final boolean isSymmetric;
+
+        private final boolean floatPrecision;
+
+        private double[] distances;
+
+        private double[] times;
+
+        private float[] floatDistances;
+
+        private float[] floatTimes;
 
         /**
          * Creates a new builder returning the matrix-builder.
@@ -53,12 +66,36 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
          * @return builder
          */
         public static Builder newInstance(int noLocations, boolean isSymmetric) {
-            return new Builder(noLocations, isSymmetric);
+            return new Builder(noLocations, isSymmetric, false);
         }
 
-        private Builder(int noLocations, boolean isSymmetric) {
+        /**
+         * Creates a new builder returning the matrix-builder.
+         * <p>If you want to consider symmetric matrices, set isSymmetric to true. If floatPrecision is true,
+         * distances and times are stored as floats.
+         *
+         * @param isSymmetric    true if matrix is symmetric, false otherwise
+         * @param floatPrecision true if values should be stored with float precision, false otherwise
+         * @return builder
+         */
+        public static Builder newInstance(int noLocations, boolean isSymmetric, boolean floatPrecision) {
+            return new Builder(noLocations, isSymmetric, floatPrecision);
+        }
+
+        private Builder(int noLocations, boolean isSymmetric, boolean floatPrecision) {
+            this.noLocations = noLocations;
             this.isSymmetric = isSymmetric;
-            matrix = new double[noLocations][noLocations][2];
+            this.floatPrecision = floatPrecision;
+            long size = isSymmetric ? (long) noLocations * (noLocations + 1) / 2 : (long) noLocations * noLocations;
+            if (size > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("matrix with " + noLocations + " locations is too large to be stored in an array");
+            if (floatPrecision) {
+                floatDistances = new float[(int) size];
+                floatTimes = new float[(int) size];
+            } else {
+                distances = new double[(int) size];
+                times = new double[(int) size];
+            }
         }
 
         /**
@@ -70,17 +107,12 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
          * @return builder
          */
         public Builder addTransportDistance(int fromIndex, int toIndex, double distance) {
-            add(fromIndex, toIndex, 0, distance);
+            int index = index(noLocations, isSymmetric, fromIndex, toIndex);
+            if (floatPrecision) floatDistances[index] = (float) distance;
+            else distances[index] = distance;
             return this;
         }
 
-        private void add(int fromIndex, int toIndex, int indicatorIndex, double distance) {
-            if (isSymmetric) {
-                if (fromIndex < toIndex) matrix[fromIndex][toIndex][indicatorIndex] = distance;
-                else matrix[toIndex][fromIndex][indicatorIndex] = distance;
-            } else matrix[fromIndex][toIndex][indicatorIndex] = distance;
-        }
-
         /**
          * Adds transport-time for a particular relation.
          *
@@ -90,7 +122,9 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
          * @return builder
          */
         public Builder addTransportTime(int fromIndex, int toIndex, double time) {
-            add(fromIndex, toIndex, 1, time);
+            int index = index(noLocations, isSymmetric, fromIndex, toIndex);
+            if (floatPrecision) floatTimes[index] = (float) time;
+            else times[index] = time;
             return this;
         }
 
@@ -106,41 +140,102 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
 
     }
 
+    private static int index(int noLocations, boolean isSymmetric, int from, int to) {
+        //otherwise an invalid index would silently address another relation
+        if (from < 0 || from >= noLocations || to < 0 || to >= noLocations)
+            throw new IllegalArgumentException("index of from " + from + " or to " + to + " is not within [0," + noLocations + ")");
+        if (isSymmetric) {
+            if (from > to) {
+                int tmp = from;
+                from = to;
+                to = tmp;
+            }
+            //offset of row 'from' in the packed upper triangle
+            return (int) ((long) from * (2L * noLocations - from - 1) / 2) + to;
+        }
+        return from * noLocations + to;
+    }
+
+    private final int noLocations;
+
     private final boolean isSymmetric;
 
-    private final double[][][] matrix;
+    private final boolean floatPrecision;
+
+    private final double[] distances;
+
+    private final double[] times;
+
+    private final float[] floatDistances;
+
+    private final float[] floatTimes;
 
     private FastVehicleRoutingTransportCostsMatrix(Builder builder) {
+        this.noLocations = builder.noLocations;
         this.isSymmetric = builder.isSymmetric;
-        matrix = builder.matrix;
+        this.floatPrecision = builder.floatPrecision;
+        this.distances = builder.distances;
+        this.times = builder.times;
+        this.floatDistances = builder.floatDistances;
+        this.floatTimes = builder.floatTimes;
     }
 
     /**
      * First dim is from, second to and third indicates whether it is a distance value (index=0) or time value (index=1).
+     * <p>Note that the matrix is not stored like this anymore. Thus this creates a new three-dimensional copy of it.
      *
-     * @return
+     * @return a copy of the matrix
+     * @deprecated use {@link #getDistance(int, int)} and {@link #getTransportTime(int, int)} instead
      */
+    @Deprecated
     public double[][][] getMatrix() {
+        double[][][] matrix = new double[noLocations][noLocations][2];
+        for (int from = 0; from < noLocations; from++) {
+            for (int to = 0; to < noLocations; to++) {
+                if (isSymmetric && from > to) continue;
+                matrix[from][to][0] = getDistance(from, to);
+                matrix[from][to][1] = getTransportTime(from, to);
+            }
+        }
         return matrix;
     }
 
+    /**
+     * Returns the number of locations this matrix has been built for.
+     *
+     * @return number of locations
+     */
+    public int getNoLocations() {
+        return noLocations;
+    }
+
+    /**
+     * Returns true if only the upper triangle of the matrix is stored.
+     *
+     * @return true if matrix is symmetric
+     */
+    public boolean isSymmetric() {
+        return isSymmetric;
+    }
+
     @Override
     public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
         if (from.getIndex() < 0 || to.getIndex() < 0)
             throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
-        int timeIndex = 1;
-        return get(from.getIndex(), to.getIndex(), timeIndex);
+        return getTransportTime(from.getIndex(), to.getIndex());
     }
 
-    private double get(int from, int to, int indicatorIndex) {
-        double value;
-        if (isSymmetric) {
-            if (from < to) value = matrix[from][to][indicatorIndex];
-            else value = matrix[to][from][indicatorIndex];
-        } else {
-            value = matrix[from][to][indicatorIndex];
-        }
-        return value;
+    /**
+     * Returns the transport time from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the transport time
+     */
+    public double getTransportTime(int fromIndex, int toIndex) {
+        int index = index(noLocations, isSymmetric, fromIndex, toIndex);
+        if (floatPrecision) return floatTimes[index];
+        return times[index];
     }
 
     /**
@@ -151,8 +246,9 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
      * @return the distance
      */
     public double getDistance(int fromIndex, int toIndex) {
-        int distanceIndex = 0;
-        return get(fromIndex, toIndex, distanceIndex);
+        int index = index(noLocations, isSymmetric, fromIndex, toIndex);
+        if (floatPrecision) return floatDistances[index];
+        return distances[index];
     }
 
     @Override
@@ -166,7 +262,7 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
             throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
         if (vehicle == null) return getDistance(from.getIndex(), to.getIndex());
         VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
-        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from, to, departureTime, driver, vehicle);
+        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from.getIndex(), to.getIndex());
     }
 
 }
@@ -0,0 +1,354 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.cost.TransportDistance;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * CostMatrix that reads pre-compiled time and distance-matrices from a memory-mapped binary file. The matrix lives
+ * off-heap in the page cache of the operating system, thus it can be shared among several processes and loading it
+ * does not require to read the whole file.
+ * <p>
+ * <p>The file format is little-endian and consists of
+ * <ul>
+ * <li>a header of 32 bytes: magic number <code>0x4A53504D</code> ("JSPM", int), format version (int),
+ * number of locations n (int), flags (int, bit 0 is set if the matrix is symmetric, bit 1 is set if values are floats)
+ * and 16 reserved bytes,</li>
+ * <li>the distance block: m values (double or float),</li>
+ * <li>the time block: m values (double or float).</li>
+ * </ul>
+ * If the matrix is asymmetric, m = n*n and value (from,to) is stored at <code>from*n+to</code>. If it is symmetric,
+ * only the upper triangle (including the diagonal) is stored row by row, i.e. m = n*(n+1)/2 and value (from,to) with
+ * from &lt;= to is stored at <code>from*(2n-from-1)/2+to</code>.
+ * <p>
+ * <p>Use {@link Writer} to create such files. Location indices are the indices of
+ * {@link com.graphhopper.jsprit.core.problem.Location#getIndex()}.
+ */
+public class MappedVehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRoutingTransportCosts implements TransportDistance {
+
+    /**
+     * Writer that writes matrices to a file that can be read by {@link MappedVehicleRoutingTransportCostsMatrix}.
+     * <p>
+     * <p>Values can be added in arbitrary order. Values that are not added are 0.0. Do not forget to close the writer.
+     */
+    public static class Writer implements Closeable {
+
+        private final int noLocations;
+
+        private final boolean isSymmetric;
+
+        private final boolean floatPrecision;
+
+        private final RandomAccessFile file;
+
+        private final ByteBuffer[] distances;
+
+        private final ByteBuffer[] times;
+
+        /**
+         * Creates a new writer that writes to the specified file. If the file exists, it is overwritten.
+         *
+         * @param file           the file to write to
+         * @param noLocations    number of locations
+         * @param isSymmetric    true if matrix is symmetric, false otherwise
+         * @param floatPrecision true if values should be stored with float precision, false otherwise
+         * @return writer
+         */
+        public static Writer newInstance(File file, int noLocations, boolean isSymmetric, boolean floatPrecision) {
+            return new Writer(file, noLocations, isSymmetric, floatPrecision);
+        }
+
+        /**
+         * Writes the specified matrix to the specified file.
+         *
+         * @param matrix         the matrix to be written
+         * @param file           the file to write to
+         * @param floatPrecision true if values should be stored with float precision, false otherwise
+         */
+        public static void write(FastVehicleRoutingTransportCostsMatrix matrix, File file, boolean floatPrecision) {
+            int n = matrix.getNoLocations();
+            Writer writer = newInstance(file, n, matrix.isSymmetric(), floatPrecision);
+            try {
+                for (int from = 0; from < n; from++) {
+                    for (int to = matrix.isSymmetric() ? from : 0; to < n; to++) {
+                        writer.addTransportDistance(from, to, matrix.getDistance(from, to));
+                        writer.addTransportTime(from, to, matrix.getTransportTime(from, to));
+                    }
+                }
+            } finally {
+                writer.close();
+            }
+        }
+
+        private Writer(File file, int noLocations, boolean isSymmetric, boolean floatPrecision) {
+            this.noLocations = noLocations;
+            this.isSymmetric = isSymmetric;
+            this.floatPrecision = floatPrecision;
+            long noValues = noValues(noLocations, isSymmetric);
+            int bytesPerValue = floatPrecision ? 4 : 8;
+            try {
+                RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                boolean mapped = false;
+                try {
+                    raf.setLength(0);
+                    raf.setLength(HEADER_BYTES + 2 * noValues * bytesPerValue);
+                    FileChannel channel = raf.getChannel();
+                    ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putInt(MAGIC).putInt(VERSION).putInt(noLocations).putInt((isSymmetric ? SYMMETRIC : 0) | (floatPrecision ? FLOAT_PRECISION : 0));
+                    distances = map(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES, noValues, bytesPerValue);
+                    times = map(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + noValues * bytesPerValue, noValues, bytesPerValue);
+                    mapped = true;
+                } finally {
+                    if (!mapped) raf.close();
+                }
+                this.file = raf;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * Adds a transport-distance for a particular relation.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param distance  the distance to be added
+         * @return writer
+         */
+        public Writer addTransportDistance(int fromIndex, int toIndex, double distance) {
+            put(distances, valueIndex(noLocations, isSymmetric, fromIndex, toIndex), distance);
+            return this;
+        }
+
+        /**
+         * Adds transport-time for a particular relation.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param time      the time to be added
+         * @return writer
+         */
+        public Writer addTransportTime(int fromIndex, int toIndex, double time) {
+            put(times, valueIndex(noLocations, isSymmetric, fromIndex, toIndex), time);
+            return this;
+        }
+
+        private void put(ByteBuffer[] segments, long valueIndex, double value) {
+            ByteBuffer segment = segments[(int) (valueIndex >>> SEGMENT_SHIFT)];
+            int offset = (int) (valueIndex & SEGMENT_MASK);
+            if (floatPrecision) segment.putFloat(offset << 2, (float) value);
+            else segment.putDouble(offset << 3, value);
+        }
+
+        /**
+         * Flushes all values to the file and closes it.
+         */
+        @Override
+        public void close() {
+            try {
+                for (ByteBuffer segment : distances) ((MappedByteBuffer) segment).force();
+                for (ByteBuffer segment : times) ((MappedByteBuffer) segment).force();
+                file.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+    }
+
+    static final int MAGIC = 0x4A53504D;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 32;
+
+    private static final int SYMMETRIC = 1;
+
+    private static final int FLOAT_PRECISION = 2;
+
+    //2^27 values per segment, i.e. segments of 1GB (doubles) or 512MB (floats)
+    private static final int SEGMENT_SHIFT = 27;
+
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private static long noValues(int noLocations, boolean isSymmetric) {
+        if (isSymmetric) return (long) noLocations * (noLocations + 1) / 2;
+        return (long) noLocations * noLocations;
+    }
+
+    private static long valueIndex(int noLocations, boolean isSymmetric, int from, int to) {
+        //otherwise an invalid index would silently address another relation
+        if (from < 0 || from >= noLocations || to < 0 || to >= noLocations)
+            throw new IllegalArgumentException("index of from " + from + " or to " + to + " is not within [0," + noLocations + ")");
+        if (isSymmetric) {
+            if (from > to) {
+                int tmp = from;
+                from = to;
+                to = tmp;
+            }
+            return (long) from * (2L * noLocations - from - 1) / 2 + to;
+        }
+        return (long) from * noLocations + to;
+    }
+
+    private static ByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long position, long noValues, int bytesPerValue) throws IOException {
+        int noSegments = (int) ((noValues + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        ByteBuffer[] segments = new ByteBuffer[noSegments];
+        for (int i = 0; i < noSegments; i++) {
+            long firstValue = (long) i << SEGMENT_SHIFT;
+            long segmentValues = Math.min(1L << SEGMENT_SHIFT, noValues - firstValue);
+            segments[i] = channel.map(mode, position + firstValue * bytesPerValue, segmentValues * bytesPerValue).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return segments;
+    }
+
+    /**
+     * Maps the specified file into memory and returns the matrix.
+     *
+     * @param file the file that has been written with {@link Writer}
+     * @return the matrix
+     * @throws java.lang.IllegalStateException if file is not a matrix file or has an unsupported version
+     */
+    public static MappedVehicleRoutingTransportCostsMatrix load(File file) {
+        return new MappedVehicleRoutingTransportCostsMatrix(file);
+    }
+
+    private final int noLocations;
+
+    private final boolean isSymmetric;
+
+    private final boolean floatPrecision;
+
+    private final ByteBuffer[] distances;
+
+    private final ByteBuffer[] times;
+
+    private MappedVehicleRoutingTransportCostsMatrix(File file) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                if (channel.size() < HEADER_BYTES) throw new IllegalStateException(file + " is not a matrix file");
+                ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                if (header.getInt() != MAGIC) throw new IllegalStateException(file + " is not a matrix file");
+                int version = header.getInt();
+                if (version != VERSION)
+                    throw new IllegalStateException("version " + version + " of matrix file " + file + " is not supported");
+                noLocations = header.getInt();
+                int flags = header.getInt();
+                isSymmetric = (flags & SYMMETRIC) != 0;
+                floatPrecision = (flags & FLOAT_PRECISION) != 0;
+                long noValues = noValues(noLocations, isSymmetric);
+                int bytesPerValue = floatPrecision ? 4 : 8;
+                if (channel.size() < HEADER_BYTES + 2 * noValues * bytesPerValue)
+                    throw new IllegalStateException("matrix file " + file + " is truncated");
+                distances = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, noValues, bytesPerValue);
+                times = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES + noValues * bytesPerValue, noValues, bytesPerValue);
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private double get(ByteBuffer[] segments, int from, int to) {
+        long valueIndex = valueIndex(noLocations, isSymmetric, from, to);
+        ByteBuffer segment = segments[(int) (valueIndex >>> SEGMENT_SHIFT)];
+        int offset = (int) (valueIndex & SEGMENT_MASK);
+        if (floatPrecision) return segment.getFloat(offset << 2);
+        return segment.getDouble(offset << 3);
+    }
+
+    /**
+     * Returns the number of locations of this matrix.
+     *
+     * @return number of locations
+     */
+    public int getNoLocations() {
+        return noLocations;
+    }
+
+    /**
+     * Returns true if only the upper triangle of the matrix is stored.
+     *
+     * @return true if matrix is symmetric
+     */
+    public boolean isSymmetric() {
+        return isSymmetric;
+    }
+
+    /**
+     * Returns the distance from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the distance
+     */
+    public double getDistance(int fromIndex, int toIndex) {
+        return get(distances, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the transport time from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the transport time
+     */
+    public double getTransportTime(int fromIndex, int toIndex) {
+        return get(times, fromIndex, toIndex);
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        if (from.getIndex() < 0 || to.getIndex() < 0)
+            throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
+        return getTransportTime(from.getIndex(), to.getIndex());
+    }
+
+    @Override
+    public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
+        return getDistance(from.getIndex(), to.getIndex());
+    }
+
+    @Override
+    public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        if (from.getIndex() < 0 || to.getIndex() < 0)
+            throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
+        if (vehicle == null) return getDistance(from.getIndex(), to.getIndex());
+        VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from.getIndex(), to.getIndex());
+    }
+
+}
@@ -25,7 +25,9 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl.VehicleCostPa
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 
@@ -36,6 +38,11 @@ import java.util.Map;
  * you set a particular distance, this expects distance-entries for all relations. This counts also
  * for a particular time. If the method getTransportCosts(...) is then invoked for a relation, where no distance can be found, an
  * IllegalStateException will be thrown. Thus if you want to only use distances only, do not use addTransportTime(...).
+ * <p>When building the matrix, location ids are mapped to dense indices and distances and times are stored in primitive
+ * arrays. Sparse matrices, i.e. matrices with less than a quarter of all relations set, and matrices too large to be
+ * stored in an array are kept in maps keyed by these indices. Lookups are fastest if locations carry these indices, i.e. if they are created with {@link #getLocation(String)}
+ * or with <code>Location.Builder.newInstance().setId(id).setIndex(matrix.getLocationIndex(id))</code>. Otherwise the index
+ * is looked up by location id.
  *
  * @author schroeder
  */
@@ -94,6 +101,7 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
     }
 
 
+
     /**
      * Builder that builds the matrix.
      *
@@ -104,6 +112,8 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
 
         private boolean isSymmetric;
 
+        private Map<String, Integer> locationIndices = new LinkedHashMap<String, Integer>();
+
         private Map<RelationKey, Double> distances = new HashMap<RelationKey, Double>();
 
         private Map<RelationKey, Double> times = new HashMap<RelationKey, Double>();
@@ -141,6 +151,8 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
             if (distances.containsKey(key)) {
                 log.warn("distance from " + from + " to " + to + " already exists. This overrides distance.");
             }
+            addLocation(from);
+            addLocation(to);
             distances.put(key, distance);
             if (isSymmetric) {
                 RelationKey revKey = RelationKey.newKey(to, from);
@@ -163,6 +175,8 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
             if (times.containsKey(key)) {
                 log.warn("transport-time from " + from + " to " + to + " already exists. This overrides times.");
             }
+            addLocation(from);
+            addLocation(to);
             times.put(key, time);
             if (isSymmetric) {
                 RelationKey revKey = RelationKey.newKey(to, from);
@@ -171,6 +185,10 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
             return this;
         }
 
+        private void addLocation(String locationId) {
+            if (!locationIndices.containsKey(locationId)) locationIndices.put(locationId, locationIndices.size());
+        }
+
         /**
          * Builds the matrix.
          *
@@ -183,9 +201,15 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
 
     }
 
-    private Map<RelationKey, Double> distances = new HashMap<RelationKey, Double>();
+    private final Map<String, Integer> locationIndices;
+
+    private final Location[] locations;
 
-    private Map<RelationKey, Double> times = new HashMap<RelationKey, Double>();
+    private final int noLocations;
+
+    private final Values distances;
+
+    private final Values times;
 
     private boolean isSymmetric;
 
@@ -195,36 +219,149 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
 
     private VehicleRoutingTransportCostsMatrix(Builder builder) {
         this.isSymmetric = builder.isSymmetric;
-        distances.putAll(builder.distances);
-        times.putAll(builder.times);
+        locationIndices = new HashMap<String, Integer>(builder.locationIndices);
+        noLocations = locationIndices.size();
+        locations = new Location[noLocations];
+        for (Map.Entry<String, Integer> e : builder.locationIndices.entrySet()) {
+            locations[e.getValue()] = Location.Builder.newInstance().setId(e.getKey()).setIndex(e.getValue()).build();
+        }
+        distances = toValues(builder.distances);
+        times = toValues(builder.times);
         timesSet = builder.timesSet;
         distancesSet = builder.distancesSet;
     }
 
+    /*
+     * values of relations, where a missing value is Double.NaN
+     */
+    private static abstract class Values {
+
+        abstract void put(int from, int to, double value);
+
+        abstract double get(int from, int to);
 
-    @Override
-    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
-        return getTime(from.getId(), to.getId());
     }
 
+    private static class DenseValues extends Values {
 
-    private double getTime(String fromId, String toId) {
-        if (fromId.equals(toId)) return 0.0;
-        if (!timesSet) return 0.0;
-        RelationKey key = RelationKey.newKey(fromId, toId);
-        if (!isSymmetric) {
-            if (times.containsKey(key)) return times.get(key);
-            else
-                throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
-        } else {
-            Double time = times.get(key);
-            if (time == null) {
-                time = times.get(RelationKey.newKey(toId, fromId));
+        private final int noLocations;
+
+        private final double[] values;
+
+        DenseValues(int noLocations) {
+            this.noLocations = noLocations;
+            values = new double[noLocations * noLocations];
+            Arrays.fill(values, Double.NaN);
+        }
+
+        @Override
+        void put(int from, int to, double value) {
+            values[from * noLocations + to] = value;
+        }
+
+        @Override
+        double get(int from, int to) {
+            return values[from * noLocations + to];
+        }
+
+    }
+
+    private static class SparseValues extends Values {
+
+        private final long noLocations;
+
+        private final Map<Long, Double> values;
+
+        SparseValues(int noLocations, int noValues) {
+            this.noLocations = noLocations;
+            values = new HashMap<Long, Double>(noValues * 2);
+        }
+
+        @Override
+        void put(int from, int to, double value) {
+            values.put(from * noLocations + to, value);
+        }
+
+        @Override
+        double get(int from, int to) {
+            Double value = values.get(from * noLocations + to);
+            if (value == null) return Double.NaN;
+            return value;
+        }
+
+    }
+
+    private Values toValues(Map<RelationKey, Double> values) {
+        long size = (long) noLocations * noLocations;
+        Values vals;
+        if (size <= Integer.MAX_VALUE - 8 && size <= 4L * values.size()) vals = new DenseValues(noLocations);
+        else vals = new SparseValues(noLocations, isSymmetric ? 2 * values.size() : values.size());
+        for (Map.Entry<RelationKey, Double> e : values.entrySet()) {
+            int from = locationIndices.get(e.getKey().from);
+            int to = locationIndices.get(e.getKey().to);
+            vals.put(from, to, e.getValue());
+            //the reverse relation of a symmetric matrix only falls back to this value if it has not been set itself
+            if (isSymmetric && !values.containsKey(RelationKey.newKey(e.getKey().to, e.getKey().from))) {
+                vals.put(to, from, e.getValue());
             }
-            if (time != null) return time;
-            else
-                throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
         }
+        return vals;
+    }
+
+    /**
+     * Returns the index that has been assigned to the specified location id, or Location.NO_INDEX if the matrix does
+     * not contain the location id.
+     *
+     * @param locationId the location id
+     * @return the location index
+     */
+    public int getLocationIndex(String locationId) {
+        Integer index = locationIndices.get(locationId);
+        if (index == null) return Location.NO_INDEX;
+        return index;
+    }
+
+    /**
+     * Returns a location with the specified id whose index is the index this matrix has assigned to the id. Use these
+     * locations to define jobs and vehicles to get the fastest lookups.
+     *
+     * @param locationId the location id
+     * @return location with id and index
+     * @throws IllegalArgumentException if the matrix does not contain the location id
+     */
+    public Location getLocation(String locationId) {
+        int index = getLocationIndex(locationId);
+        if (index == Location.NO_INDEX)
+            throw new IllegalArgumentException("matrix does not contain location " + locationId);
+        return locations[index];
+    }
+
+    private int index(Location location) {
+        int index = location.getIndex();
+        if (index >= 0 && index < noLocations) {
+            String id = locations[index].getId();
+            if (id == location.getId() || id.equals(location.getId())) return index;
+        }
+        return getLocationIndex(location.getId());
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        if (from.getId().equals(to.getId())) return 0.0;
+        if (!timesSet) return 0.0;
+        return getTime(index(from), index(to), from.getId(), to.getId());
+    }
+
+    private double getTime(int from, int to, String fromId, String toId) {
+        double time = get(times, from, to);
+        if (Double.isNaN(time))
+            throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
+        return time;
+    }
+
+    private double get(Values values, int from, int to) {
+        if (from == Location.NO_INDEX || to == Location.NO_INDEX) return Double.NaN;
+        return values.get(from, to);
     }
 
     /**
@@ -238,27 +375,28 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
     public double getDistance(String fromId, String toId) {
         if (fromId.equals(toId)) return 0.0;
         if (!distancesSet) return 0.0;
-        RelationKey key = RelationKey.newKey(fromId, toId);
-        if (!isSymmetric) {
-            if (distances.containsKey(key)) return distances.get(key);
-            else
-                throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
-        } else {
-            Double time = distances.get(key);
-            if (time == null) {
-                time = distances.get(RelationKey.newKey(toId, fromId));
-            }
-            if (time != null) return time;
-            else
-                throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
-        }
+        return getDistance(getLocationIndex(fromId), getLocationIndex(toId), fromId, toId);
+    }
+
+    private double getDistance(int from, int to, String fromId, String toId) {
+        double distance = get(distances, from, to);
+        if (Double.isNaN(distance))
+            throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
+        return distance;
     }
 
     @Override
     public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
-        if (vehicle == null) return getDistance(from.getId(), to.getId());
+        String fromId = from.getId();
+        String toId = to.getId();
+        if (fromId.equals(toId)) return 0.0;
+        int fromIndex = index(from);
+        int toIndex = index(to);
+        double distance = distancesSet ? getDistance(fromIndex, toIndex, fromId, toId) : 0.0;
+        if (vehicle == null) return distance;
         VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
-        return costParams.perDistanceUnit * getDistance(from.getId(), to.getId()) + costParams.perTransportTimeUnit * getTime(from.getId(), to.getId());
+        double time = timesSet ? getTime(fromIndex, toIndex, fromId, toId) : 0.0;
+        return costParams.perDistanceUnit * distance + costParams.perTransportTimeUnit * time;
     }
 
 }
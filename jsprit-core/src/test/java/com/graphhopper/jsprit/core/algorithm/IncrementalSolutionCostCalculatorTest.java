@@ -0,0 +1,137 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+public class IncrementalSolutionCostCalculatorTest {
+
+    private static class CountingCalculator extends IncrementalSolutionCostCalculator {
+
+        @Override
+        protected double getRouteCosts(VehicleRoute route) {
+            return 10. + route.getActivities().size();
+        }
+
+        @Override
+        protected double getUnassignedJobCosts(Collection<Job> unassignedJobs) {
+            return 100. * unassignedJobs.size();
+        }
+    }
+
+    private VehicleRoutingProblemSolution createSolution(Service... services) {
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(v);
+        for (Service s : services) routeBuilder.addService(s);
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        routes.add(routeBuilder.build());
+        return new VehicleRoutingProblemSolution(routes, 0.);
+    }
+
+    private Service service(String id) {
+        return Service.Builder.newInstance(id).setLocation(Location.newInstance(1, 1)).build();
+    }
+
+    @Test
+    public void whenCopyOfSolutionIsEvaluated_costsOfRoutesShouldBeLookedUp() {
+        CountingCalculator calculator = new CountingCalculator();
+        VehicleRoutingProblemSolution solution = createSolution(service("s1"), service("s2"));
+        Assert.assertEquals(12., calculator.getCosts(solution), 0.01);
+        Assert.assertEquals(12., calculator.getCosts(VehicleRoutingProblemSolution.copyOnWriteOf(solution)), 0.01);
+        Assert.assertEquals(1, calculator.getNoCalculatedRoutes());
+        Assert.assertEquals(1, calculator.getNoCachedRoutes());
+    }
+
+    @Test
+    public void whenRouteOfCopyIsRuined_itsCostsShouldBeCalculatedAgain() {
+        CountingCalculator calculator = new CountingCalculator();
+        Service s2 = service("s2");
+        VehicleRoutingProblemSolution solution = createSolution(service("s1"), s2);
+        calculator.getCosts(solution);
+        VehicleRoutingProblemSolution copy = VehicleRoutingProblemSolution.copyOnWriteOf(solution);
+        VehicleRoute route = copy.getRoutes().iterator().next();
+        route.getTourActivities().removeJob(s2);
+        calculator.removed(s2, route);
+        copy.getUnassignedJobs().add(s2);
+        Assert.assertEquals(111., calculator.getCosts(copy), 0.01);
+        Assert.assertEquals(12., calculator.getCosts(solution), 0.01);
+        Assert.assertEquals(2, calculator.getNoCalculatedRoutes());
+    }
+
+    @Test
+    public void whenRouteIsChangedInPlace_listenerShouldInvalidateItsCosts() {
+        CountingCalculator calculator = new CountingCalculator();
+        Service s3 = service("s3");
+        VehicleRoutingProblemSolution solution = createSolution(service("s1"), service("s2"));
+        calculator.getCosts(solution);
+        VehicleRoute route = solution.getRoutes().iterator().next();
+        route.getTourActivities().addActivity(route.getActivities().get(1).duplicate());
+        calculator.informJobInserted(s3, route, 0., 0.);
+        Assert.assertEquals(13., calculator.getCosts(solution), 0.01);
+    }
+
+    @Test
+    public void whenSolvingWithJsprit_costsShouldEqualCostsCalculatedFromScratch() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 5).setFixedCost(50.).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v);
+        Random random = new Random(42);
+        for (int i = 0; i < 30; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        final VehicleRoutingProblem vrp = vrpBuilder.setFleetSize(VehicleRoutingProblem.FleetSize.INFINITE).build();
+        VehicleRoutingAlgorithm vra = Jsprit.createAlgorithm(vrp);
+        Assert.assertTrue(vra.getObjectiveFunction() instanceof IncrementalSolutionCostCalculator);
+        final List<Double> differences = new ArrayList<Double>();
+        vra.addListener(new StrategySelectedListener() {
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                SolutionCostCalculator fromScratch = Jsprit.createAlgorithm(vrp).getObjectiveFunction();
+                VehicleRoutingProblemSolution solution = discoveredSolution.getSolution();
+                differences.add(Math.abs(solution.getCost() - fromScratch.getCosts(solution)));
+            }
+        });
+        vra.setMaxIterations(100);
+        VehicleRoutingProblemSolution best = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertEquals(100, differences.size());
+        for (Double difference : differences) Assert.assertEquals(0., difference, 0.001);
+        IncrementalSolutionCostCalculator objective = (IncrementalSolutionCostCalculator) vra.getObjectiveFunction();
+        Assert.assertTrue(objective.getNoCachedRoutes() > 0);
+        Assert.assertEquals(best.getCost(), Jsprit.createAlgorithm(vrp).getObjectiveFunction().getCosts(best), 0.001);
+    }
+
+}
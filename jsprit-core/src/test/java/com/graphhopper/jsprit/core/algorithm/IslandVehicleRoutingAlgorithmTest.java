@@ -0,0 +1,231 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class IslandVehicleRoutingAlgorithmTest {
+
+    private VehicleRoutingProblem vrp;
+
+    @Before
+    public void doBefore() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < 20; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(i % 5, i / 5)).build());
+        }
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build());
+        vrp = vrpBuilder.build();
+    }
+
+    private VehicleRoutingAlgorithm createIslands(int noIslands, int migrationInterval) {
+        return Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.ISLANDS, String.valueOf(noIslands))
+            .setProperty(Jsprit.Parameter.ISLANDS_MIGRATION_INTERVAL, String.valueOf(migrationInterval))
+            .buildAlgorithm();
+    }
+
+    @Test
+    public void whenBuildingWithIslands_itShouldCreateIslandAlgorithm() {
+        VehicleRoutingAlgorithm vra = createIslands(3, 5);
+        assertTrue(vra instanceof IslandVehicleRoutingAlgorithm);
+        assertEquals(3, ((IslandVehicleRoutingAlgorithm) vra).getIslands().size());
+        assertEquals(5, ((IslandVehicleRoutingAlgorithm) vra).getMigrationInterval());
+    }
+
+    @Test
+    public void whenBuildingWithOneIsland_itShouldCreateDefaultAlgorithm() {
+        VehicleRoutingAlgorithm vra = createIslands(1, 5);
+        assertFalse(vra instanceof IslandVehicleRoutingAlgorithm);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenBuildingIslandsWithCustomStateManager_itShouldThrowException() {
+        StateManager stateManager = new StateManager(vrp);
+        Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.ISLANDS, "2")
+            .setStateAndConstraintManager(stateManager, new ConstraintManager(vrp, stateManager))
+            .buildAlgorithm();
+    }
+
+    @Test
+    public void whenRunningIslands_eachIslandShouldIterateAndListenersShouldBeInformed() {
+        VehicleRoutingAlgorithm vra = createIslands(3, 4);
+        vra.setMaxIterations(20);
+        final int[] counts = new int[3];
+        vra.addListener(new AlgorithmStartsListener() {
+            @Override
+            public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+                counts[0]++;
+            }
+        });
+        vra.addListener(new IterationEndsListener() {
+            @Override
+            public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                counts[1]++;
+            }
+        });
+        vra.addListener(new AlgorithmEndsListener() {
+            @Override
+            public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                counts[2]++;
+            }
+        });
+        Collection<VehicleRoutingProblemSolution> solutions = vra.searchSolutions();
+        assertEquals(1, counts[0]);
+        assertEquals(60, counts[1]);
+        assertEquals(1, counts[2]);
+        assertTrue(Solutions.bestOf(solutions).getUnassignedJobs().isEmpty());
+    }
+
+    @Test
+    public void whenMigrating_bestSolutionShouldSpreadOverIslands() {
+        IslandVehicleRoutingAlgorithm vra = (IslandVehicleRoutingAlgorithm) createIslands(2, 1);
+        vra.setMaxIterations(10);
+        final double[] bestBeforeMigration = new double[2];
+        final boolean[] worseThanOtherIsland = new boolean[1];
+        for (int i = 0; i < 2; i++) {
+            final int island = i;
+            vra.getIslands().get(i).addListener(new IterationStartsListener() {
+                @Override
+                public void informIterationStarts(int iteration, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                    if (iteration == 1) return;
+                    //solutions have been exchanged at the end of the previous iteration
+                    synchronized (bestBeforeMigration) {
+                        double otherBest = bestBeforeMigration[1 - island];
+                        if (otherBest > 0 && Solutions.bestOf(solutions).getCost() > otherBest + 1e-9)
+                            worseThanOtherIsland[0] = true;
+                    }
+                }
+            });
+            vra.getIslands().get(i).addListener(new IterationEndsListener() {
+                @Override
+                public void informIterationEnds(int iteration, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                    synchronized (bestBeforeMigration) {
+                        bestBeforeMigration[island] = Solutions.bestOf(solutions).getCost();
+                    }
+                }
+            });
+        }
+        vra.searchSolutions();
+        assertFalse(worseThanOtherIsland[0]);
+    }
+
+    @Test
+    public void whenMigrating_islandsShouldNotShareActivities() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(42);
+        for (int i = 0; i < 60; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10).build();
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type)
+            .setStartLocation(Location.newInstance(50, 50)).build());
+        IslandVehicleRoutingAlgorithm vra = (IslandVehicleRoutingAlgorithm) Jsprit.Builder.newInstance(vrpBuilder.build())
+            .setProperty(Jsprit.Parameter.ISLANDS, "2")
+            .setProperty(Jsprit.Parameter.ISLANDS_MIGRATION_INTERVAL, "1")
+            .buildAlgorithm();
+        vra.setMaxIterations(20);
+        final List<Set<TourActivity>> activitiesOfIslands = new ArrayList<Set<TourActivity>>();
+        for (int i = 0; i < 2; i++) {
+            final Set<TourActivity> activities = Collections.newSetFromMap(new IdentityHashMap<TourActivity, Boolean>());
+            activitiesOfIslands.add(activities);
+            vra.getIslands().get(i).addListener(new IterationStartsListener() {
+                @Override
+                public void informIterationStarts(int iteration, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                    for (VehicleRoutingProblemSolution solution : solutions) {
+                        for (VehicleRoute route : solution.getRoutes()) {
+                            activities.addAll(route.getActivities());
+                        }
+                    }
+                }
+            });
+        }
+        vra.searchSolutions();
+        assertFalse(activitiesOfIslands.get(0).isEmpty());
+        for (TourActivity activity : activitiesOfIslands.get(0)) {
+            assertFalse(activitiesOfIslands.get(1).contains(activity));
+        }
+    }
+
+    @Test
+    public void whenTerminationCriterionIsMet_allIslandsShouldStop() {
+        VehicleRoutingAlgorithm vra = createIslands(3, 2);
+        vra.setMaxIterations(1000);
+        final int[] iterations = new int[1];
+        vra.addListener(new IterationStartsListener() {
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                iterations[0]++;
+            }
+        });
+        vra.addTerminationCriterion(new PrematureAlgorithmTermination() {
+
+            int calls = 0;
+
+            @Override
+            public boolean isPrematureBreak(SearchStrategy.DiscoveredSolution discoveredSolution) {
+                return ++calls >= 10;
+            }
+        });
+        vra.searchSolutions();
+        assertTrue(iterations[0] < 20);
+    }
+
+    @Test
+    public void whenIslandFails_exceptionShouldBePropagated() {
+        IslandVehicleRoutingAlgorithm vra = (IslandVehicleRoutingAlgorithm) createIslands(3, 1);
+        vra.setMaxIterations(50);
+        vra.getIslands().get(1).addListener(new IterationStartsListener() {
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                if (i == 5) throw new IllegalStateException("island failure");
+            }
+        });
+        try {
+            vra.searchSolutions();
+            fail("expected exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm;
 
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleRunListener;
 import com.graphhopper.jsprit.core.algorithm.selector.SolutionSelector;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
@@ -26,10 +27,13 @@ import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolutio
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -231,5 +235,52 @@ public class SearchStrategyTest {
         assertEquals(runs.size(), N);
     }
 
+    @Test
+    public void whenModuleRunListenerIsAdded_itShouldBeInformedAroundEachModule() {
+        SolutionSelector select = mock(SolutionSelector.class);
+        when(select.selectSolution(null)).thenReturn(mock(VehicleRoutingProblemSolution.class));
+        final SearchStrategy strat = new SearchStrategy("strat", select, mock(SolutionAcceptor.class), mock(SolutionCostCalculator.class));
+        final List<String> events = new ArrayList<String>();
+        for (int i = 0; i < 2; i++) {
+            final String name = "mod" + i;
+            strat.addModule(new SearchStrategyModule() {
+
+                @Override
+                public VehicleRoutingProblemSolution runAndGetSolution(VehicleRoutingProblemSolution vrpSolution) {
+                    events.add("run " + name);
+                    return vrpSolution;
+                }
+
+                @Override
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+
+                }
+            });
+        }
+        SearchStrategyModuleRunListener listener = new SearchStrategyModuleRunListener() {
+
+            @Override
+            public void informModuleStarts(SearchStrategy strategy, SearchStrategyModule module, VehicleRoutingProblemSolution solution) {
+                assertSame(strat, strategy);
+                events.add("start " + module.getName());
+            }
+
+            @Override
+            public void informModuleEnds(SearchStrategy strategy, SearchStrategyModule module, VehicleRoutingProblemSolution solution) {
+                events.add("end " + module.getName());
+            }
+
+        };
+        strat.addModuleListener(listener);
+        strat.addModuleListener(listener);
+        strat.run(mock(VehicleRoutingProblem.class), null);
+
+        assertEquals(Arrays.asList("start mod0", "run mod0", "end mod0", "start mod1", "run mod1", "end mod1"), events);
+    }
 
 }
@@ -0,0 +1,150 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class SpeculativeSearchStrategyTest {
+
+    private ExecutorService executorService;
+
+    @Before
+    public void doBefore() {
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void doAfter() {
+        executorService.shutdown();
+    }
+
+    private VehicleRoutingAlgorithm replica(String strategyId, double cost) {
+        VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(new ArrayList<VehicleRoute>(), cost);
+        SearchStrategy strategy = mock(SearchStrategy.class);
+        when(strategy.getId()).thenReturn(strategyId);
+        when(strategy.searchSolution(any(VehicleRoutingProblem.class), any(Collection.class))).thenReturn(solution);
+        SearchStrategyManager searchStrategyManager = new SearchStrategyManager();
+        searchStrategyManager.addStrategy(strategy, 1.);
+        VehicleRoutingAlgorithm replica = mock(VehicleRoutingAlgorithm.class);
+        when(replica.getSearchStrategyManager()).thenReturn(searchStrategyManager);
+        return replica;
+    }
+
+    @Test
+    public void whenRunningBatch_acceptorShouldDecideOnBestSolution() {
+        SolutionAcceptor acceptor = mock(SolutionAcceptor.class);
+        when(acceptor.acceptSolution(any(Collection.class), any(VehicleRoutingProblemSolution.class))).thenReturn(true);
+        SpeculativeSearchStrategy strategy = new SpeculativeSearchStrategy(Arrays.asList(replica("a", 30.), replica("b", 10.), replica("c", 20.)), acceptor, executorService);
+        Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        SearchStrategy.DiscoveredSolution discoveredSolution = strategy.run(mock(VehicleRoutingProblem.class), solutions);
+        assertEquals("b", discoveredSolution.getStrategyId());
+        assertEquals(10., discoveredSolution.getSolution().getCost(), 0.01);
+        assertTrue(discoveredSolution.isAccepted());
+        verify(acceptor, times(1)).acceptSolution(solutions, discoveredSolution.getSolution());
+    }
+
+    @Test
+    public void whenCostsAreEqual_firstReplicaShouldWin() {
+        SolutionAcceptor acceptor = mock(SolutionAcceptor.class);
+        SpeculativeSearchStrategy strategy = new SpeculativeSearchStrategy(Arrays.asList(replica("a", 10.), replica("b", 10.), replica("c", 10.)), acceptor, executorService);
+        SearchStrategy.DiscoveredSolution discoveredSolution = strategy.run(mock(VehicleRoutingProblem.class), new ArrayList<VehicleRoutingProblemSolution>());
+        assertEquals("a", discoveredSolution.getStrategyId());
+        assertFalse(discoveredSolution.isAccepted());
+    }
+
+    @Test
+    public void whenRunningBatch_replicasInOtherThreadsShouldSearchOnIndependentCopies() {
+        VehicleRoutingAlgorithm first = replica("a", 10.);
+        VehicleRoutingAlgorithm second = replica("b", 10.);
+        SpeculativeSearchStrategy strategy = new SpeculativeSearchStrategy(Arrays.asList(first, second), mock(SolutionAcceptor.class), executorService);
+        Service service = Service.Builder.newInstance("s").setLocation(Location.newInstance(1, 1)).build();
+        VehicleRoute route = VehicleRoute.Builder.newInstance(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build())
+            .addService(service).build();
+        Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        solutions.add(new VehicleRoutingProblemSolution(Arrays.asList(route), 10.));
+        strategy.run(mock(VehicleRoutingProblem.class), solutions);
+
+        ArgumentCaptor<Collection> firstSolutions = ArgumentCaptor.forClass(Collection.class);
+        verify(first.getSearchStrategyManager().getStrategies().get(0)).searchSolution(any(VehicleRoutingProblem.class), firstSolutions.capture());
+        assertSame(solutions, firstSolutions.getValue());
+        ArgumentCaptor<Collection> secondSolutions = ArgumentCaptor.forClass(Collection.class);
+        verify(second.getSearchStrategyManager().getStrategies().get(0)).searchSolution(any(VehicleRoutingProblem.class), secondSolutions.capture());
+        VehicleRoutingProblemSolution copy = (VehicleRoutingProblemSolution) secondSolutions.getValue().iterator().next();
+        VehicleRoute copiedRoute = copy.getRoutes().iterator().next();
+        assertEquals(10., copy.getCost(), 0.01);
+        assertEquals(1, copiedRoute.getActivities().size());
+        assertNotSame(route.getActivities().get(0), copiedRoute.getActivities().get(0));
+    }
+
+    @Test
+    public void whenUsingSpeculativeBatchesInJsprit_itShouldSolveProblem() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < 20; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(i % 5, i / 5)).build());
+        }
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build());
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.SPECULATIVE_BATCH_SIZE, "3").buildAlgorithm();
+        vra.setMaxIterations(30);
+        final Set<String> strategyIds = new HashSet<String>();
+        vra.addListener(new StrategySelectedListener() {
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                strategyIds.add(discoveredSolution.getStrategyId());
+            }
+        });
+        Collection<VehicleRoutingProblemSolution> solutions = vra.searchSolutions();
+        assertTrue(Solutions.bestOf(solutions).getUnassignedJobs().isEmpty());
+        assertFalse(strategyIds.isEmpty());
+        for (String strategyId : strategyIds) {
+            assertNotNull(Jsprit.Strategy.valueOf(strategyId.toUpperCase()));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenCombiningIslandsAndBatches_itShouldThrowException() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance()
+            .addJob(Service.Builder.newInstance("s").setLocation(Location.newInstance(1, 1)).build())
+            .addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build()).build();
+        Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.SPECULATIVE_BATCH_SIZE, "2")
+            .setProperty(Jsprit.Parameter.ISLANDS, "2").buildAlgorithm();
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BestInsertionConcurrentPartitionedTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void doBefore() {
+        Random random = new Random(7);
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        vrpBuilder.setFleetSize(VehicleRoutingProblem.FleetSize.INFINITE);
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(50, 50))
+            .setType(VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 5).build()).build());
+        for (int i = 0; i < 60; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+        }
+        vrp = vrpBuilder.build();
+        executorService = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void doAfter() {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void itShouldInsertJobsLikeBestInsertionConcurrent() {
+        List<List<String>> concurrent = insert(false);
+        List<List<String>> partitioned = insert(true);
+        assertEquals(concurrent, partitioned);
+        int noJobs = 0;
+        for (List<String> route : partitioned) noJobs += route.size();
+        assertEquals(60, noJobs);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void whenCalculatorFailsInWorker_itShouldThrowException() {
+        JobInsertionCostsCalculator failingCalculator = new JobInsertionCostsCalculator() {
+            @Override
+            public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, com.graphhopper.jsprit.core.problem.vehicle.Vehicle newVehicle, double newVehicleDepartureTime, com.graphhopper.jsprit.core.problem.driver.Driver newDriver, double bestKnownCosts) {
+                throw new IllegalStateException("failure");
+            }
+        };
+        BestInsertionConcurrentPartitioned insertion = new BestInsertionConcurrentPartitioned(failingCalculator, executorService, 4, vrp);
+        insertion.insertJobs(new ArrayList<VehicleRoute>(), vrp.getJobs().values());
+    }
+
+    @Test
+    public void whenCalculatorFails_workersShouldTerminate() throws InterruptedException {
+        try {
+            whenCalculatorFailsInWorker_itShouldThrowException();
+        } catch (RuntimeException e) {
+            //expected
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, java.util.concurrent.TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void whenWorkerIsRejected_itShouldThrowExceptionAndStartedWorkersShouldTerminate() throws InterruptedException {
+        //accepts one worker only
+        ExecutorService boundedExecutorService = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>());
+        BestInsertionConcurrentPartitioned insertion = new BestInsertionConcurrentPartitioned(new JobInsertionCostsCalculator() {
+            @Override
+            public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, com.graphhopper.jsprit.core.problem.vehicle.Vehicle newVehicle, double newVehicleDepartureTime, com.graphhopper.jsprit.core.problem.driver.Driver newDriver, double bestKnownCosts) {
+                return new InsertionData.NoInsertionFound();
+            }
+        }, boundedExecutorService, 3, vrp);
+        try {
+            insertion.insertJobs(new ArrayList<VehicleRoute>(), vrp.getJobs().values());
+            fail("worker should have been rejected");
+        } catch (RejectedExecutionException e) {
+            //expected
+        }
+        boundedExecutorService.shutdown();
+        assertTrue(boundedExecutorService.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private List<List<String>> insert(boolean partitioned) {
+        StateManager stateManager = new StateManager(vrp);
+        stateManager.updateLoadStates();
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        constraintManager.addLoadConstraint();
+        VehicleFleetManager fleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        InsertionStrategy insertion = new InsertionBuilder(vrp, fleetManager, stateManager, constraintManager)
+            .setInsertionStrategy(InsertionBuilder.Strategy.BEST)
+            .setConcurrentMode(executorService, 4)
+            .setPartitionedBest(partitioned).build();
+        assertEquals(partitioned, insertion instanceof BestInsertionConcurrentPartitioned);
+        ((AbstractInsertionStrategy) insertion).setRandom(new Random(1));
+        insertion.addListener(stateManager);
+        Collection<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        Collection<Job> unassigned = insertion.insertJobs(routes, vrp.getJobs().values());
+        assertTrue(unassigned.isEmpty());
+        List<List<String>> jobIds = new ArrayList<List<String>>();
+        for (VehicleRoute route : routes) {
+            if (route.isEmpty()) continue;
+            List<String> ids = new ArrayList<String>();
+            for (TourActivity act : route.getActivities()) ids.add(((TourActivity.JobActivity) act).getJob().getId());
+            jobIds.add(ids);
+        }
+        //ties between empty routes are resolved by completion order in BestInsertionConcurrent, thus route order may differ
+        Collections.sort(jobIds, new Comparator<List<String>>() {
+            @Override
+            public int compare(List<String> o1, List<String> o2) {
+                return o1.toString().compareTo(o2.toString());
+            }
+        });
+        return jobIds;
+    }
+
+}
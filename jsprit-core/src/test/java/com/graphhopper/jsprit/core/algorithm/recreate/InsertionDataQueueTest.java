@@ -0,0 +1,91 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+
+public class InsertionDataQueueTest {
+
+    private VersionedInsertionData option(double cost, int version, VehicleRoute route) {
+        return new VersionedInsertionData(new InsertionData(cost, 0, 0, null, null), version, route);
+    }
+
+    @Test
+    public void optionsShouldBeOrderedByCosts() {
+        InsertionDataQueue queue = new InsertionDataQueue(4);
+        VehicleRoute r1 = mock(VehicleRoute.class);
+        VehicleRoute r2 = mock(VehicleRoute.class);
+        VersionedInsertionData o1 = option(3., 0, r1);
+        VersionedInsertionData o2 = option(1., 0, r2);
+        VersionedInsertionData o3 = option(3., 0, r2);
+        queue.add(o1);
+        queue.add(o2);
+        queue.add(o3);
+        Assert.assertEquals(3, queue.size());
+        Assert.assertSame(o2, queue.get(0));
+        Assert.assertSame(o1, queue.get(1));
+        Assert.assertSame(o3, queue.get(2));
+        Assert.assertFalse(queue.hasDiscarded());
+    }
+
+    @Test
+    public void whenAddingNewVersionOfRoute_olderOptionsOfRouteShouldBeRemoved() {
+        InsertionDataQueue queue = new InsertionDataQueue(4);
+        VehicleRoute r1 = mock(VehicleRoute.class);
+        VehicleRoute r2 = mock(VehicleRoute.class);
+        queue.add(option(1., 0, r1));
+        queue.add(option(2., 0, r1));
+        queue.add(option(3., 0, r2));
+        VersionedInsertionData newOption = option(4., 1, r1);
+        queue.add(newOption);
+        Assert.assertEquals(2, queue.size());
+        Assert.assertSame(r2, queue.get(0).getRoute());
+        Assert.assertSame(newOption, queue.get(1));
+        Assert.assertFalse(queue.hasDiscarded());
+    }
+
+    @Test
+    public void whenQueueIsFull_mostExpensiveOptionShouldBeDiscarded() {
+        InsertionDataQueue queue = new InsertionDataQueue(2);
+        queue.add(option(5., 0, mock(VehicleRoute.class)));
+        queue.add(option(1., 0, mock(VehicleRoute.class)));
+        queue.add(option(3., 0, mock(VehicleRoute.class)));
+        queue.add(option(4., 0, mock(VehicleRoute.class)));
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(1., queue.get(0).getiData().getInsertionCost(), 0.01);
+        Assert.assertEquals(3., queue.get(1).getiData().getInsertionCost(), 0.01);
+        Assert.assertTrue(queue.hasDiscarded());
+        Assert.assertEquals(4., queue.getMinDiscardedCost(), 0.01);
+    }
+
+    @Test
+    public void whenClearing_queueShouldBeEmptyWithNewCapacity() {
+        InsertionDataQueue queue = new InsertionDataQueue(1);
+        queue.add(option(1., 0, mock(VehicleRoute.class)));
+        queue.add(option(2., 0, mock(VehicleRoute.class)));
+        queue.clear(2);
+        Assert.assertEquals(0, queue.size());
+        Assert.assertEquals(2, queue.getCapacity());
+        Assert.assertFalse(queue.hasDiscarded());
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.DependencyType;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class NewRouteInsertionCacheTest {
+
+    private JobInsertionCostsCalculator calculator;
+
+    private VehicleImpl v1;
+
+    private VehicleImpl v2;
+
+    private Service service;
+
+    @Before
+    public void doBefore() {
+        v1 = VehicleImpl.Builder.newInstance("v1").setStartLocation(Location.newInstance(0, 0)).build();
+        v2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance(0, 0)).build();
+        service = Service.Builder.newInstance("s").setLocation(Location.newInstance(1, 1)).build();
+        VehicleRoutingProblem.Builder.newInstance().addVehicle(v1).addVehicle(v2).addJob(service)
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE).build();
+        calculator = mock(JobInsertionCostsCalculator.class);
+        when(calculator.getInsertionData(any(VehicleRoute.class), any(Job.class), any(Vehicle.class), anyDouble(), any(Driver.class), anyDouble()))
+            .thenReturn(new InsertionData(10., 0, 0, v1, null));
+    }
+
+    @Test
+    public void whenAvailableVehicleDoesNotChange_insertionDataShouldBeCalculatedOnce() {
+        NewRouteInsertionCache cache = new NewRouteInsertionCache(calculator, null, 3);
+        InsertionData first = cache.getInsertionData(service, Collections.<Vehicle>singletonList(v1));
+        InsertionData second = cache.getInsertionData(service, Collections.<Vehicle>singletonList(v1));
+        Assert.assertSame(first, second);
+        Assert.assertSame(cache.getRoute(service), cache.getRoute(service));
+        verify(calculator, times(1)).getInsertionData(cache.getRoute(service), service, v1, v1.getEarliestDeparture(), cache.getRoute(service).getDriver(), Double.MAX_VALUE);
+    }
+
+    @Test
+    public void whenAvailableVehicleOfTypeChanges_insertionDataShouldBeCalculatedAgain() {
+        NewRouteInsertionCache cache = new NewRouteInsertionCache(calculator, null, 3);
+        Assert.assertEquals(v1.getVehicleTypeIdentifier().getIndex(), v2.getVehicleTypeIdentifier().getIndex());
+        cache.getInsertionData(service, Collections.<Vehicle>singletonList(v1));
+        cache.getInsertionData(service, Collections.<Vehicle>singletonList(v2));
+        verify(calculator, times(2)).getInsertionData(any(VehicleRoute.class), any(Job.class), any(Vehicle.class), anyDouble(), any(Driver.class), anyDouble());
+    }
+
+    @Test
+    public void whenNoVehicleIsAvailable_noInsertionShouldBeFound() {
+        NewRouteInsertionCache cache = new NewRouteInsertionCache(calculator, null, 3);
+        Assert.assertTrue(cache.getInsertionData(service, Collections.<Vehicle>emptyList()) instanceof InsertionData.NoInsertionFound);
+    }
+
+    @Test
+    public void whenJobHasDependencyType_insertionDataShouldNotBeCached() {
+        DependencyType[] dependencyTypes = new DependencyType[3];
+        dependencyTypes[service.getIndex()] = DependencyType.INTRA_ROUTE;
+        NewRouteInsertionCache cache = new NewRouteInsertionCache(calculator, dependencyTypes, 3);
+        cache.getInsertionData(service, Arrays.<Vehicle>asList(v1));
+        cache.getInsertionData(service, Arrays.<Vehicle>asList(v1));
+        verify(calculator, times(2)).getInsertionData(any(VehicleRoute.class), any(Job.class), any(Vehicle.class), anyDouble(), any(Driver.class), anyDouble());
+    }
+
+}
@@ -24,11 +24,14 @@ import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
 import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.PickupAndDeliverShipmentLoadActivityLevelConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.ShipmentPickupsFirstConstraint;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.cost.WaitingTimeCosts;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
 import com.graphhopper.jsprit.core.problem.driver.DriverImpl;
 import com.graphhopper.jsprit.core.problem.job.Pickup;
@@ -37,8 +40,11 @@ import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliverShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupService;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
@@ -51,11 +57,15 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -124,6 +134,117 @@ public class ShipmentInsertionCalculatorTest {
         assertEquals(40.0, iData.getInsertionCost(), 0.05);
     }
 
+    @Test
+    public void whenCalculatingInsertionCostsOfShipment_activitiesShouldBeCreatedOnlyOnce() {
+        Shipment shipment = Shipment.Builder.newInstance("s").addSizeDimension(0, 1).setPickupLocation(Location.Builder.newInstance().setId("0,10").build()).setDeliveryLocation(Location.newInstance("10,0")).build();
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        JobActivityFactory activityFactory = mock(JobActivityFactory.class);
+        List<AbstractActivity> activities = new ArrayList<AbstractActivity>();
+        activities.add(new PickupShipment(shipment));
+        activities.add(new DeliverShipment(shipment));
+        when(activityFactory.createActivities(shipment)).thenReturn(activities);
+        insertionCalculator.setJobActivityFactory(activityFactory);
+        insertionCalculator.getInsertionData(route, shipment, vehicle, 0.0, null, Double.MAX_VALUE);
+        verify(activityFactory, times(1)).createActivities(shipment);
+    }
+
+    @Test
+    public void whenWaitingAbsorbsDelayOfPickup_itShouldCalcSameInsertionAsUnoptimisedLoop() {
+        Service a = Service.Builder.newInstance("a").setLocation(Location.newInstance("10,0")).build();
+        Service b = Service.Builder.newInstance("b").setLocation(Location.newInstance("20,0")).setTimeWindow(TimeWindow.newInstance(100, 200)).build();
+        Service c = Service.Builder.newInstance("c").setLocation(Location.newInstance("30,0")).build();
+        Service d = Service.Builder.newInstance("d").setLocation(Location.newInstance("40,0")).setTimeWindow(TimeWindow.newInstance(125, 200)).build();
+        //pickup at 0 delays arrival at b from 20 to 30 which is absorbed by waiting until 100
+        Shipment shipment = Shipment.Builder.newInstance("s").setPickupLocation(Location.newInstance("10,5")).setDeliveryLocation(Location.newInstance("40,5")).build();
+        assertSameInsertionAsUnoptimisedLoop(shipment, a, b, c, d);
+    }
+
+    @Test
+    public void whenWaitingDoesNotAbsorbDelayOfPickup_itShouldCalcSameInsertionAsUnoptimisedLoop() {
+        Service a = Service.Builder.newInstance("a").setLocation(Location.newInstance("10,0")).build();
+        Service b = Service.Builder.newInstance("b").setLocation(Location.newInstance("20,0")).build();
+        Service c = Service.Builder.newInstance("c").setLocation(Location.newInstance("30,0")).build();
+        Service d = Service.Builder.newInstance("d").setLocation(Location.newInstance("40,0")).setTimeWindow(TimeWindow.newInstance(45, 200)).build();
+        //pickup at 0 delays arrival at d from 40 to 50, waiting until 45 only absorbs part of it
+        Shipment shipment = Shipment.Builder.newInstance("s").setPickupLocation(Location.newInstance("10,5")).setDeliveryLocation(Location.newInstance("40,5")).build();
+        assertSameInsertionAsUnoptimisedLoop(shipment, a, b, c, d);
+    }
+
+    private void assertSameInsertionAsUnoptimisedLoop(Shipment shipment, Service... services) {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(1).setCostPerWaitingTime(1).build();
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("0,0")).setType(type).build();
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle);
+        for (Service service : services) routeBuilder.addService(service);
+        VehicleRoute route = routeBuilder.build();
+
+        WaitingTimeCosts waitingTimeCosts = new WaitingTimeCosts();
+        ActivityInsertionCostsCalculator costsCalculator = new LocalActivityInsertionCostsCalculator(routingCosts, waitingTimeCosts, mock(StateManager.class));
+        ConstraintManager constraintManager = new ConstraintManager(mock(VehicleRoutingProblem.class), mock(RouteAndActivityStateGetter.class));
+        final Map<String, Double> deliveryPrevActEndTimes = new HashMap<String, Double>();
+        constraintManager.addConstraint(new HardActivityConstraint() {
+
+            @Override
+            public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+                if (newAct instanceof DeliverShipment) {
+                    deliveryPrevActEndTimes.put(iFacts.getRelatedActivityContext().getInsertionIndex() + "," + iFacts.getActivityContext().getInsertionIndex(), prevActDepTime);
+                }
+                return ConstraintsStatus.FULFILLED;
+            }
+
+        }, ConstraintManager.Priority.CRITICAL);
+        ShipmentInsertionCalculator calculator = new ShipmentInsertionCalculator(routingCosts, waitingTimeCosts, costsCalculator, constraintManager);
+        JobActivityFactory activityFactory = mock(JobActivityFactory.class);
+        when(activityFactory.createActivities(shipment)).thenReturn(getTourActivities(shipment));
+        calculator.setJobActivityFactory(activityFactory);
+
+        InsertionData iData = calculator.getInsertionData(route, shipment, vehicle, 0.0, null, Double.MAX_VALUE);
+
+        //unoptimised loop: for every pickup and delivery position, end times are propagated from the start of the route
+        List<TourActivity> acts = route.getActivities();
+        PickupShipment pickup = new PickupShipment(shipment);
+        DeliverShipment delivery = new DeliverShipment(shipment);
+        Start start = new Start(vehicle.getStartLocation(), vehicle.getEarliestDeparture(), vehicle.getLatestArrival());
+        End end = new End(vehicle.getEndLocation(), 0.0, vehicle.getLatestArrival());
+        JobInsertionContext context = new JobInsertionContext(route, shipment, vehicle, null, 0.0);
+        double bestCost = Double.MAX_VALUE;
+        int bestPickupIndex = InsertionData.NO_INDEX;
+        int bestDeliveryIndex = InsertionData.NO_INDEX;
+        for (int i = 0; i <= acts.size(); i++) {
+            for (int j = i; j <= acts.size(); j++) {
+                List<TourActivity> tour = new ArrayList<TourActivity>();
+                tour.add(start);
+                tour.addAll(acts.subList(0, i));
+                TourActivity nextPickupAct = i < acts.size() ? acts.get(i) : end;
+                double costs = costsCalculator.getCosts(context, tour.get(tour.size() - 1), nextPickupAct, pickup, getEndTime(tour, waitingTimeCosts, vehicle));
+                tour.add(pickup);
+                tour.addAll(acts.subList(i, j));
+                TourActivity nextDeliveryAct = j < acts.size() ? acts.get(j) : end;
+                double prevDeliveryActEndTime = getEndTime(tour, waitingTimeCosts, vehicle);
+                assertEquals(prevDeliveryActEndTime, deliveryPrevActEndTimes.get(i + "," + j), 0.001);
+                costs += costsCalculator.getCosts(context, tour.get(tour.size() - 1), nextDeliveryAct, delivery, prevDeliveryActEndTime);
+                if (costs < bestCost) {
+                    bestCost = costs;
+                    bestPickupIndex = i;
+                    bestDeliveryIndex = j;
+                }
+            }
+        }
+        assertEquals(bestCost, iData.getInsertionCost(), 0.001);
+        assertEquals(bestPickupIndex, iData.getPickupInsertionIndex());
+        assertEquals(bestDeliveryIndex, iData.getDeliveryInsertionIndex());
+    }
+
+    private double getEndTime(List<TourActivity> tour, VehicleRoutingActivityCosts activityCosts, Vehicle vehicle) {
+        double endTime = 0.0;
+        for (int k = 1; k < tour.size(); k++) {
+            TourActivity prevAct = tour.get(k - 1);
+            TourActivity act = tour.get(k);
+            double arrTime = endTime + routingCosts.getTransportTime(prevAct.getLocation(), act.getLocation(), endTime, null, vehicle);
+            endTime = Math.max(arrTime, act.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(act, arrTime, null, vehicle);
+        }
+        return endTime;
+    }
+
     @Test
     public void whenCalculatingInsertionIntoExistingRoute_itShouldReturnCorrectCosts() {
         Shipment shipment = Shipment.Builder.newInstance("s").addSizeDimension(0, 1).setPickupLocation(Location.Builder.newInstance().setId("0,10").build()).setDeliveryLocation(Location.newInstance("10,0")).build();
@@ -17,6 +17,7 @@
  */
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.algorithm.state.StateId;
 import com.graphhopper.jsprit.core.algorithm.state.StateManager;
 import com.graphhopper.jsprit.core.algorithm.state.UpdateActivityTimes;
 import com.graphhopper.jsprit.core.algorithm.state.UpdateFutureWaitingTimes;
@@ -34,6 +35,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
@@ -418,6 +420,69 @@ public class TestLocalActivityInsertionCostsCalculator {
 		 */
     }
 
+    @Test
+    public void whenStateGetterOnlyProvidesBoxedStates_itShouldCalcSameInsertionCosts() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").setCostPerWaitingTime(1.).build();
+
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+
+        Service prevS = Service.Builder.newInstance("prev").setLocation(Location.newInstance(10, 0)).build();
+        Service newS = Service.Builder.newInstance("new").setServiceTime(10).setTimeWindow(TimeWindow.newInstance(100, 120)).setLocation(Location.newInstance(20, 0)).build();
+        Service nextS = Service.Builder.newInstance("next").setLocation(Location.newInstance(30, 0)).setTimeWindow(TimeWindow.newInstance(40, 500)).build();
+        Service afterNextS = Service.Builder.newInstance("afterNext").setLocation(Location.newInstance(40, 0)).setTimeWindow(TimeWindow.newInstance(80, 500)).build();
+        Service afterAfterNextS = Service.Builder.newInstance("afterAfterNext").setLocation(Location.newInstance(40, 0)).setTimeWindow(TimeWindow.newInstance(100, 500)).build();
+
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(v).addJob(prevS).addJob(newS).addJob(nextS)
+            .addJob(afterNextS).addJob(afterAfterNextS).build();
+
+        TourActivity prevAct = vrp.getActivities(prevS).get(0);
+        TourActivity newAct = vrp.getActivities(newS).get(0);
+        newAct.setTheoreticalEarliestOperationStartTime(100);
+        newAct.setTheoreticalLatestOperationStartTime(120);
+        TourActivity nextAct = vrp.getActivities(nextS).get(0);
+        nextAct.setTheoreticalEarliestOperationStartTime(40);
+        nextAct.setTheoreticalLatestOperationStartTime(500);
+        TourActivity afterNextAct = vrp.getActivities(afterNextS).get(0);
+        afterNextAct.setTheoreticalEarliestOperationStartTime(80);
+        afterNextAct.setTheoreticalLatestOperationStartTime(500);
+        TourActivity afterAfterNextAct = vrp.getActivities(afterAfterNextS).get(0);
+        afterAfterNextAct.setTheoreticalEarliestOperationStartTime(100);
+        afterAfterNextAct.setTheoreticalLatestOperationStartTime(500);
+
+        VehicleRoute route = VehicleRoute.Builder.newInstance(v).setJobActivityFactory(vrp.getJobActivityFactory()).addService(prevS).addService(nextS).addService(afterNextS).addService(afterAfterNextS).build();
+
+        final StateManager stateManager = getStateManager(vrp, route);
+        RouteAndActivityStateGetter boxedStates = new RouteAndActivityStateGetter() {
+
+            @Override
+            public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
+                return stateManager.getActivityState(act, stateId, type);
+            }
+
+            @Override
+            public <T> T getActivityState(TourActivity act, Vehicle vehicle, StateId stateId, Class<T> type) {
+                return stateManager.getActivityState(act, vehicle, stateId, type);
+            }
+
+            @Override
+            public <T> T getRouteState(VehicleRoute route, StateId stateId, Class<T> type) {
+                return stateManager.getRouteState(route, stateId, type);
+            }
+
+            @Override
+            public <T> T getRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, Class<T> type) {
+                return stateManager.getRouteState(route, vehicle, stateId, type);
+            }
+
+        };
+
+        JobInsertionContext context = new JobInsertionContext(route, newS, v, null, 0.);
+        LocalActivityInsertionCostsCalculator calc = new LocalActivityInsertionCostsCalculator(CostFactory.createEuclideanCosts(), new WaitingTimeCosts(), boxedStates);
+        calc.setSolutionCompletenessRatio(1.);
+        double c = calc.getCosts(context, prevAct, nextAct, newAct, 10);
+        assertEquals(20., c, 0.01);
+    }
+
     @Test
     public void whenAddingNewWithTWBetweenTwoActs4_itShouldCalcInsertionCostsCorrectly() {
         VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").setCostPerWaitingTime(1.).build();
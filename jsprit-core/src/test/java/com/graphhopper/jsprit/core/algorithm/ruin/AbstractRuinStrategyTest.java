@@ -0,0 +1,121 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AbstractRuinStrategyTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private Service s1;
+
+    private Service s2;
+
+    private Service s3;
+
+    private Service unassigned;
+
+    private VehicleRoute route1;
+
+    private VehicleRoute route2;
+
+    @Before
+    public void doBefore() {
+        s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(1, 0)).build();
+        s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(2, 0)).build();
+        s3 = Service.Builder.newInstance("s3").setLocation(Location.newInstance(3, 0)).build();
+        unassigned = Service.Builder.newInstance("s4").setLocation(Location.newInstance(4, 0)).build();
+        VehicleImpl v1 = VehicleImpl.Builder.newInstance("v1").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance(0, 0)).build();
+        vrp = VehicleRoutingProblem.Builder.newInstance().addJob(s1).addJob(s2).addJob(s3).addJob(unassigned)
+            .addVehicle(v1).addVehicle(v2).build();
+        route1 = VehicleRoute.Builder.newInstance(v1).setJobActivityFactory(vrp.getJobActivityFactory()).addService(s1).addService(s2).build();
+        route2 = VehicleRoute.Builder.newInstance(v2).setJobActivityFactory(vrp.getJobActivityFactory()).addService(s3).build();
+    }
+
+    private AbstractRuinStrategy createStrategy(final List<Job> jobsToRemove, final List<Boolean> removed) {
+        return new AbstractRuinStrategy(vrp) {
+            @Override
+            public Collection<Job> ruinRoutes(Collection<VehicleRoute> vehicleRoutes) {
+                List<Job> ruined = new ArrayList<Job>();
+                for (Job j : jobsToRemove) {
+                    boolean r = removeJob(j, vehicleRoutes);
+                    removed.add(r);
+                    if (r) ruined.add(j);
+                }
+                return ruined;
+            }
+        };
+    }
+
+    @Test
+    public void whenRuining_jobsShouldBeRemovedFromTheirRoutes() {
+        List<Boolean> removed = new ArrayList<Boolean>();
+        AbstractRuinStrategy strategy = createStrategy(Arrays.<Job>asList(s3, s1, unassigned, s1), removed);
+        RuinListener listener = mock(RuinListener.class);
+        strategy.addListener(listener);
+        Collection<Job> ruined = strategy.ruin(Arrays.asList(route1, route2));
+        Assert.assertEquals(Arrays.asList(true, true, false, false), removed);
+        Assert.assertEquals(2, ruined.size());
+        Assert.assertTrue(route2.isEmpty());
+        Assert.assertEquals(1, route1.getActivities().size());
+        verify(listener).removed(s3, route2);
+        verify(listener).removed(s1, route1);
+    }
+
+    @Test
+    public void whenRuiningTwice_routesOfSecondRuinShouldBeLookedUp() {
+        List<Boolean> removed = new ArrayList<Boolean>();
+        createStrategy(Arrays.<Job>asList(s1), removed).ruin(Arrays.asList(route1, route2));
+        AbstractRuinStrategy strategy = createStrategy(Arrays.<Job>asList(s2, s3), removed);
+        strategy.ruin(Arrays.asList(route1, route2));
+        VehicleRoute route3 = VehicleRoute.Builder.newInstance(route1.getVehicle()).setJobActivityFactory(vrp.getJobActivityFactory()).addService(s1).build();
+        strategy = createStrategy(Arrays.<Job>asList(s1), removed);
+        strategy.ruin(Arrays.asList(route1, route2, route3));
+        Assert.assertEquals(Arrays.asList(true, true, true, true), removed);
+        Assert.assertTrue(route3.isEmpty());
+    }
+
+    @Test
+    public void whenNotRuining_routesShouldBeSearched() {
+        AbstractRuinStrategy strategy = createStrategy(new ArrayList<Job>(), new ArrayList<Boolean>());
+        Assert.assertSame(route2, strategy.findRoute(s3, Arrays.asList(route1, route2)));
+        Assert.assertNull(strategy.findRoute(unassigned, Arrays.asList(route1, route2)));
+        Assert.assertTrue(strategy.removeJob(s2, Arrays.asList(route1, route2)));
+        Assert.assertNull(strategy.findRoute(s2, Arrays.asList(route1, route2)));
+    }
+
+}
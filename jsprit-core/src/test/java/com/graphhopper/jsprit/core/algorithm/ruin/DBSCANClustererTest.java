@@ -18,16 +18,21 @@
 
 package com.graphhopper.jsprit.core.algorithm.ruin;
 
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.util.EuclideanCosts;
 import junit.framework.Assert;
+import org.apache.commons.math3.ml.clustering.Cluster;
+import org.apache.commons.math3.ml.clustering.DoublePoint;
+import org.apache.commons.math3.ml.distance.EuclideanDistance;
 import org.junit.Test;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * Created by schroeder on 06/03/15.
@@ -86,4 +91,105 @@ public class DBSCANClustererTest {
         Assert.assertEquals(3, cluster.size());
 
     }
+
+    @Test
+    public void itShouldFindSameClustersAsCommonsMathDBSCAN() {
+        VehicleRoutingProblem vrp = createRandomProblem(60);
+        VehicleRoute r = createRoute(vrp);
+        for (int minPts = 1; minPts <= 3; minPts++) {
+            for (double eps : new double[]{2, 5, 10}) {
+                DBSCANClusterer c = new DBSCANClusterer(new EuclideanCosts());
+                c.setMinPts(minPts);
+                c.setEpsDistance(eps);
+                List<List<Job>> clusters = c.getClusters(r);
+
+                Map<DoublePoint, Job> points = new LinkedHashMap<DoublePoint, Job>();
+                for (Job job : vrp.getJobs().values()) {
+                    Location l = ((Service) job).getLocation();
+                    points.put(new DoublePoint(new double[]{l.getCoordinate().getX(), l.getCoordinate().getY()}), job);
+                }
+                List<Cluster<DoublePoint>> expected = new org.apache.commons.math3.ml.clustering.DBSCANClusterer<DoublePoint>(eps, minPts, new EuclideanDistance()).cluster(points.keySet());
+                Set<Set<Job>> expectedClusters = new HashSet<Set<Job>>();
+                for (Cluster<DoublePoint> cluster : expected) {
+                    Set<Job> jobs = new HashSet<Job>();
+                    for (DoublePoint p : cluster.getPoints()) jobs.add(points.get(p));
+                    expectedClusters.add(jobs);
+                }
+                Assert.assertEquals(expectedClusters, toSets(clusters));
+            }
+        }
+    }
+
+    @Test
+    public void whenNeighborhoodsAreSet_itShouldFindSameClustersWithLessDistanceCalculations() {
+        VehicleRoutingProblem vrp = createRandomProblem(60);
+        VehicleRoute r = createRoute(vrp);
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), 20);
+        neighborhoods.initialise();
+
+        DBSCANClusterer allPairs = new DBSCANClusterer(vrp.getTransportCosts());
+        allPairs.setMinPts(2);
+        allPairs.setEpsDistance(5);
+        DBSCANClusterer withNeighborhoods = new DBSCANClusterer(vrp.getTransportCosts());
+        withNeighborhoods.setMinPts(2);
+        withNeighborhoods.setEpsDistance(5);
+        withNeighborhoods.setJobNeighborhoods(neighborhoods);
+
+        Assert.assertEquals(toSets(allPairs.getClusters(r)), toSets(withNeighborhoods.getClusters(r)));
+        Assert.assertTrue(withNeighborhoods.getNoCalculatedDistances() < allPairs.getNoCalculatedDistances());
+    }
+
+    @Test
+    public void whenRouteHasNotChanged_itShouldNotCalculateDistancesAgain() {
+        VehicleRoutingProblem vrp = createRandomProblem(20);
+        VehicleRoute r = createRoute(vrp);
+        DBSCANClusterer c = new DBSCANClusterer(vrp.getTransportCosts());
+        c.setEpsDistance(5);
+
+        List<List<Job>> clusters = c.getClusters(r);
+        long noCalculatedDistances = c.getNoCalculatedDistances();
+        Assert.assertEquals(20 * 19, noCalculatedDistances);
+        Assert.assertEquals(toSets(clusters), toSets(c.getClusters(VehicleRoute.copyOf(r))));
+        Assert.assertEquals(noCalculatedDistances, c.getNoCalculatedDistances());
+
+        r.getTourActivities().removeJob(r.getTourActivities().getJobs().iterator().next());
+        c.getClusters(r);
+        Assert.assertEquals(noCalculatedDistances + 19 * 18, c.getNoCalculatedDistances());
+    }
+
+    @Test
+    public void whenCacheIsDisabled_itShouldCalculateDistancesAgain() {
+        VehicleRoutingProblem vrp = createRandomProblem(20);
+        VehicleRoute r = createRoute(vrp);
+        DBSCANClusterer c = new DBSCANClusterer(vrp.getTransportCosts());
+        c.setEpsDistance(5);
+        c.setCacheCapacity(0);
+
+        c.getClusters(r);
+        c.getClusters(r);
+        Assert.assertEquals(2 * 20 * 19, c.getNoCalculatedDistances());
+    }
+
+    private VehicleRoutingProblem createRandomProblem(int noJobs) {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < noJobs; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(50 * random.nextDouble(), 50 * random.nextDouble())).build());
+        }
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build());
+        return vrpBuilder.build();
+    }
+
+    private VehicleRoute createRoute(VehicleRoutingProblem vrp) {
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vrp.getVehicles().iterator().next())
+            .setJobActivityFactory(vrp.getJobActivityFactory());
+        for (Job job : vrp.getJobs().values()) routeBuilder.addService((Service) job);
+        return routeBuilder.build();
+    }
+
+    private Set<Set<Job>> toSets(List<List<Job>> clusters) {
+        Set<Set<Job>> sets = new HashSet<Set<Job>>();
+        for (List<Job> cluster : clusters) sets.add(new HashSet<Job>(cluster));
+        return sets;
+    }
 }
@@ -0,0 +1,184 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class JobNeighborhoodsIndexTest {
+
+    @Test
+    public void selectAndSortShouldReturnSmallestElementsInOrder() {
+        Random random = new Random(42);
+        for (int run = 0; run < 50; run++) {
+            int n = 1 + random.nextInt(200);
+            int k = random.nextInt(n + 1);
+            double[] distances = new double[n];
+            int[] jobIndices = new int[n];
+            long[] expected = new long[n];
+            for (int i = 0; i < n; i++) {
+                distances[i] = random.nextInt(20);
+                jobIndices[i] = i;
+                expected[i] = (long) distances[i] * 1000 + i;
+            }
+            Arrays.sort(expected);
+            JobNeighborhoodsIndex.select(distances, jobIndices, 0, n - 1, k);
+            JobNeighborhoodsIndex.sort(distances, jobIndices, 0, k - 1);
+            long[] actual = new long[k];
+            for (int i = 0; i < k; i++) actual[i] = (long) distances[i] * 1000 + jobIndices[i];
+            assertArrayEquals(Arrays.copyOf(expected, k), actual);
+        }
+    }
+
+    @Test
+    public void whenRequestingNeighbors_theyShouldBeSortedByDistance() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < 30; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(0, i)).build());
+        }
+        VehicleRoutingProblem vrp = builder.build();
+        JobNeighborhoodsIndex index = new JobNeighborhoodsIndex(vrp, new EuclideanServiceDistance(), 5);
+        index.initialise();
+        Job target = vrp.getJobs().get("s10");
+        List<String> neighbors = new ArrayList<String>();
+        Iterator<Job> iter = index.getNearestNeighborsIterator(10, target);
+        while (iter.hasNext()) neighbors.add(iter.next().getId());
+        //jobs with equal distance are ordered by job index
+        assertEquals(Arrays.asList("s9", "s11", "s8", "s12", "s7"), neighbors);
+        assertEquals(29., index.getMaxDistance(), 0.01);
+    }
+
+    @Test
+    public void whenCapacityIsZero_itShouldReturnNoNeighbors() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance()
+            .addJob(Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 1)).build())
+            .addJob(Service.Builder.newInstance("s2").setLocation(Location.newInstance(0, 2)).build()).build();
+        JobNeighborhoodsIndex index = new JobNeighborhoodsIndex(vrp, new EuclideanServiceDistance(), 0);
+        index.initialise();
+        assertFalse(index.getNearestNeighborsIterator(2, vrp.getJobs().get("s1")).hasNext());
+    }
+
+    @Test
+    public void whenThereAreNoJobs_initialiseShouldNotFail() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().build();
+        JobNeighborhoodsIndex index = new JobNeighborhoodsIndex(vrp, new EuclideanServiceDistance(), 10);
+        index.initialise();
+        assertEquals(0., index.getMaxDistance(), 0.01);
+    }
+
+    @Test
+    public void whenThereIsOnlyOneJob_itShouldReturnNoNeighbors() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance()
+            .addJob(Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 1)).build()).build();
+        JobNeighborhoodsIndex index = new JobNeighborhoodsIndex(vrp, new EuclideanServiceDistance(), 10);
+        index.initialise();
+        assertFalse(index.getNearestNeighborsIterator(10, vrp.getJobs().get("s1")).hasNext());
+        assertEquals(0., index.getMaxDistance(), 0.01);
+    }
+
+    @Test
+    public void kdTreeAndConcurrentCalculationShouldYieldSameNeighborsAsSequentialBruteForce() throws InterruptedException {
+        Random random = new Random(3);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < 200; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextInt(50), random.nextInt(50))).build());
+        }
+        VehicleRoutingProblem vrp = builder.build();
+        final EuclideanServiceDistance euclidean = new EuclideanServiceDistance();
+        JobDistance bruteForceDistance = new JobDistance() {
+            @Override
+            public double getDistance(Job i, Job j) {
+                return euclidean.getDistance(i, j);
+            }
+        };
+        JobNeighborhoodsIndex bruteForce = new JobNeighborhoodsIndex(vrp, bruteForceDistance, 10);
+        bruteForce.initialise();
+        JobNeighborhoodsIndex kdTree = new JobNeighborhoodsIndex(vrp, euclidean, 10);
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        kdTree.setExecutorService(executorService, 3);
+        kdTree.initialise();
+        executorService.shutdown();
+        assertEquals(bruteForce.getMaxDistance(), kdTree.getMaxDistance(), 0.0001);
+        for (Job job : vrp.getJobs().values()) {
+            assertEquals(ids(bruteForce.getNearestNeighborsIterator(10, job)), ids(kdTree.getNearestNeighborsIterator(10, job)));
+        }
+    }
+
+    @Test
+    public void whenInterruptedWhileCalculatingConcurrently_itShouldCancelCalculationAndThrowException() throws InterruptedException {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance()
+            .addJob(Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 1)).build())
+            .addJob(Service.Builder.newInstance("s2").setLocation(Location.newInstance(0, 2)).build()).build();
+        JobDistance blockingDistance = new JobDistance() {
+            @Override
+            public double getDistance(Job i, Job j) {
+                try {
+                    //blocks until the calculation is cancelled
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 0.;
+            }
+        };
+        JobNeighborhoodsIndex index = new JobNeighborhoodsIndex(vrp, blockingDistance, 1);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        index.setExecutorService(executorService, 2);
+        Thread.currentThread().interrupt();
+        try {
+            index.initialise();
+            fail("initialise should throw an exception if it is interrupted");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+            assertTrue(Thread.interrupted());
+        } finally {
+            executorService.shutdown();
+        }
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private List<String> ids(Iterator<Job> iterator) {
+        List<String> ids = new ArrayList<String>();
+        while (iterator.hasNext()) ids.add(iterator.next().getId());
+        return ids;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+public class KdTreeTest {
+
+    @Test
+    public void nearestNeighborsShouldEqualBruteForceNeighbors() {
+        Random random = new Random(1);
+        for (int run = 0; run < 20; run++) {
+            int n = 1 + random.nextInt(300);
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            for (int i = 0; i < n; i++) {
+                //small value range to get equal coordinates and distances
+                xs[i] = random.nextInt(15);
+                ys[i] = random.nextInt(15);
+            }
+            KdTree tree = new KdTree(xs, ys);
+            int k = random.nextInt(n);
+            for (int point = 0; point < n; point++) {
+                int[] ids = new int[k];
+                double[] distances = new double[k];
+                int found = tree.nearestNeighbors(point, k, ids, distances);
+                assertEquals(Math.min(k, n - 1), found);
+                long[] actual = new long[found];
+                for (int i = 0; i < found; i++) actual[i] = key(distances[i], ids[i]);
+                Arrays.sort(actual);
+                assertArrayEquals(bruteForce(xs, ys, point, found), actual);
+            }
+        }
+    }
+
+    @Test
+    public void farthestPairShouldEqualBruteForcePair() {
+        Random random = new Random(2);
+        for (int run = 0; run < 20; run++) {
+            int n = 2 + random.nextInt(300);
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = random.nextDouble() * 100;
+                ys[i] = random.nextDouble() * 100;
+            }
+            double max = 0.;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) max = Math.max(max, squaredDistance(xs, ys, i, j));
+            }
+            int[] pair = new KdTree(xs, ys).farthestPair();
+            assertEquals(max, squaredDistance(xs, ys, pair[0], pair[1]), 0.0001);
+        }
+    }
+
+    private long[] bruteForce(double[] xs, double[] ys, int point, int k) {
+        long[] keys = new long[xs.length - 1];
+        int n = 0;
+        for (int i = 0; i < xs.length; i++) {
+            if (i == point) continue;
+            keys[n++] = key(squaredDistance(xs, ys, point, i), i);
+        }
+        Arrays.sort(keys);
+        return Arrays.copyOf(keys, k);
+    }
+
+    private static long key(double squaredDistance, int id) {
+        return (long) squaredDistance * 100000 + id;
+    }
+
+    private static double squaredDistance(double[] xs, double[] ys, int i, int j) {
+        double dx = xs[i] - xs[j];
+        double dy = ys[i] - ys[j];
+        return dx * dx + dy * dy;
+    }
+
+}
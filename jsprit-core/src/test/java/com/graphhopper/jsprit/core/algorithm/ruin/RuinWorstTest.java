@@ -24,14 +24,19 @@ import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.util.Coordinate;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -213,5 +218,112 @@ public class RuinWorstTest {
 
     }
 
+    @Test
+    public void whenRouteContainsInitialJob_itShouldNotBeRemoved() {
+        Service s1 = Service.Builder.newInstance("s1")
+            .setLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(1, 1)).build()).build();
+        Service s2 = Service.Builder.newInstance("s2")
+            .setLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(3, 1)).build()).build();
+        Service initial = Service.Builder.newInstance("initial")
+            .setLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(10, 10)).build()).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v")
+            .setStartLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(0, 0)).build()).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addJob(s1).addJob(s2).addVehicle(v).build();
+        RuinWorst worst = new RuinWorst(vrp, 1);
+
+        VehicleRoute route = VehicleRoute.Builder.newInstance(v).addService(s1).addService(s2).addService(initial).build();
+        Collection<Job> unassigned = worst.ruinRoutes(Arrays.asList(route));
+
+        assertEquals(1, unassigned.size());
+        assertFalse(unassigned.contains(initial));
+        assertTrue(unassigned.contains(s2));
+    }
+
+    @Test
+    public void whenRemovingManyJobs_itShouldRemoveSameJobsAsReevaluatingAllRoutes() {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        List<VehicleImpl> vehicles = new ArrayList<VehicleImpl>();
+        for (int i = 0; i < 3; i++) {
+            VehicleImpl v = VehicleImpl.Builder.newInstance("v" + i)
+                .setStartLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(50, 50)).build()).build();
+            vehicles.add(v);
+            vrpBuilder.addVehicle(v);
+        }
+        List<Job> jobs = new ArrayList<Job>();
+        for (int i = 0; i < 30; i++) {
+            Job job;
+            if (i % 5 == 0) {
+                job = Shipment.Builder.newInstance("ship" + i)
+                    .setPickupLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(random.nextInt(100), random.nextInt(100))).build())
+                    .setDeliveryLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(random.nextInt(100), random.nextInt(100))).build()).build();
+            } else {
+                job = Service.Builder.newInstance("s" + i)
+                    .setLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(random.nextInt(100), random.nextInt(100))).build()).build();
+            }
+            jobs.add(job);
+            vrpBuilder.addJob(job);
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        RuinWorst worst = new RuinWorst(vrp, 20);
+
+        Collection<Job> unassigned = worst.ruinRoutes(createRoutes(vrp, vehicles, jobs));
+
+        List<VehicleRoute> routes = createRoutes(vrp, vehicles, jobs);
+        List<Job> expected = new ArrayList<Job>();
+        for (int i = 0; i < 20; i++) {
+            Job job = getWorst(vrp, routes);
+            for (VehicleRoute route : routes) route.getTourActivities().removeJob(job);
+            expected.add(job);
+        }
+        assertEquals(expected, new ArrayList<Job>(unassigned));
+    }
+
+    private List<VehicleRoute> createRoutes(VehicleRoutingProblem vrp, List<VehicleImpl> vehicles, List<Job> jobs) {
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        for (int r = 0; r < vehicles.size(); r++) {
+            VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicles.get(r)).setJobActivityFactory(vrp.getJobActivityFactory());
+            List<Shipment> shipments = new ArrayList<Shipment>();
+            for (int i = r; i < jobs.size(); i += vehicles.size()) {
+                Job job = jobs.get(i);
+                if (job instanceof Shipment) {
+                    routeBuilder.addPickup((Shipment) job);
+                    shipments.add((Shipment) job);
+                } else routeBuilder.addService((Service) job);
+            }
+            for (Shipment shipment : shipments) routeBuilder.addDelivery(shipment);
+            routes.add(routeBuilder.build());
+        }
+        return routes;
+    }
+
+    private Job getWorst(VehicleRoutingProblem vrp, List<VehicleRoute> routes) {
+        Job worst = null;
+        double worstSavings = 0;
+        for (VehicleRoute route : routes) {
+            List<TourActivity> acts = new ArrayList<TourActivity>();
+            acts.add(route.getStart());
+            acts.addAll(route.getActivities());
+            acts.add(route.getEnd());
+            for (TourActivity act : route.getActivities()) {
+                Job job = ((TourActivity.JobActivity) act).getJob();
+                double savings = 0;
+                for (int i = 1; i < acts.size() - 1; i++) {
+                    if (((TourActivity.JobActivity) acts.get(i)).getJob() != job) continue;
+                    double s = c(vrp, acts.get(i - 1), acts.get(i)) + c(vrp, acts.get(i), acts.get(i + 1)) - c(vrp, acts.get(i - 1), acts.get(i + 1));
+                    savings += Math.max(0, s);
+                }
+                if (savings > worstSavings) {
+                    worstSavings = savings;
+                    worst = job;
+                }
+            }
+        }
+        return worst;
+    }
+
+    private double c(VehicleRoutingProblem vrp, TourActivity from, TourActivity to) {
+        return vrp.getTransportCosts().getTransportCost(from.getLocation(), to.getLocation(), 0, null, null);
+    }
 
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DirtyIndicesTest {
+
+    @Test
+    public void whenMarkingIndexTwice_itShouldBeMemorizedOnce() {
+        DirtyIndices dirtyIndices = new DirtyIndices(5);
+        dirtyIndices.mark(3);
+        dirtyIndices.mark(3);
+        assertEquals(1, dirtyIndices.size());
+        assertEquals(3, dirtyIndices.get(0));
+        assertTrue(dirtyIndices.isMarked(3));
+    }
+
+    @Test
+    public void whenResetting_noIndexShouldBeMarked() {
+        DirtyIndices dirtyIndices = new DirtyIndices(5);
+        dirtyIndices.mark(1);
+        dirtyIndices.mark(4);
+        dirtyIndices.reset();
+        assertEquals(0, dirtyIndices.size());
+        assertFalse(dirtyIndices.isMarked(1));
+        assertFalse(dirtyIndices.isMarked(4));
+        dirtyIndices.mark(4);
+        assertEquals(1, dirtyIndices.size());
+    }
+
+}
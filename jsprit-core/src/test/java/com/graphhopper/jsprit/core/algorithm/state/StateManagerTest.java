@@ -356,4 +356,156 @@ public class StateManagerTest {
         }
         stateManager.putTypedInternalRouteState(route,myState,1.);
     }
+
+    @Test
+    public void whenDoubleActivityStateIsSet_itMustBeSetCorrectly() {
+        TourActivity act = mock(TourActivity.class);
+        when(act.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createDoubleStateId("myDoubleState");
+        stateManager.putDoubleActivityState(act, id, 2.5);
+        assertEquals(2.5, stateManager.getDoubleActivityState(act, id), 0.01);
+        assertEquals(2.5, stateManager.getActivityState(act, id, Double.class), 0.01);
+    }
+
+    @Test
+    public void whenDoubleActivityStateIsNotSet_itShouldReturnNaN() {
+        TourActivity act = mock(TourActivity.class);
+        when(act.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createDoubleStateId("myDoubleState");
+        assertTrue(Double.isNaN(stateManager.getDoubleActivityState(act, id)));
+        assertNull(stateManager.getActivityState(act, id, Double.class));
+    }
+
+    @Test
+    public void whenVehicleDependentDoubleActivityStateIsSet_itMustBeSetCorrectly() {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(4.).build();
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("loc")).build();
+        VehicleImpl vehicle2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance("loc")).setType(type).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addVehicle(vehicle2).build();
+
+        TourActivity act = mock(TourActivity.class);
+        when(act.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrp);
+        StateId id = stateManager.createDoubleStateId("myDoubleState");
+        stateManager.putDoubleActivityState(act, vehicle, id, 1.);
+        stateManager.putDoubleActivityState(act, vehicle2, id, 4.);
+        assertEquals(1., stateManager.getDoubleActivityState(act, vehicle, id), 0.01);
+        assertEquals(4., stateManager.getDoubleActivityState(act, vehicle2, id), 0.01);
+        assertTrue(stateManager.hasActivityState(act, vehicle, id));
+    }
+
+    @Test
+    public void whenIntActivityStateIsSet_itMustBeSetCorrectly() {
+        TourActivity act = mock(TourActivity.class);
+        when(act.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createIntStateId("myIntState");
+        assertEquals(StateManager.NO_INT_STATE, stateManager.getIntActivityState(act, id));
+        stateManager.putIntActivityState(act, id, 3);
+        assertEquals(3, stateManager.getIntActivityState(act, id));
+        assertEquals(3, (int) stateManager.getActivityState(act, id, Integer.class));
+    }
+
+    @Test
+    public void whenClearing_typedActivityStatesShouldBeReset() {
+        TourActivity act = mock(TourActivity.class);
+        when(act.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId doubleId = stateManager.createDoubleStateId("myDoubleState");
+        StateId intId = stateManager.createIntStateId("myIntState");
+        stateManager.putDoubleActivityState(act, doubleId, 2.);
+        stateManager.putIntActivityState(act, intId, 2);
+        stateManager.clear();
+        assertTrue(Double.isNaN(stateManager.getDoubleActivityState(act, doubleId)));
+        assertEquals(StateManager.NO_INT_STATE, stateManager.getIntActivityState(act, intId));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenCreatingStateWithSameNameButDifferentType_itShouldThrowException() {
+        StateManager stateManager = new StateManager(vrpMock);
+        stateManager.createStateId("myState");
+        stateManager.createDoubleStateId("myState");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenPuttingDoubleStateWithObjectStateId_itShouldThrowException() {
+        TourActivity act = mock(TourActivity.class);
+        when(act.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putDoubleActivityState(act, id, 1.);
+    }
+
+    @Test
+    public void whenInternalCostStateIsSetAtActivity_itShouldBeRetrievableAsDouble() {
+        TourActivity act = mock(TourActivity.class);
+        when(act.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        stateManager.putInternalTypedActivityState(act, InternalStates.COSTS, 10.);
+        assertEquals(10., stateManager.getDoubleActivityState(act, InternalStates.COSTS), 0.01);
+        assertEquals(10., stateManager.getActivityState(act, InternalStates.COSTS, Double.class), 0.01);
+    }
+
+    @Test
+    public void whenFleetIsFinite_routeStatesShouldBeMemorizedByVehicleIndex() {
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("loc")).build();
+        VehicleImpl vehicle2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance("loc")).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().setFleetSize(VehicleRoutingProblem.FleetSize.FINITE)
+            .addVehicle(vehicle).addVehicle(vehicle2).build();
+
+        VehicleRoute route = getRoute(vehicle);
+        VehicleRoute route2 = getRoute(vehicle2);
+        StateManager stateManager = new StateManager(vrp);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putRouteState(route, id, 1.);
+        stateManager.putRouteState(route2, id, 2.);
+        assertEquals(1., stateManager.getRouteState(route, id, Double.class), 0.01);
+        assertEquals(2., stateManager.getRouteState(route2, id, Double.class), 0.01);
+
+        stateManager.clear();
+        assertNull(stateManager.getRouteState(route, id, Double.class));
+    }
+
+    @Test
+    public void whenFleetIsFiniteAndVehicleIsSwitched_routeStatesShouldMoveToNewVehicle() {
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("loc")).build();
+        VehicleImpl vehicle2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance("loc")).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().setFleetSize(VehicleRoutingProblem.FleetSize.FINITE)
+            .addVehicle(vehicle).addVehicle(vehicle2).build();
+
+        VehicleRoute route = getRoute(vehicle);
+        StateManager stateManager = new StateManager(vrp);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putRouteState(route, id, 1.);
+        stateManager.putRouteState(route, vehicle, id, 3.);
+
+        stateManager.vehicleSwitched(route, vehicle, vehicle2);
+        route.setVehicleAndDepartureTime(vehicle2, 0.);
+        assertEquals(1., stateManager.getRouteState(route, id, Double.class), 0.01);
+        assertEquals(3., stateManager.getRouteState(route, vehicle, id, Double.class), 0.01);
+
+        VehicleRoute newRoute = getRoute(vehicle);
+        assertNull(stateManager.getRouteState(newRoute, id, Double.class));
+        assertFalse(stateManager.hasRouteState(newRoute, vehicle, id));
+    }
+
+    @Test
+    public void whenClearingAfterVehicleSwitch_routeStatesOfNewVehicleShouldBeReset() {
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("loc")).build();
+        VehicleImpl vehicle2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance("loc")).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().setFleetSize(VehicleRoutingProblem.FleetSize.FINITE)
+            .addVehicle(vehicle).addVehicle(vehicle2).build();
+
+        VehicleRoute route = getRoute(vehicle);
+        StateManager stateManager = new StateManager(vrp);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putRouteState(route, id, 1.);
+        stateManager.vehicleSwitched(route, vehicle, vehicle2);
+        route.setVehicleAndDepartureTime(vehicle2, 0.);
+
+        stateManager.clear();
+        assertNull(stateManager.getRouteState(route, id, Double.class));
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.analysis;
+
+import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
+import com.graphhopper.jsprit.core.algorithm.SearchStrategyModule;
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SolverMetricsTest {
+
+    @Test
+    public void whenStrategyIsSelected_itShouldBeCountedWithItsAcceptance() {
+        SolverMetrics metrics = new SolverMetrics();
+        VehicleRoutingProblemSolution solution = mock(VehicleRoutingProblemSolution.class);
+        for (int i = 0; i < 4; i++) {
+            metrics.informIterationStarts(i, null, Collections.<VehicleRoutingProblemSolution>emptyList());
+            metrics.informSelectedStrategy(new SearchStrategy.DiscoveredSolution(solution, i % 2 == 0, "radial"), null, Collections.<VehicleRoutingProblemSolution>emptyList());
+        }
+        metrics.informIterationStarts(4, null, Collections.<VehicleRoutingProblemSolution>emptyList());
+        metrics.informSelectedStrategy(new SearchStrategy.DiscoveredSolution(solution, false, "random"), null, Collections.<VehicleRoutingProblemSolution>emptyList());
+
+        SolverMetrics.Snapshot snapshot = metrics.getSnapshot();
+        Assert.assertEquals(2, snapshot.getStrategyMetrics().size());
+        SolverMetrics.StrategyMetrics radial = snapshot.getStrategyMetrics().get(0);
+        Assert.assertEquals("radial", radial.getStrategyId());
+        Assert.assertEquals(4, radial.getNoIterations());
+        Assert.assertEquals(2, radial.getNoAcceptedSolutions());
+        Assert.assertEquals(0.5, radial.getAcceptanceRate(), 0.001);
+        Assert.assertEquals(0., snapshot.getStrategyMetrics().get(1).getAcceptanceRate(), 0.001);
+    }
+
+    @Test
+    public void whenModulesRun_theyShouldBeRecordedPerStrategyAndModule() {
+        SolverMetrics metrics = new SolverMetrics();
+        SearchStrategy radial = mock(SearchStrategy.class);
+        when(radial.getId()).thenReturn("radial");
+        SearchStrategy random = mock(SearchStrategy.class);
+        when(random.getId()).thenReturn("random");
+        SearchStrategyModule module = mock(SearchStrategyModule.class);
+        when(module.getName()).thenReturn("ruin_and_recreate");
+        for (SearchStrategy strategy : Arrays.asList(radial, radial, random)) {
+            metrics.informModuleStarts(strategy, module, null);
+            metrics.informModuleEnds(strategy, module, null);
+        }
+
+        SolverMetrics.Snapshot snapshot = metrics.getSnapshot();
+        Assert.assertEquals(2, snapshot.getModuleMetrics().size());
+        SolverMetrics.ModuleMetrics radialModule = snapshot.getModuleMetrics().get(0);
+        Assert.assertEquals("radial", radialModule.getStrategyId());
+        Assert.assertEquals("ruin_and_recreate", radialModule.getModuleName());
+        Assert.assertEquals(2, radialModule.getNoRuns());
+        Assert.assertEquals(1, snapshot.getModuleMetrics().get(1).getNoRuns());
+        Assert.assertTrue(snapshot.toCsv().contains("module,radial/ruin_and_recreate,runs,2\n"));
+    }
+
+    @Test
+    public void whenConstraintsAreNotFulfilled_rejectionsShouldBeCountedPerConstraintClass() {
+        SolverMetrics metrics = new SolverMetrics();
+        JobInsertionContext iContext = mock(JobInsertionContext.class);
+        HardRouteConstraint routeConstraint = mock(HardRouteConstraint.class);
+        HardActivityConstraint actConstraint = mock(HardActivityConstraint.class);
+        metrics.informRouteConstraintsChecked(iContext);
+        metrics.informRouteConstraintsChecked(iContext);
+        metrics.informNotFulfilled(routeConstraint, iContext);
+        metrics.informNotFulfilled(actConstraint, HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED, iContext);
+        metrics.informNotFulfilled(actConstraint, HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED_BREAK, iContext);
+
+        SolverMetrics.Snapshot snapshot = metrics.getSnapshot();
+        Assert.assertEquals(2, snapshot.getNoInsertionCalculations());
+        Assert.assertEquals(1, snapshot.getConstraintRejections().get(routeConstraint.getClass().getSimpleName()).longValue());
+        Assert.assertEquals(2, snapshot.getConstraintRejections().get(actConstraint.getClass().getSimpleName()).longValue());
+    }
+
+    @Test
+    public void whenReset_snapshotShouldBeEmpty() {
+        SolverMetrics metrics = new SolverMetrics();
+        metrics.informRouteConstraintsChecked(mock(JobInsertionContext.class));
+        metrics.informNotFulfilled(mock(HardRouteConstraint.class), mock(JobInsertionContext.class));
+        metrics.reset();
+        SolverMetrics.Snapshot snapshot = metrics.getSnapshot();
+        Assert.assertEquals(0, snapshot.getNoInsertionCalculations());
+        Assert.assertTrue(snapshot.getConstraintRejections().isEmpty());
+        Assert.assertTrue(snapshot.getStrategyMetrics().isEmpty());
+    }
+
+    @Test
+    public void whenSolvingWithMetrics_everyIterationShouldBeRecorded() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 2).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v);
+        for (int i = 0; i < 6; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1).setLocation(Location.newInstance(i, 10 - i)).build());
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.setFleetSize(VehicleRoutingProblem.FleetSize.INFINITE).build();
+        SolverMetrics metrics = new SolverMetrics();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setSolverMetrics(metrics).buildAlgorithm();
+        vra.setMaxIterations(50);
+        vra.searchSolutions();
+
+        SolverMetrics.Snapshot snapshot = metrics.getSnapshot();
+        long noIterations = 0;
+        for (SolverMetrics.StrategyMetrics m : snapshot.getStrategyMetrics()) {
+            noIterations += m.getNoIterations();
+            Assert.assertTrue(m.getRecreateTime() <= m.getTime());
+        }
+        Assert.assertEquals(50, noIterations);
+        long noModuleRuns = 0;
+        for (SolverMetrics.ModuleMetrics m : snapshot.getModuleMetrics()) {
+            noModuleRuns += m.getNoRuns();
+        }
+        Assert.assertEquals(50, noModuleRuns);
+        Assert.assertTrue(snapshot.getNoInsertionCalculations() > 0);
+        Assert.assertTrue(snapshot.getConstraintRejections().containsKey("ServiceLoadRouteLevelConstraint"));
+        Assert.assertTrue(snapshot.toCsv().startsWith("type,name,metric,value\n"));
+    }
+
+}
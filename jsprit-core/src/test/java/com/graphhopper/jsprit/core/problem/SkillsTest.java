@@ -18,11 +18,14 @@
 
 package com.graphhopper.jsprit.core.problem;
 
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import org.junit.Test;
 
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -107,4 +110,56 @@ public class SkillsTest {
         assertTrue(skills.containsSkill("skill1"));
     }
 
+    @Test
+    public void whenSkillsAreNotInterned_containsAllShouldCompareSkillNames() {
+        Skills vehicleSkills = Skills.Builder.newInstance().addSkill("skill1").addSkill("skill2").build();
+        assertTrue(vehicleSkills.containsAll(Skills.Builder.newInstance().addSkill("Skill1").build()));
+        assertTrue(vehicleSkills.containsAll(Skills.Builder.newInstance().build()));
+        assertFalse(vehicleSkills.containsAll(Skills.Builder.newInstance().addSkill("skill1").addSkill("skill3").build()));
+    }
+
+    @Test
+    public void whenSkillsAreInternedByProblem_containsAllShouldCompareBitsets() {
+        Skills.Builder allSkills = Skills.Builder.newInstance();
+        for (int i = 0; i < 150; i++) allSkills.addSkill("skill" + i);
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0))
+            .addSkills(allSkills.build()).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance(0, 0))
+            .addSkill("skill3").addSkill("skill140").build();
+        Service s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(1, 1))
+            .addRequiredSkill("skill3").addRequiredSkill("skill140").build();
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(1, 1))
+            .addRequiredSkill("skill3").addRequiredSkill("skill141").build();
+        VehicleRoutingProblem.Builder.newInstance().addVehicle(v).addVehicle(v2).addJob(s1).addJob(s2).build();
+
+        assertTrue(v.getSkills().containsAll(s1.getRequiredSkills()));
+        assertTrue(v.getSkills().containsAll(s2.getRequiredSkills()));
+        assertTrue(v2.getSkills().containsAll(s1.getRequiredSkills()));
+        assertFalse(v2.getSkills().containsAll(s2.getRequiredSkills()));
+        assertFalse(s1.getRequiredSkills().containsAll(v.getSkills()));
+
+        Skills routeSkills = Skills.Builder.newInstance().addAllSkills(s1.getRequiredSkills()).addAllSkills(s2.getRequiredSkills()).build();
+        assertTrue(v.getSkills().containsAll(routeSkills));
+        assertFalse(v2.getSkills().containsAll(routeSkills));
+
+        Skills mixedSkills = Skills.Builder.newInstance().addAllSkills(s1.getRequiredSkills()).addSkill("skill200").build();
+        assertFalse(v.getSkills().containsAll(mixedSkills));
+    }
+
+    @Test
+    public void whenSkillsAreInternedByTwoProblems_containsAllShouldStillBeCorrect() {
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0))
+            .addSkill("skill1").addSkill("skill2").build();
+        Service s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(1, 1))
+            .addRequiredSkill("skill2").build();
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(1, 1))
+            .addRequiredSkill("skill3").addRequiredSkill("skill2").build();
+        VehicleRoutingProblem.Builder.newInstance().addVehicle(v).addJob(s1).build();
+        VehicleRoutingProblem.Builder.newInstance().addJob(s2).addJob(s1).addVehicle(VehicleImpl.Builder.newInstance("v2")
+            .setStartLocation(Location.newInstance(0, 0)).build()).build();
+
+        assertTrue(v.getSkills().containsAll(s1.getRequiredSkills()));
+        assertFalse(v.getSkills().containsAll(s2.getRequiredSkills()));
+    }
+
 }
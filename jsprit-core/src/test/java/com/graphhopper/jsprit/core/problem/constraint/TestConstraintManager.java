@@ -18,6 +18,8 @@
 package com.graphhopper.jsprit.core.problem.constraint;
 
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import org.junit.Test;
 
@@ -25,7 +27,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.mock;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
 
 public class TestConstraintManager {
 
@@ -87,4 +92,36 @@ public class TestConstraintManager {
         assertEquals(2, man.getConstraints().size());
     }
 
+    @Test
+    public void whenCheckingRouteConstraints_listenerShouldBeInformed() {
+        HardRouteConstraint c = mock(HardRouteConstraint.class);
+        JobInsertionContext iContext = mock(JobInsertionContext.class);
+        when(c.fulfilled(iContext)).thenReturn(false);
+        ConstraintManager man = new ConstraintManager(mock(VehicleRoutingProblem.class), mock(RouteAndActivityStateGetter.class));
+        man.addConstraint(c);
+        HardConstraintListener listener = mock(HardConstraintListener.class);
+        man.addListener(listener);
+        assertFalse(man.fulfilled(iContext));
+        verify(listener).informRouteConstraintsChecked(iContext);
+        verify(listener).informNotFulfilled(c, iContext);
+    }
+
+    @Test
+    public void whenCheckingActivityConstraints_listenerShouldOnlyBeInformedAboutConstraintsNotFulfilled() {
+        HardActivityConstraint fulfilled = mock(HardActivityConstraint.class);
+        HardActivityConstraint notFulfilled = mock(HardActivityConstraint.class);
+        JobInsertionContext iContext = mock(JobInsertionContext.class);
+        TourActivity act = mock(TourActivity.class);
+        when(fulfilled.fulfilled(iContext, act, act, act, 0.)).thenReturn(HardActivityConstraint.ConstraintsStatus.FULFILLED);
+        when(notFulfilled.fulfilled(iContext, act, act, act, 0.)).thenReturn(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED);
+        ConstraintManager man = new ConstraintManager(mock(VehicleRoutingProblem.class), mock(RouteAndActivityStateGetter.class));
+        man.addConstraint(fulfilled, ConstraintManager.Priority.CRITICAL);
+        man.addConstraint(notFulfilled, ConstraintManager.Priority.HIGH);
+        HardConstraintListener listener = mock(HardConstraintListener.class);
+        man.addListener(listener);
+        assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED, man.fulfilled(iContext, act, act, act, 0.));
+        verify(listener).informNotFulfilled(notFulfilled, HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED, iContext);
+        verify(listener, never()).informNotFulfilled(eq(fulfilled), any(HardActivityConstraint.ConstraintsStatus.class), any(JobInsertionContext.class));
+    }
+
 }
@@ -18,11 +18,14 @@
 package com.graphhopper.jsprit.core.problem.solution.route.activity;
 
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.*;
+
 import static org.junit.Assert.*;
 
 
@@ -235,4 +238,166 @@ public class TestTourActivities {
         assertTrue(copiedTour.servesJob(s));
     }
 
+    @Test
+    public void whenCopyingTourOnWrite_activitiesShouldBeSharedUntilCopyIsModified() {
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        assertSame(act, copiedTour.getActivities().get(0));
+
+        copiedTour.addActivity(0, ServiceActivity.newInstance(s2));
+        assertEquals(2, copiedTour.getActivities().size());
+        assertNotSame(act, copiedTour.getActivities().get(1));
+        assertTrue(copiedTour.servesJob(s2));
+        assertEquals(1, tour.getActivities().size());
+        assertSame(act, tour.getActivities().get(0));
+        assertFalse(tour.servesJob(s2));
+    }
+
+    @Test
+    public void whenModifyingOriginalTour_copyShouldNotChange() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        assertTrue(tour.removeJob(service));
+        assertTrue(tour.isEmpty());
+        assertFalse(tour.servesJob(service));
+        assertEquals(1, copiedTour.getActivities().size());
+        assertTrue(copiedTour.servesJob(service));
+    }
+
+    @Test
+    public void whenRemovingSharedActivity_itShouldBeRemovedFromCopyOnly() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        assertTrue(copiedTour.removeActivity(act));
+        assertTrue(copiedTour.isEmpty());
+        assertFalse(copiedTour.servesJob(service));
+        assertTrue(tour.servesJob(service));
+    }
+
+    @Test
+    public void whenCopyIsModified_reverseIteratorShouldReflectModification() {
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        copiedTour.reverseActivityIterator();
+        ServiceActivity act2 = ServiceActivity.newInstance(s2);
+        copiedTour.addActivity(act2);
+        Iterator<TourActivity> iterator = copiedTour.reverseActivityIterator();
+        assertSame(act2, iterator.next());
+        assertTrue(iterator.hasNext());
+    }
+
+    @Test
+    public void whenRemovingSeveralJobsOneByOne_remainingActivitiesShouldKeepTheirOrder() {
+        List<Service> services = new ArrayList<Service>();
+        for (int i = 0; i < 6; i++) {
+            Service s = Service.Builder.newInstance("s" + i).setLocation(Location.newInstance("loc" + i)).build();
+            services.add(s);
+            tour.addActivity(ServiceActivity.newInstance(s));
+        }
+        assertTrue(tour.removeJob(services.get(4)));
+        assertTrue(tour.removeJob(services.get(1)));
+        assertFalse(tour.removeJob(services.get(1)));
+        assertTrue(tour.removeJob(services.get(2)));
+        assertFalse(tour.isEmpty());
+        assertEquals(3, tour.jobSize());
+        assertEquals(3, tour.getActivities().size());
+        assertEquals(services.get(0), ((TourActivity.JobActivity) tour.getActivities().get(0)).getJob());
+        assertEquals(services.get(3), ((TourActivity.JobActivity) tour.getActivities().get(1)).getJob());
+        assertEquals(services.get(5), ((TourActivity.JobActivity) tour.getActivities().get(2)).getJob());
+    }
+
+    @Test
+    public void whenRemovingJobsAfterInsertion_positionsShouldBeUpToDate() {
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        Service s3 = Service.Builder.newInstance("s3").setLocation(Location.newInstance("loc3")).build();
+        tour.addActivity(act);
+        tour.addActivity(ServiceActivity.newInstance(s2));
+        assertTrue(tour.removeJob(service));
+        tour.addActivity(0, ServiceActivity.newInstance(s3));
+        assertTrue(tour.removeJob(s2));
+        assertEquals(1, tour.getActivities().size());
+        assertEquals(s3, ((TourActivity.JobActivity) tour.getActivities().get(0)).getJob());
+    }
+
+    @Test
+    public void whenRemovingShipmentAmongServices_bothActivitiesShouldBeRemoved() {
+        Shipment s = Shipment.Builder.newInstance("s").setDeliveryLocation(Location.newInstance("delLoc"))
+            .setPickupLocation(Location.newInstance("pickLoc")).build();
+        TourShipmentActivityFactory fac = new DefaultShipmentActivityFactory();
+        tour.addActivity(fac.createPickup(s));
+        tour.addActivity(act);
+        tour.addActivity(fac.createDelivery(s));
+        assertTrue(tour.removeJob(s));
+        assertEquals(1, tour.getActivities().size());
+        assertSame(act, tour.getActivities().get(0));
+        assertFalse(tour.servesJob(s));
+    }
+
+    @Test
+    public void whenRemovingJobsInBulk_onlyTheirActivitiesShouldBeRemoved() {
+        Shipment s = Shipment.Builder.newInstance("s").setDeliveryLocation(Location.newInstance("delLoc"))
+            .setPickupLocation(Location.newInstance("pickLoc")).build();
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        TourShipmentActivityFactory fac = new DefaultShipmentActivityFactory();
+        tour.addActivity(fac.createPickup(s));
+        tour.addActivity(act);
+        tour.addActivity(ServiceActivity.newInstance(s2));
+        tour.addActivity(fac.createDelivery(s));
+        assertTrue(tour.removeJobs(Arrays.<Job>asList(s, s2)));
+        assertEquals(1, tour.getActivities().size());
+        assertSame(act, tour.getActivities().get(0));
+        assertEquals(1, tour.jobSize());
+        assertTrue(tour.servesJob(service));
+        assertFalse(tour.removeJobs(Arrays.<Job>asList(s, s2)));
+    }
+
+    @Test
+    public void whenRemovingJobsInBulkFromCopy_originalShouldNotChange() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        assertTrue(copiedTour.removeJobs(Collections.<Job>singletonList(service)));
+        assertTrue(copiedTour.isEmpty());
+        assertEquals(1, tour.getActivities().size());
+        assertTrue(tour.servesJob(service));
+    }
+
+    @Test
+    public void whenHoldingActivitiesWhileRemovingJob_listShouldReflectRemoval() {
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        Service s3 = Service.Builder.newInstance("s3").setLocation(Location.newInstance("loc3")).build();
+        tour.addActivity(act);
+        tour.addActivity(ServiceActivity.newInstance(s2));
+        tour.addActivity(ServiceActivity.newInstance(s3));
+        List<TourActivity> activities = tour.getActivities();
+        assertTrue(tour.removeJob(s2));
+        assertEquals(2, activities.size());
+        for (TourActivity activity : activities) {
+            assertNotNull(activity);
+        }
+        assertSame(act, activities.get(0));
+        assertEquals(s3, ((TourActivity.JobActivity) activities.get(1)).getJob());
+    }
+
+    @Test
+    public void whenCopyingTour_activitiesShouldBeDuplicated() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOf(tour);
+        assertEquals(1, copiedTour.getActivities().size());
+        assertNotSame(act, copiedTour.getActivities().get(0));
+        assertTrue(copiedTour.servesJob(service));
+        copiedTour.getActivities().get(0).setArrTime(10.);
+        assertEquals(0., act.getArrTime(), 0.01);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void whenRemovingActivityWithIterator_itShouldThrowException() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWriteOf(tour);
+        Iterator<TourActivity> iterator = copiedTour.iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
 }
@@ -0,0 +1,181 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeKey;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CachedVehicleRoutingTransportCostsTest {
+
+    static class CountingCosts extends AbstractForwardVehicleRoutingTransportCosts {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+            calls.incrementAndGet();
+            return value(from, to, vehicle);
+        }
+
+        @Override
+        public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+            calls.incrementAndGet();
+            return 2 * value(from, to, vehicle);
+        }
+
+        double value(Location from, Location to, Vehicle vehicle) {
+            double factor = vehicle == null ? 1. : vehicle.getVehicleTypeIdentifier().getIndex() + 1;
+            return factor * (100 * from.getIndex() + to.getIndex());
+        }
+    }
+
+    private CountingCosts costs;
+
+    @Before
+    public void doBefore() {
+        costs = new CountingCosts();
+    }
+
+    @Test
+    public void whenRelationIsRequestedTwice_itShouldBeCalculatedOnce() {
+        CachedVehicleRoutingTransportCosts cache = new CachedVehicleRoutingTransportCosts(costs);
+        assertEquals(204., cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, null), 0.01);
+        assertEquals(204., cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 10., null, null), 0.01);
+        assertEquals(1, costs.calls.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void costsAndTimesShouldBeCachedSeparately() {
+        CachedVehicleRoutingTransportCosts cache = new CachedVehicleRoutingTransportCosts(costs);
+        assertEquals(204., cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, null), 0.01);
+        assertEquals(102., cache.getTransportTime(Location.newInstance(1), Location.newInstance(2), 0., null, null), 0.01);
+        assertEquals(102., cache.getBackwardTransportTime(Location.newInstance(1), Location.newInstance(2), 0., null, null), 0.01);
+        assertEquals(3, costs.calls.get());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void relationsShouldBeCachedPerVehicleType() {
+        CachedVehicleRoutingTransportCosts cache = new CachedVehicleRoutingTransportCosts(costs);
+        Vehicle v1 = vehicle(1);
+        Vehicle v2 = vehicle(2);
+        assertEquals(408., cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, v1), 0.01);
+        assertEquals(612., cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, v2), 0.01);
+        assertEquals(408., cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, v1), 0.01);
+        assertEquals(2, costs.calls.get());
+    }
+
+    @Test
+    public void whenVehicleIsNotPartOfProblem_itShouldNotBeCached() {
+        CachedVehicleRoutingTransportCosts cache = new CachedVehicleRoutingTransportCosts(costs);
+        Vehicle v = vehicle(0);
+        cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, v);
+        cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, v);
+        assertEquals(2, costs.calls.get());
+        assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    public void whenLocationsHaveNoIndex_itShouldCacheById() {
+        CachedVehicleRoutingTransportCosts cache = new CachedVehicleRoutingTransportCosts(new EuclideanCosts());
+        Location a = Location.Builder.newInstance().setId("a").setCoordinate(Coordinate.newInstance(0, 0)).build();
+        Location b = Location.Builder.newInstance().setId("b").setCoordinate(Coordinate.newInstance(3, 4)).build();
+        assertEquals(5., cache.getTransportCost(a, b, 0., null, null), 0.01);
+        assertEquals(5., cache.getTransportCost(a, b, 0., null, null), 0.01);
+        assertEquals(0., cache.getTransportCost(a, a, 0., null, null), 0.01);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void whenCapacityIsExceeded_itShouldStillReturnCorrectValues() {
+        CachedVehicleRoutingTransportCosts cache = new CachedVehicleRoutingTransportCosts(costs, 1);
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 50; i++) {
+                for (int j = 0; j < 50; j++) {
+                    assertEquals(2. * (100 * i + j), cache.getTransportCost(Location.newInstance(i), Location.newInstance(j), 0., null, null), 0.01);
+                }
+            }
+        }
+        assertTrue(cache.getMisses() > 2500);
+    }
+
+    @Test
+    public void clearShouldResetValuesAndCounters() {
+        CachedVehicleRoutingTransportCosts cache = new CachedVehicleRoutingTransportCosts(costs);
+        cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, null);
+        cache.clear();
+        assertEquals(0, cache.getMisses());
+        cache.getTransportCost(Location.newInstance(1), Location.newInstance(2), 0., null, null);
+        assertEquals(2, costs.calls.get());
+    }
+
+    @Test
+    public void whenUsedConcurrently_itShouldReturnCorrectValues() throws Exception {
+        final CachedVehicleRoutingTransportCosts cache = new CachedVehicleRoutingTransportCosts(costs, 512);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    boolean correct = true;
+                    for (int i = 0; i < 40; i++) {
+                        for (int j = 0; j < 40; j++) {
+                            double cost = cache.getTransportCost(Location.newInstance(i), Location.newInstance(j), 0., null, null);
+                            correct &= cost == 2. * (100 * i + j);
+                        }
+                    }
+                    return correct;
+                }
+            }));
+        }
+        for (Future<Boolean> f : futures) assertTrue(f.get());
+        executor.shutdown();
+        assertEquals(4 * 1600, cache.getHits() + cache.getMisses());
+    }
+
+    private Vehicle vehicle(int typeIndex) {
+        VehicleTypeKey typeKey = mock(VehicleTypeKey.class);
+        when(typeKey.getIndex()).thenReturn(typeIndex);
+        Vehicle v = mock(Vehicle.class);
+        when(v.getVehicleTypeIdentifier()).thenReturn(typeKey);
+        return v;
+    }
+
+}
@@ -96,5 +96,69 @@ public class FastVehicleRoutingTransportCostsMatrixTest {
         assertEquals(16., matrix.getTransportCost(loc(2), loc(1), 0.0, null, vehicle), 0.1);
     }
 
+    @Test
+    public void whenFillingSymmetricMatrix_allRelationsShouldBeStoredInPackedUpperTriangle() {
+        int n = 7;
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(n, true);
+        for (int from = 0; from < n; from++) {
+            for (int to = from; to < n; to++) {
+                matrixBuilder.addTransportDistance(from, to, from * 10 + to);
+                matrixBuilder.addTransportTime(to, from, from * 100 + to);
+            }
+        }
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                int min = Math.min(from, to);
+                int max = Math.max(from, to);
+                assertEquals(min * 10 + max, matrix.getDistance(from, to), 0.01);
+                assertEquals(min * 100 + max, matrix.getTransportTime(from, to), 0.01);
+            }
+        }
+    }
+
+    @Test
+    public void whenUsingFloatPrecision_itShouldReturnCorrectValues() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false, true);
+        matrixBuilder.addTransportDistance(1, 2, 20.5);
+        matrixBuilder.addTransportTime(1, 2, 2.);
+        matrixBuilder.addTransportTime(2, 1, 8.);
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertEquals(20.5, matrix.getDistance(1, 2), 0.001);
+        assertEquals(0., matrix.getDistance(2, 1), 0.001);
+        assertEquals(2., matrix.getTransportTime(loc(1), loc(2), 0.0, null, null), 0.001);
+        assertEquals(8., matrix.getTransportTime(loc(2), loc(1), 0.0, null, null), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingDistanceWithToIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false).addTransportDistance(0, 3, 2.);
+    }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingTimeWithFromIndexOutOfRangeToSymmetricMatrix_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, true).addTransportTime(3, 0, 2.);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingDistanceWithIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix matrix = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false).build();
+        matrix.getDistance(Location.Builder.newInstance().setIndex(0).build(), Location.Builder.newInstance().setIndex(3).build(), 0., null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingTransportTimeWithIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix matrix = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, true, true).build();
+        matrix.getTransportTime(3, 1);
+    }
+
+    @Test
+    public void whenRequestingMatrix_itShouldReturnThreeDimensionalCopy() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false);
+        matrixBuilder.addTransportDistance(1, 2, 20.);
+        matrixBuilder.addTransportTime(1, 2, 2.);
+        double[][][] copy = matrixBuilder.build().getMatrix();
+        assertEquals(20., copy[1][2][0], 0.01);
+        assertEquals(2., copy[1][2][1], 0.01);
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MappedVehicleRoutingTransportCostsMatrixTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Location loc(int index) {
+        return Location.Builder.newInstance().setIndex(index).build();
+    }
+
+    @Test
+    public void whenWritingAsymmetricMatrix_itShouldReadCorrectValues() throws IOException {
+        File file = folder.newFile("matrix.bin");
+        MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, 3, false, false)
+            .addTransportDistance(1, 2, 20.)
+            .addTransportTime(1, 2, 2.)
+            .addTransportTime(2, 1, 8.)
+            .close();
+        MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.load(file);
+        assertEquals(3, matrix.getNoLocations());
+        assertEquals(20., matrix.getDistance(1, 2), 0.01);
+        assertEquals(0., matrix.getDistance(2, 1), 0.01);
+        assertEquals(2., matrix.getTransportTime(loc(1), loc(2), 0., null, null), 0.01);
+        assertEquals(8., matrix.getTransportTime(loc(2), loc(1), 0., null, null), 0.01);
+    }
+
+    @Test
+    public void whenWritingSymmetricMatrix_itShouldReadCorrectValuesInBothDirections() throws IOException {
+        File file = folder.newFile("matrix.bin");
+        MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, 3, true, false)
+            .addTransportDistance(2, 1, 20.)
+            .addTransportTime(1, 2, 2.)
+            .close();
+        MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.load(file);
+        assertTrue(matrix.isSymmetric());
+        Vehicle vehicle = mock(Vehicle.class);
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(1.).setCostPerTime(2.).build();
+        when(vehicle.getType()).thenReturn(type);
+        assertEquals(24., matrix.getTransportCost(loc(1), loc(2), 0.0, null, vehicle), 0.1);
+        assertEquals(24., matrix.getTransportCost(loc(2), loc(1), 0.0, null, vehicle), 0.1);
+    }
+
+    @Test
+    public void whenWritingFastMatrixWithFloatPrecision_itShouldReadSameValues() throws IOException {
+        int n = 5;
+        FastVehicleRoutingTransportCostsMatrix.Builder builder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(n, false);
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                builder.addTransportDistance(from, to, from * 10 + to);
+                builder.addTransportTime(from, to, from * 100 + to);
+            }
+        }
+        File file = folder.newFile("matrix.bin");
+        MappedVehicleRoutingTransportCostsMatrix.Writer.write(builder.build(), file, true);
+        MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.load(file);
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                assertEquals(from * 10 + to, matrix.getDistance(from, to), 0.001);
+                assertEquals(from * 100 + to, matrix.getTransportTime(from, to), 0.001);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingDistanceWithToIndexOutOfRange_itShouldThrowException() throws IOException {
+        File file = folder.newFile("matrix.bin");
+        MappedVehicleRoutingTransportCostsMatrix.Writer writer = MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, 3, false, false);
+        try {
+            writer.addTransportDistance(0, 3, 2.);
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingTransportTimeWithIndexOutOfRange_itShouldThrowException() throws IOException {
+        File file = folder.newFile("matrix.bin");
+        MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, 3, true, false).close();
+        MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.load(file);
+        matrix.getTransportTime(loc(3), loc(1), 0., null, null);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenLoadingFileWithoutHeader_itShouldThrowException() throws IOException {
+        File file = folder.newFile("matrix.bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[40]);
+        out.close();
+        MappedVehicleRoutingTransportCostsMatrix.load(file);
+    }
+
+}
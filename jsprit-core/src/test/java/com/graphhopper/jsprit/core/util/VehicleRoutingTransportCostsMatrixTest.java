@@ -258,4 +258,84 @@ public class VehicleRoutingTransportCostsMatrixTest {
         assertEquals(1., matrix.getTransportCost(loc("to"), loc("from"), 0.0, null, vehicle), 0.1);
     }
 
+    @Test
+    public void whenUsingLocationsCreatedByMatrix_itShouldReturnCorrectValues() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        matrixBuilder.addTransportDistance("from", "to", 1.);
+        matrixBuilder.addTransportDistance("to", "from", 3.);
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        Location from = matrix.getLocation("from");
+        Location to = matrix.getLocation("to");
+        assertEquals(0, from.getIndex());
+        assertEquals(1, to.getIndex());
+        assertEquals(1., matrix.getTransportCost(from, to, 0.0, null, null), 0.1);
+        assertEquals(3., matrix.getTransportCost(to, from, 0.0, null, null), 0.1);
+    }
+
+    @Test
+    public void whenLocationIndexDoesNotMatchMatrixIndex_itShouldFallBackToLocationId() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        matrixBuilder.addTransportDistance("from", "to", 1.);
+        matrixBuilder.addTransportDistance("to", "from", 3.);
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        Location from = Location.Builder.newInstance().setId("from").setIndex(1).build();
+        Location to = Location.Builder.newInstance().setId("to").setIndex(5).build();
+        assertEquals(1., matrix.getTransportCost(from, to, 0.0, null, null), 0.1);
+        assertEquals(3., matrix.getTransportCost(to, from, 0.0, null, null), 0.1);
+    }
+
+    @Test
+    public void whenAskingForUnknownLocationIndex_itShouldReturnNoIndex() {
+        VehicleRoutingTransportCostsMatrix matrix = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false)
+            .addTransportDistance("from", "to", 1.).build();
+        assertEquals(Location.NO_INDEX, matrix.getLocationIndex("unknown"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenRelationDoesNotExist_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix matrix = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false)
+            .addTransportDistance("from", "to", 1.).build();
+        matrix.getDistance("to", "from");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenLocationIsUnknown_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix matrix = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false)
+            .addTransportDistance("from", "to", 1.).build();
+        matrix.getTransportCost(loc("from"), loc("unknown"), 0.0, null, null);
+    }
+
+    @Test
+    public void whenMatrixIsSparse_itShouldReturnCorrectValues() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+        for (int i = 0; i < 100; i++) {
+            matrixBuilder.addTransportDistance("loc" + i, "loc" + (i + 1), i);
+            matrixBuilder.addTransportTime("loc" + i, "loc" + (i + 1), 2. * i);
+        }
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertEquals(50., matrix.getDistance("loc50", "loc51"), 0.01);
+        assertEquals(50., matrix.getDistance("loc51", "loc50"), 0.01);
+        assertEquals(100., matrix.getTransportTime(matrix.getLocation("loc51"), matrix.getLocation("loc50"), 0.0, null, null), 0.01);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenRelationOfSparseMatrixDoesNotExist_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        for (int i = 0; i < 100; i++) {
+            matrixBuilder.addTransportDistance("loc" + i, "loc" + (i + 1), i);
+        }
+        matrixBuilder.build().getDistance("loc51", "loc50");
+    }
+
+    @Test
+    public void whenMatrixHasTooManyLocationsForAnArray_itShouldReturnCorrectValues() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        for (int i = 0; i < 50000; i++) {
+            matrixBuilder.addTransportDistance("loc" + i, "loc" + (i + 1), i);
+        }
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertEquals(49999., matrix.getDistance("loc49999", "loc50000"), 0.01);
+        assertEquals(49999., matrix.getTransportCost(matrix.getLocation("loc49999"), matrix.getLocation("loc50000"), 0.0, null, null), 0.01);
+    }
+
 }
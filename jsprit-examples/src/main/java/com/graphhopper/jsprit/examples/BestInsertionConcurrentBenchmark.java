@@ -0,0 +1,122 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.examples;
+
+import com.graphhopper.jsprit.core.algorithm.PrettyAlgorithmBuilder;
+import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
+import com.graphhopper.jsprit.core.algorithm.VariablePlusFixedSolutionCostCalculatorFactory;
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.acceptor.GreedyAcceptance;
+import com.graphhopper.jsprit.core.algorithm.module.RuinAndRecreateModule;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionBuilder;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionStrategy;
+import com.graphhopper.jsprit.core.algorithm.ruin.RadialRuinStrategyFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.RandomRuinStrategyFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.algorithm.selector.SelectBest;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.vehicle.FiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.util.Solutions;
+import com.graphhopper.jsprit.instance.reader.LiLimReader;
+import com.graphhopper.jsprit.instance.reader.SolomonReader;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares the run time of ruin-and-recreate with {@link com.graphhopper.jsprit.core.algorithm.recreate.BestInsertionConcurrent}
+ * and {@link com.graphhopper.jsprit.core.algorithm.recreate.BestInsertionConcurrentPartitioned} on Solomon and Li-Lim instances.
+ * <p>Arguments (all optional): [instance folder, default ../jsprit-instances/instances] [number of threads] [iterations]
+ */
+public class BestInsertionConcurrentBenchmark {
+
+    private static final String[] SOLOMON = {"C101", "R101", "RC101", "R201"};
+
+    private static final String[] LI_LIM = {"lc101", "lr101", "lrc101", "lr201"};
+
+    public static void main(String[] args) {
+        String instanceFolder = args.length > 0 ? args[0] : "../jsprit-instances/instances";
+        int noThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        ExecutorService executorService = Executors.newFixedThreadPool(noThreads);
+        System.out.println("instance\tthreads\tconcurrent [ms]\tpartitioned [ms]\tconcurrent costs\tpartitioned costs");
+        for (String instance : SOLOMON) {
+            VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+            new SolomonReader(vrpBuilder).read(instanceFolder + "/solomon/" + instance + ".txt");
+            benchmark(instance, vrpBuilder.build(), executorService, noThreads, iterations);
+        }
+        for (String instance : LI_LIM) {
+            VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+            new LiLimReader(vrpBuilder).read(instanceFolder + "/lilim/" + instance + ".txt");
+            benchmark(instance, vrpBuilder.build(), executorService, noThreads, iterations);
+        }
+        executorService.shutdown();
+    }
+
+    private static void benchmark(String instance, VehicleRoutingProblem vrp, ExecutorService executorService, int noThreads, int iterations) {
+        //warm up
+        run(vrp, executorService, noThreads, false, iterations / 5);
+        run(vrp, executorService, noThreads, true, iterations / 5);
+
+        long start = System.nanoTime();
+        double concurrentCosts = run(vrp, executorService, noThreads, false, iterations);
+        long concurrentTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        double partitionedCosts = run(vrp, executorService, noThreads, true, iterations);
+        long partitionedTime = System.nanoTime() - start;
+        System.out.println(instance + "\t" + noThreads + "\t" + concurrentTime / 1000000 + "\t" + partitionedTime / 1000000
+            + "\t" + Math.round(concurrentCosts) + "\t" + Math.round(partitionedCosts));
+    }
+
+    private static double run(VehicleRoutingProblem vrp, ExecutorService executorService, int noThreads, boolean partitioned, int iterations) {
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        VehicleFleetManager fleetManager = vrp.getFleetSize().equals(VehicleRoutingProblem.FleetSize.INFINITE) ?
+            new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager() :
+            new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+
+        InsertionStrategy best = new InsertionBuilder(vrp, fleetManager, stateManager, constraintManager)
+            .setInsertionStrategy(InsertionBuilder.Strategy.BEST)
+            .setConcurrentMode(executorService, noThreads)
+            .setPartitionedBest(partitioned).build();
+
+        SolutionCostCalculator objectiveFunction = new VariablePlusFixedSolutionCostCalculatorFactory(stateManager).createCalculator();
+        SearchStrategy randomStrategy = new SearchStrategy("random", new SelectBest(), new GreedyAcceptance(1), objectiveFunction);
+        randomStrategy.addModule(new RuinAndRecreateModule("randomRuinBestIns", best, new RandomRuinStrategyFactory(0.3).createStrategy(vrp)));
+        SearchStrategy radialStrategy = new SearchStrategy("radial", new SelectBest(), new GreedyAcceptance(1), objectiveFunction);
+        radialStrategy.addModule(new RuinAndRecreateModule("radialRuinBestIns", best, new RadialRuinStrategyFactory(0.3, new AvgServiceAndShipmentDistance(vrp.getTransportCosts())).createStrategy(vrp)));
+
+        VehicleRoutingAlgorithm vra = PrettyAlgorithmBuilder.newInstance(vrp, fleetManager, stateManager, constraintManager)
+            .setRandom(new Random(4711))
+            .withStrategy(randomStrategy, 0.5).withStrategy(radialStrategy, 0.5)
+            .addCoreStateAndConstraintStuff()
+            .constructInitialSolutionWith(best, objectiveFunction)
+            .build();
+        vra.setMaxIterations(iterations);
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        return solution.getCost();
+    }
+
+}